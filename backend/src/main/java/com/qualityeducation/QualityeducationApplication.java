@@ -2,14 +2,18 @@ package com.qualityeducation;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Logins are handled by the auth services and requests carry JWTs, so no default in-memory user
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class)
 @EnableMongoRepositories(basePackages = {
 		"com.qualityeducation.repository",
 })
 @EnableMongoAuditing
+@EnableScheduling
 public class QualityeducationApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,201 @@
+package com.qualityeducation.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt encoder that hashes and verifies on a small dedicated pool instead of the
+ * calling request thread. The pool's queue is bounded; when it is full, or a hash
+ * waits longer than the configured timeout, the call fails fast with
+ * {@link PasswordHashingRejectedException} so login storms cannot tie up every
+ * Tomcat worker.
+ *
+ * The BCrypt cost is {@code security.password.strength}, so every instance hashes
+ * alike. At startup the encoder times BCrypt on this machine and logs the cost that
+ * would meet {@code security.password.target-hash-millis}, as a hint for tuning.
+ * {@link #upgradeEncoding(String)} reports any stored hash whose cost differs from the
+ * configured one so callers can rehash on a successful login.
+ */
+@Component
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final int MIN_SUGGESTED_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final LongAdder rejections = new LongAdder();
+
+    public BoundedPasswordEncoder(
+            @Value("${security.password.target-hash-millis:250}") long targetHashMillis,
+            @Value("${security.password.strength:10}") int strength,
+            @Value("${security.password.hash-threads:0}") int hashThreads,
+            @Value("${security.password.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password.timeout-millis:5000}") long timeoutMillis) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.timeoutMillis = timeoutMillis;
+
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        log.info("Password hashing uses BCrypt cost {} on {} threads (queue capacity {})",
+                strength, threads, queueCapacity);
+        if (targetHashMillis > 0) {
+            int suggested = calibrate(targetHashMillis);
+            if (suggested != strength) {
+                log.info("BCrypt cost {} is closest to the {} ms hash target on this machine; "
+                        + "consider security.password.strength={}", suggested, targetHashMillis, suggested);
+            }
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && cost != strength;
+    }
+
+    /**
+     * Returns a fresh hash at the configured cost when the stored one is off target, or
+     * {@code null} when no upgrade is needed or the pool is too busy to do it right now.
+     */
+    public String rehashIfNeeded(CharSequence rawPassword, String encodedPassword) {
+        if (!upgradeEncoding(encodedPassword)) {
+            return null;
+        }
+        try {
+            return encode(rawPassword);
+        } catch (PasswordHashingRejectedException e) {
+            log.debug("Skipping password rehash: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new PasswordHashingRejectedException("Password hashing queue is full");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new PasswordHashingRejectedException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Password hashing interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Picks the cost whose hash time lands closest to the target, never below BCrypt's default
+    private static int calibrate(long targetHashMillis) {
+        timeHash(4); // warm up so the first measurement is not inflated by class loading
+        int cost = MIN_SUGGESTED_STRENGTH;
+        while (cost < MAX_STRENGTH) {
+            long elapsedMillis = timeHash(cost);
+            if (elapsedMillis >= targetHashMillis) {
+                break;
+            }
+            // Each extra cost step doubles the work; stop before overshooting by more than the gap below
+            if (elapsedMillis * 2 - targetHashMillis > targetHashMillis - elapsedMillis) {
+                break;
+            }
+            cost++;
+        }
+        return cost;
+    }
+
+    private static long timeHash(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    // BCrypt hashes look like $2a$10$...; returns -1 when the cost cannot be read
+    private static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int end = encodedPassword.indexOf('$', 1);
+        if (end < 0 || end + 3 > encodedPassword.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(end + 1, end + 3));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.qualityeducation.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the {@link JwtPrincipal} verified by the JWT filter into a controller
+ * method parameter. Resolves to {@code null} for anonymous requests.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentPrincipal {
+}
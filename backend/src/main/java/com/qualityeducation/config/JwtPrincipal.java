@@ -0,0 +1,44 @@
+package com.qualityeducation.config;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.security.Principal;
+
+/**
+ * Immutable view of a verified JWT. Built once per token by {@link JwtPrincipalCache}
+ * and handed to controllers through {@link CurrentPrincipal}.
+ */
+@Value
+@Builder
+public class JwtPrincipal implements Principal {
+
+    String email;
+    String userType;
+    String userId;
+    String teacherId;
+    String supervisorId;
+    String tokenId;
+    String sessionId;
+    long expiresAtMillis;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+
+    public String getRole() {
+        if (userType == null) {
+            return "ROLE_USER";
+        }
+        return switch (userType) {
+            case "SUPERVISOR", "supervisor" -> "ROLE_SUPERVISOR";
+            case "TEACHER", "teacher" -> "ROLE_TEACHER";
+            default -> "ROLE_USER";
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.qualityeducation.config;
+
+import com.qualityeducation.service.JwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of verified tokens keyed by the SHA-256 of the raw token, so a
+ * token seen before skips signature verification and claim parsing. Entries are
+ * dropped once the token expires.
+ */
+@Component
+@Slf4j
+public class JwtPrincipalCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtService jwtService;
+    private final int maxEntries;
+    private final Map<String, JwtPrincipal> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JwtPrincipalCache(JwtService jwtService,
+            @Value("${jwt.cache.max-entries:10000}") int maxEntries) {
+        this.jwtService = jwtService;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the principal for the token, verifying it only on a cache miss.
+     * Throws the same exceptions as {@link JwtService#parsePrincipal(String)}.
+     */
+    public JwtPrincipal resolve(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        JwtPrincipal cached = entries.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                hits.increment();
+                return cached;
+            }
+            if (entries.remove(key, cached)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        JwtPrincipal principal = jwtService.parsePrincipal(token);
+
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(key, principal);
+        return principal;
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drop expired entries first; if the cache is still full, shed an arbitrary tenth of it.
+    private void evict(long now) {
+        int removed = 0;
+        Iterator<JwtPrincipal> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        if (entries.size() >= maxEntries) {
+            int toShed = Math.max(1, maxEntries / 10);
+            iterator = entries.values().iterator();
+            while (iterator.hasNext() && toShed-- > 0) {
+                iterator.next();
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        evictions.add(removed);
+        log.debug("Evicted {} cached JWT principals (hits={}, misses={})", removed, hits.sum(), misses.sum());
+    }
+
+    private static String hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hashed = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hashed);
+    }
+}
@@ -0,0 +1,194 @@
+package com.qualityeducation.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token-bucket throttle for the login and password-reset endpoints, keyed by client IP
+ * and by email. Controllers consult it before any lookup or password check runs, so a
+ * burst of attempts is turned away without touching Mongo or BCrypt.
+ *
+ * Buckets live in a fixed number of lock stripes, each a plain map guarded by its
+ * own lock. A bucket that has refilled to capacity carries no state worth keeping,
+ * so each stripe drops such buckets when it is next written after the sweep interval.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private static final int STRIPES = 64;
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Limit ipLimit;
+    private final Limit emailLimit;
+    private final Stripe[] ipStripes = newStripes();
+    private final Stripe[] emailStripes = newStripes();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+    private final LongAdder rejectedByEmail = new LongAdder();
+
+    public LoginThrottle(
+            @Value("${security.login-throttle.ip.capacity:20}") int ipCapacity,
+            @Value("${security.login-throttle.ip.refill-per-minute:20}") double ipRefillPerMinute,
+            @Value("${security.login-throttle.email.capacity:5}") int emailCapacity,
+            @Value("${security.login-throttle.email.refill-per-minute:1}") double emailRefillPerMinute) {
+        this.ipLimit = new Limit(ipCapacity, ipRefillPerMinute);
+        this.emailLimit = new Limit(emailCapacity, emailRefillPerMinute);
+    }
+
+    /**
+     * Takes one attempt from the caller's IP bucket and then the email's bucket.
+     *
+     * @return 0 when the attempt may proceed, otherwise the number of seconds until it would
+     */
+    public long tryAcquire(String clientIp, String email) {
+        long now = System.nanoTime();
+
+        if (clientIp != null) {
+            long waitNanos = acquire(ipStripes, ipLimit, clientIp, now);
+            if (waitNanos > 0) {
+                rejectedByIp.increment();
+                return toRetrySeconds(waitNanos);
+            }
+        }
+
+        if (email != null && !email.isBlank()) {
+            long waitNanos = acquire(emailStripes, emailLimit, email.trim().toLowerCase(Locale.ROOT), now);
+            if (waitNanos > 0) {
+                rejectedByEmail.increment();
+                log.debug("Throttled login attempt for email {}", email);
+                return toRetrySeconds(waitNanos);
+            }
+        }
+
+        allowed.increment();
+        return 0;
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedByIpCount() {
+        return rejectedByIp.sum();
+    }
+
+    public long getRejectedByEmailCount() {
+        return rejectedByEmail.sum();
+    }
+
+    public int getTrackedBucketCount() {
+        int count = 0;
+        for (Stripe stripe : ipStripes) {
+            count += stripe.size();
+        }
+        for (Stripe stripe : emailStripes) {
+            count += stripe.size();
+        }
+        return count;
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanos until one will be available
+    private static long acquire(Stripe[] stripes, Limit limit, String key, long now) {
+        Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        stripe.lock.lock();
+        try {
+            stripe.sweepIfDue(limit, now);
+
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(limit.capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.refill(limit, now);
+            }
+
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / limit.tokensPerNano);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static long toRetrySeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static Stripe[] newStripes() {
+        Stripe[] stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        return stripes;
+    }
+
+    private static final class Limit {
+        final double capacity;
+        final double tokensPerNano;
+
+        Limit(int capacity, double refillPerMinute) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        }
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long updatedAtNanos;
+
+        Bucket(double tokens, long nowNanos) {
+            this.tokens = tokens;
+            this.updatedAtNanos = nowNanos;
+        }
+
+        void refill(Limit limit, long nowNanos) {
+            tokens = Math.min(limit.capacity, tokens + (nowNanos - updatedAtNanos) * limit.tokensPerNano);
+            updatedAtNanos = nowNanos;
+        }
+
+        boolean isFull(Limit limit, long nowNanos) {
+            return tokens + (nowNanos - updatedAtNanos) * limit.tokensPerNano >= limit.capacity;
+        }
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Bucket> buckets = new HashMap<>();
+        long lastSweepNanos = System.nanoTime();
+
+        void sweepIfDue(Limit limit, long nowNanos) {
+            if (nowNanos - lastSweepNanos < SWEEP_INTERVAL_NANOS) {
+                return;
+            }
+            lastSweepNanos = nowNanos;
+            Iterator<Bucket> iterator = buckets.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isFull(limit, nowNanos)) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return buckets.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.qualityeducation.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates the indexes services rely on the first time they are needed rather than at
+ * startup, so the application starts while Mongo is unreachable. Index creation is
+ * idempotent: a failed attempt is retried on the next call, and two threads racing on
+ * the first call only create the same index twice.
+ *
+ * Indexes are tracked by identity, so callers declare them as constants; after the
+ * first call, ensuring them costs a set lookup per index.
+ */
+@Component
+@RequiredArgsConstructor
+public class MongoIndexes {
+
+    private final MongoTemplate mongoTemplate;
+    private final Set<Index> ensured = ConcurrentHashMap.newKeySet();
+
+    public void ensure(Class<?> entityClass, Index... indexes) {
+        for (Index index : indexes) {
+            if (!ensured.contains(index)) {
+                mongoTemplate.indexOps(entityClass).createIndex(index);
+                ensured.add(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.qualityeducation.config;
+
+/**
+ * Thrown when the password hashing pool is saturated and a hash or verification
+ * cannot be scheduled in time. Callers should ask the client to retry shortly.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,5 @@
 package com.qualityeducation.config;
 
-import com.qualityeducation.model.User;
-import com.qualityeducation.model.Teacher;
-import com.qualityeducation.repository.UserRepository;
-import com.qualityeducation.repository.TeacherRepository;
-import com.qualityeducation.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,22 +9,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -40,7 +29,6 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
 @SuppressWarnings("deprecation")
 @Configuration
@@ -49,9 +37,6 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-    private final UserRepository userRepository;
-    private final TeacherRepository teacherRepository;
-
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -59,8 +44,9 @@ public class SecurityConfig {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(Arrays.asList("http://localhost:3000", "http://127.0.0.1:3000"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("ETag", "Link", "X-Next-Cursor"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -75,7 +61,8 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // Add this line
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
-                        .requestMatchers("/api/teacher/login", "/api/teacher/register").permitAll()
+                        .requestMatchers("/api/teacher/login", "/api/teacher/register",
+                                "/api/teacher/forgot-password", "/api/teacher/reset-password").permitAll()
                         .requestMatchers("/api/supervisor/login", "/api/supervisor/register").permitAll()
                         .requestMatchers("/api/courses/public/**").permitAll() // Add this line
                         .requestMatchers("/api/lessons/public/**").permitAll()
@@ -84,58 +71,21 @@ public class SecurityConfig {
                         .requestMatchers("/api/teacher/**").hasAnyRole("TEACHER", "SUPERVISOR")
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authenticationProvider(authenticationProvider())
+                // A missing, expired or revoked token is a 401, which tells clients to refresh
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
-
-    @Bean
-    public UserDetailsService userDetailsService() {
-        return new UserDetailsService() {
-            @Override
-            public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-                // First try to find in Teacher repository
-                Optional<Teacher> teacher = teacherRepository.findByEmail(username);
-                if (teacher.isPresent()) {
-                    return teacher.get();
-                }
-
-                // Then try to find in User repository
-                Optional<User> user = userRepository.findByEmail(username);
-                if (user.isPresent()) {
-                    return (UserDetails) user.get();
-                }
-
-                throw new UsernameNotFoundException("User not found with email: " + username);
-            }
-        };
-    }
-
-    @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
-    @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
-    }
-
-    @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
-    }
 }
 
 @Component
 @RequiredArgsConstructor
 class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private final JwtPrincipalCache jwtPrincipalCache;
+    private final TokenRevocationList tokenRevocationList;
 
     @SuppressWarnings("null")
     @Override
@@ -144,7 +94,6 @@ class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -154,25 +103,19 @@ class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            userEmail = jwtService.extractUsername(jwt);
-
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Extract user type from token
-                String userType = jwtService.extractUserType(jwt);
-
-                // Set role based on user type
-                String role = switch (userType) {
-                    case "SUPERVISOR", "supervisor" -> "ROLE_SUPERVISOR";
-                    case "TEACHER", "teacher" -> "ROLE_TEACHER";
-                    case "USER", "user" -> "ROLE_USER";
-                    default -> "ROLE_USER";
-                };
-
+            // Verified at most once per token; repeat tokens come from the cache
+            JwtPrincipal principal = jwtPrincipalCache.resolve(jwt);
+
+            // Revocations are held in memory, so this adds no database call
+            if (tokenRevocationList.isRevoked(principal)) {
+                logger.debug("Rejected revoked JWT " + principal.getTokenId());
+            } else if (principal.getEmail() != null
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
                 // Create authentication token
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userEmail,
+                        principal,
                         null,
-                        List.of(new SimpleGrantedAuthority(role)));
+                        List.of(new SimpleGrantedAuthority(principal.getRole())));
 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -182,4 +125,4 @@ class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,200 @@
+package com.qualityeducation.config;
+
+import com.qualityeducation.model.RevokedToken;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory view of revoked access tokens and refresh sessions, checked on every
+ * authenticated request without touching the database. A Bloom filter answers the
+ * common "not revoked" case; the exact set confirms a hit.
+ *
+ * Revocations are written through to {@code revoked_tokens}. The whole collection is
+ * loaded while the application starts, before any request is served, and a background
+ * sync then picks up revocations made by other instances, so the request path never
+ * waits on Mongo. Until that first load succeeds, retried by every sync, every token
+ * counts as revoked, so a restart while Mongo is unreachable cannot let a revoked token
+ * through.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    private static final String TOKEN_PREFIX = "jti:";
+    private static final String SESSION_PREFIX = "sid:";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long SYNC_OVERLAP_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final Index EXPIRY_INDEX = new Index().on("expiresAt", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS);
+    private static final Index REVOKED_AT_INDEX = new Index().on("revokedAt", Sort.Direction.ASC);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+    private final int expectedEntries;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile BloomFilter filter;
+
+    private volatile Date lastSyncedAt; // null until the first full load succeeds
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public TokenRevocationList(MongoTemplate mongoTemplate, MongoIndexes mongoIndexes,
+            @Value("${jwt.revocation.expected-entries:100000}") int expectedEntries) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoIndexes = mongoIndexes;
+        this.expectedEntries = expectedEntries;
+        this.filter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        checks.increment();
+        if (lastSyncedAt == null) {
+            return true;
+        }
+        return isRevoked(TOKEN_PREFIX, principal.getTokenId()) || isRevoked(SESSION_PREFIX, principal.getSessionId());
+    }
+
+    /**
+     * Revokes a single access token until it expires.
+     */
+    public void revokeToken(String tokenId, long expiresAtMillis) {
+        if (tokenId != null) {
+            revoke(TOKEN_PREFIX + tokenId, expiresAtMillis);
+        }
+    }
+
+    /**
+     * Revokes every access token carrying the session id, up to the given time.
+     */
+    public void revokeSession(String sessionId, long untilMillis) {
+        if (sessionId != null) {
+            revoke(SESSION_PREFIX + sessionId, untilMillis);
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    public long getCheckCount() {
+        return checks.sum();
+    }
+
+    public long getFilterHitCount() {
+        return filterHits.sum();
+    }
+
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    // Runs before the web server accepts requests; if it fails, tokens are refused until a sync succeeds
+    @PostConstruct
+    public void load() {
+        sync();
+    }
+
+    /**
+     * Pulls revocations recorded since the last sync (all of them on the first run) and
+     * drops expired entries, rebuilding the filter when anything was removed.
+     */
+    @Scheduled(initialDelayString = "${jwt.revocation.sync-interval-ms:30000}",
+            fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        try {
+            mongoIndexes.ensure(RevokedToken.class, EXPIRY_INDEX, REVOKED_AT_INDEX);
+            Date now = new Date();
+            Query query = Query.query(Criteria.where("expiresAt").gt(now));
+            if (lastSyncedAt != null) {
+                // Overlap a little so writes that landed during the previous sync are not missed
+                query.addCriteria(Criteria.where("revokedAt")
+                        .gte(new Date(lastSyncedAt.getTime() - SYNC_OVERLAP_MILLIS)));
+            }
+
+            int loaded = 0;
+            for (RevokedToken token : mongoTemplate.find(query, RevokedToken.class)) {
+                remember(token.getId(), token.getExpiresAt().getTime());
+                loaded++;
+            }
+            if (lastSyncedAt == null) {
+                log.info("Loaded {} token revocations", loaded);
+            }
+            lastSyncedAt = now;
+        } catch (Exception e) {
+            if (lastSyncedAt == null) {
+                log.error("Token revocations not loaded, refusing access tokens until they are: {}", e.getMessage());
+            } else {
+                log.warn("Token revocation sync failed: {}", e.getMessage());
+            }
+        }
+        pruneExpired();
+    }
+
+    private boolean isRevoked(String prefix, String id) {
+        if (id == null) {
+            return false;
+        }
+        String key = prefix + id;
+        if (!filter.mightContain(key)) {
+            return false;
+        }
+        filterHits.increment();
+        Long until = revoked.get(key);
+        if (until == null || until <= System.currentTimeMillis()) {
+            falsePositives.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void revoke(String key, long untilMillis) {
+        remember(key, untilMillis);
+        try {
+            mongoIndexes.ensure(RevokedToken.class, EXPIRY_INDEX, REVOKED_AT_INDEX);
+            mongoTemplate.save(RevokedToken.builder()
+                    .id(key)
+                    .revokedAt(new Date())
+                    .expiresAt(new Date(untilMillis))
+                    .build());
+        } catch (Exception e) {
+            // Still enforced locally; other instances miss it until it is recorded again
+            log.error("Failed to persist token revocation {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void remember(String key, long untilMillis) {
+        synchronized (writeLock) {
+            revoked.merge(key, untilMillis, Math::max);
+            filter.add(key);
+        }
+    }
+
+    private void pruneExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            if (revoked.values().removeIf(until -> until <= now)) {
+                BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2),
+                        FALSE_POSITIVE_RATE);
+                revoked.keySet().forEach(rebuilt::add);
+                filter = rebuilt;
+            }
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.qualityeducation.controller;
 
+import com.qualityeducation.config.CurrentPrincipal;
+import com.qualityeducation.config.JwtPrincipal;
+import com.qualityeducation.config.LoginThrottle;
 import com.qualityeducation.dto.*;
 import com.qualityeducation.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,23 +21,73 @@ public class AuthController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@RequestBody RegistrationRequest request) {
         return ResponseEntity.ok(authService.register(request));
     }
     
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        long retryAfter = loginThrottle.tryAcquire(httpRequest.getRemoteAddr(), request.getEmail());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
         return ResponseEntity.ok(authService.login(request));
     }
     
     @PostMapping("/forgot-password")
-    public ResponseEntity<AuthResponse> forgotPassword(@RequestBody ForgotPasswordRequest request) {
+    public ResponseEntity<AuthResponse> forgotPassword(@RequestBody ForgotPasswordRequest request,
+            HttpServletRequest httpRequest) {
+        long retryAfter = loginThrottle.tryAcquire(httpRequest.getRemoteAddr(), request.getEmail());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
         return ResponseEntity.ok(authService.forgotPassword(request));
     }
     
     @PostMapping("/reset-password")
-    public ResponseEntity<AuthResponse> resetPassword(@RequestBody ResetPasswordRequest request) {
+    public ResponseEntity<AuthResponse> resetPassword(@RequestBody ResetPasswordRequest request,
+            HttpServletRequest httpRequest) {
+        long retryAfter = loginThrottle.tryAcquire(httpRequest.getRemoteAddr(), null);
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
         return ResponseEntity.ok(authService.resetPassword(request));
     }
-}
\ No newline at end of file
+    
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<TokenRefreshResponse>> refresh(@Valid @RequestBody TokenRefreshRequest request) {
+        ApiResponse<TokenRefreshResponse> response = authService.refresh(request);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<String>> logout(@CurrentPrincipal JwtPrincipal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Authorization token is required"));
+        }
+        
+        ApiResponse<String> response = authService.logout(principal);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    private static ResponseEntity<AuthResponse> tooManyAttempts(long retryAfter) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(new AuthResponse("Too many attempts. Please try again later."));
+    }
+}
@@ -1,37 +1,40 @@
 package com.qualityeducation.controller;
 
+import com.qualityeducation.config.CurrentPrincipal;
+import com.qualityeducation.config.JwtPrincipal;
 import com.qualityeducation.dto.ApiResponse;
+import com.qualityeducation.dto.CourseFacetsResponse;
+import com.qualityeducation.dto.CourseOutlineResponse;
 import com.qualityeducation.dto.CourseRequest;
 import com.qualityeducation.dto.CourseResponse;
+import com.qualityeducation.dto.CursorPage;
 import com.qualityeducation.service.CourseService;
-import com.qualityeducation.service.JwtService;
+import com.qualityeducation.service.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/courses")
 @CrossOrigin(origins = { "http://localhost:3000", "http://127.0.0.1:3000" }, allowedHeaders = "*", methods = {
-        RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE,
+        RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE,
         RequestMethod.OPTIONS }, allowCredentials = "true")
 public class CourseController {
 
     @Autowired
     private CourseService courseService;
 
-    @Autowired
-    private JwtService jwtService;
-
     @PostMapping("/create")
     public ResponseEntity<ApiResponse<CourseResponse>> createCourse(
             @RequestBody CourseRequest request,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             CourseResponse course = courseService.createCourse(request, teacherId);
 
             return ResponseEntity.ok(ApiResponse.success("Course created successfully", course));
@@ -69,9 +72,38 @@ public class CourseController {
         }
     }
 
+    /**
+     * Course page in one call: the course with its modules and their lessons, in order
+     */
+    @GetMapping("/{courseId}/outline")
+    public ResponseEntity<ApiResponse<CourseOutlineResponse>> getCourseOutline(
+            @PathVariable String courseId,
+            @CurrentPrincipal JwtPrincipal principal) {
+        try {
+            String teacherId = extractTeacherId(principal);
+            Optional<CourseOutlineResponse> outline = courseService.getCourseOutline(courseId, teacherId);
+
+            if (outline.isPresent()) {
+                return ResponseEntity.ok(ApiResponse.success("Course outline retrieved successfully", outline.get()));
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to retrieve course outline", e.getMessage()));
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CourseResponse>>> getAllCourses() {
+    public ResponseEntity<ApiResponse<List<CourseResponse>>> getAllCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
+            if (KeysetCursor.isPaged(cursor, limit)) {
+                CursorPage<CourseResponse> page = courseService.getAllCourses(cursor, limit);
+                return CursorPages.withNextLink(ResponseEntity.ok(), page)
+                        .body(ApiResponse.success("Courses retrieved successfully", page.getItems()));
+            }
             List<CourseResponse> courses = courseService.getAllCourses();
             return ResponseEntity.ok(ApiResponse.success("Courses retrieved successfully", courses));
         } catch (Exception e) {
@@ -83,9 +115,26 @@ public class CourseController {
     @PutMapping("/{courseId}")
     public ResponseEntity<ApiResponse<CourseResponse>> updateCourse(
             @PathVariable String courseId,
-            @RequestBody CourseRequest request) {
+            @RequestBody CourseRequest request,
+            @CurrentPrincipal JwtPrincipal principal) {
         try {
-            CourseResponse course = courseService.updateCourse(courseId, request);
+            String teacherId = extractTeacherId(principal);
+            CourseResponse course = courseService.updateCourse(courseId, request, teacherId);
+            return ResponseEntity.ok(ApiResponse.success("Course updated successfully", course));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to update course", e.getMessage()));
+        }
+    }
+
+    @PatchMapping(value = "/{courseId}", consumes = { "application/merge-patch+json", "application/json" })
+    public ResponseEntity<ApiResponse<CourseResponse>> patchCourse(
+            @PathVariable String courseId,
+            @RequestBody Map<String, Object> patch,
+            @CurrentPrincipal JwtPrincipal principal) {
+        try {
+            String teacherId = extractTeacherId(principal);
+            CourseResponse course = courseService.patchCourse(courseId, patch, teacherId);
             return ResponseEntity.ok(ApiResponse.success("Course updated successfully", course));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -105,13 +154,24 @@ public class CourseController {
     }
 
     /**
-     * Get all published courses (public access for browsing)
+     * Get all published courses (public access for browsing); one page at a time when
+     * cursor or limit is given
      */
     @GetMapping("/public/all")
-    public ResponseEntity<ApiResponse<List<CourseResponse>>> getAllPublishedCourses() {
+    public ResponseEntity<ApiResponse<List<CourseResponse>>> getAllPublishedCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
+            if (KeysetCursor.isPaged(cursor, limit)) {
+                CursorPage<CourseResponse> page = courseService.getAllPublishedCourses(cursor, limit);
+                return CursorPages.withNextLink(ResponseEntity.ok(), page)
+                        .body(ApiResponse.success("Published courses retrieved successfully", page.getItems()));
+            }
             List<CourseResponse> courses = courseService.getAllPublishedCourses();
             return ResponseEntity.ok(ApiResponse.success("Published courses retrieved successfully", courses));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error retrieving courses", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error retrieving courses", e.getMessage()));
@@ -119,38 +179,77 @@ public class CourseController {
     }
 
     /**
-     * Search published courses (public access)
+     * Search published courses (public access); one page at a time when cursor or limit
+     * is given
      */
     @GetMapping("/public/search")
     public ResponseEntity<ApiResponse<List<CourseResponse>>> searchPublishedCourses(
             @RequestParam(required = false) String searchTerm,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String level) {
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
+            if (KeysetCursor.isPaged(cursor, limit)) {
+                CursorPage<CourseResponse> page =
+                        courseService.searchPublishedCourses(searchTerm, category, level, cursor, limit);
+                return CursorPages.withNextLink(ResponseEntity.ok(), page)
+                        .body(ApiResponse.success("Courses found successfully", page.getItems()));
+            }
             List<CourseResponse> courses = courseService.searchPublishedCourses(searchTerm, category, level);
             return ResponseEntity.ok(ApiResponse.success("Courses found successfully", courses));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Error searching courses", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error searching courses", e.getMessage()));
         }
     }
 
-    // Helper method to extract teacher ID from JWT token
-    private String extractTeacherIdFromToken(String token) {
+    /**
+     * Published modules and lessons of a published course (public access)
+     */
+    @GetMapping("/public/{courseId}/outline")
+    public ResponseEntity<ApiResponse<CourseOutlineResponse>> getPublishedCourseOutline(@PathVariable String courseId) {
         try {
-            if (token == null || token.trim().isEmpty()) {
-                throw new RuntimeException("Authorization token is required");
-            }
+            Optional<CourseOutlineResponse> outline = courseService.getPublishedCourseOutline(courseId);
 
-            // Remove "Bearer " prefix if present
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
+            if (outline.isPresent()) {
+                return ResponseEntity.ok(ApiResponse.success("Course outline retrieved successfully", outline.get()));
+            } else {
+                return ResponseEntity.notFound().build();
             }
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving course outline", e.getMessage()));
+        }
+    }
 
-            // Use your existing JwtService to extract teacher ID
-            return jwtService.extractTeacherId(token);
+    /**
+     * Facet counts (category, level, language, price band) for published courses
+     * matching the given filters (public access)
+     */
+    @GetMapping("/public/facets")
+    public ResponseEntity<ApiResponse<CourseFacetsResponse>> getPublishedCourseFacets(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) String price) {
+        try {
+            CourseFacetsResponse facets = courseService.getPublishedCourseFacets(category, level, language, price);
+            return ResponseEntity.ok(ApiResponse.success("Course facets retrieved successfully", facets));
         } catch (Exception e) {
-            throw new RuntimeException("Invalid or expired token: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving course facets", e.getMessage()));
+        }
+    }
+
+    // Helper method to extract teacher ID from the verified JWT principal
+    private String extractTeacherId(JwtPrincipal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Invalid or expired token: Authorization token is required");
         }
+        return principal.getTeacherId();
     }
 }
\ No newline at end of file
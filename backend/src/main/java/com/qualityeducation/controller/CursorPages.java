@@ -0,0 +1,42 @@
+package com.qualityeducation.controller;
+
+import com.qualityeducation.dto.ApiResponse;
+import com.qualityeducation.dto.CursorPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+/**
+ * Turns a keyset page into the usual {@code ApiResponse<List<T>>} body. The cursor for
+ * the next page travels in a {@code Link: <...>; rel="next"} header and in
+ * {@code X-Next-Cursor}, so list payloads keep the shape existing clients expect.
+ */
+final class CursorPages {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPages() {
+    }
+
+    static <T> ResponseEntity<ApiResponse<List<T>>> respond(ApiResponse<CursorPage<T>> response) {
+        if (!response.isSuccess()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(response.getMessage(), response.getError()));
+        }
+        return withNextLink(ResponseEntity.ok(), response.getData())
+                .body(ApiResponse.success(response.getMessage(), response.getData().getItems()));
+    }
+
+    static ResponseEntity.BodyBuilder withNextLink(ResponseEntity.BodyBuilder builder, CursorPage<?> page) {
+        if (page.hasNext()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .replaceQueryParam("limit", page.getLimit())
+                    .toUriString();
+            builder.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                    .header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder;
+    }
+}
@@ -1,13 +1,17 @@
 package com.qualityeducation.controller;
 
+import com.qualityeducation.config.CurrentPrincipal;
+import com.qualityeducation.config.JwtPrincipal;
 import com.qualityeducation.dto.*;
+import com.qualityeducation.service.KeysetCursor;
 import com.qualityeducation.service.LessonService;
-import com.qualityeducation.service.JwtService;
+import com.qualityeducation.service.PublishedLessonCatalog;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -18,25 +22,35 @@ import java.util.Map;
 @Slf4j
 @CrossOrigin(origins = { "http://localhost:3000", "http://127.0.0.1:3000" },
         allowedHeaders = "*",
-        methods = { RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE, RequestMethod.OPTIONS },
+        methods = { RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE, RequestMethod.OPTIONS },
         allowCredentials = "true")
 public class LessonController {
 
     private final LessonService lessonService;
-    private final JwtService jwtService;
 
-    // Public endpoint to get all published lessons (no authentication required)
+    // Public endpoint to get all published lessons (no authentication required).
+    // Served from the in-memory catalog; a matching If-None-Match gets a 304.
+    // With cursor or limit, returns one page and links the next in the Link header.
     @GetMapping("/public/all")
-    public ResponseEntity<ApiResponse<List<LessonResponse>>> getAllPublishedLessons() {
+    public ResponseEntity<ApiResponse<List<LessonResponse>>> getAllPublishedLessons(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
         try {
-            log.info("Fetching all published lessons (public access)");
-            ApiResponse<List<LessonResponse>> response = lessonService.getAllPublishedLessons();
+            PublishedLessonCatalog.Snapshot snapshot = lessonService.getPublishedLessonSnapshot();
+            if (!KeysetCursor.isPaged(cursor, limit)) {
+                if (webRequest.checkNotModified(snapshot.etag())) {
+                    return null;
+                }
+                return ResponseEntity.ok().eTag(snapshot.etag()).body(snapshot.response());
+            }
 
-            if (response.isSuccess()) {
-                return ResponseEntity.ok(response);
-            } else {
-                return ResponseEntity.badRequest().body(response);
+            CursorPage<LessonResponse> page = snapshot.page(cursor, limit);
+            if (webRequest.checkNotModified(snapshot.etag())) {
+                return null;
             }
+            return CursorPages.withNextLink(ResponseEntity.ok().eTag(snapshot.etag()), page)
+                    .body(ApiResponse.success("Published lessons retrieved successfully", page.getItems()));
         } catch (Exception e) {
             log.error("Error fetching published lessons", e);
             return ResponseEntity.badRequest()
@@ -68,10 +82,10 @@ public class LessonController {
     public ResponseEntity<ApiResponse<LessonResponse>> createLesson(
             @PathVariable String moduleId,
             @Valid @RequestBody LessonRequest request,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             log.info("Creating lesson in module: {} by teacher: {}", moduleId, teacherId);
 
             ApiResponse<LessonResponse> response = lessonService.createLesson(moduleId, request, teacherId);
@@ -91,10 +105,10 @@ public class LessonController {
     @GetMapping("/modules/{moduleId}")
     public ResponseEntity<ApiResponse<List<LessonResponse>>> getLessonsByModule(
             @PathVariable String moduleId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             log.info("Fetching lessons for module: {} by teacher: {}", moduleId, teacherId);
 
             ApiResponse<List<LessonResponse>> response = lessonService.getLessonsByModule(moduleId, teacherId);
@@ -111,13 +125,65 @@ public class LessonController {
         }
     }
 
+    // Lesson summaries for a module: no transcript or quiz bodies, just a quiz count
+    @GetMapping("/modules/{moduleId}/summary")
+    public ResponseEntity<ApiResponse<List<LessonSummaryResponse>>> getLessonSummariesByModule(
+            @PathVariable String moduleId,
+            @CurrentPrincipal JwtPrincipal principal) {
+
+        try {
+            String teacherId = extractTeacherId(principal);
+
+            ApiResponse<List<LessonSummaryResponse>> response =
+                    lessonService.getLessonSummariesByModule(moduleId, teacherId);
+
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.badRequest().body(response);
+            }
+        } catch (Exception e) {
+            log.error("Error fetching lesson summaries for module: {}", moduleId, e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to retrieve lessons", e.getMessage()));
+        }
+    }
+
+    // All of the teacher's lessons, newest first; paged when cursor or limit is given
+    @GetMapping("/teacher")
+    public ResponseEntity<ApiResponse<List<LessonResponse>>> getLessonsByTeacher(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @CurrentPrincipal JwtPrincipal principal) {
+
+        try {
+            String teacherId = extractTeacherId(principal);
+
+            if (KeysetCursor.isPaged(cursor, limit)) {
+                return CursorPages.respond(lessonService.getLessonsByTeacher(teacherId, cursor, limit));
+            }
+
+            ApiResponse<List<LessonResponse>> response = lessonService.getLessonsByTeacher(teacherId);
+
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.badRequest().body(response);
+            }
+        } catch (Exception e) {
+            log.error("Error fetching lessons for teacher", e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to retrieve lessons", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{lessonId}")
     public ResponseEntity<ApiResponse<LessonResponse>> getLessonById(
             @PathVariable String lessonId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             log.info("Fetching lesson: {} by teacher: {}", lessonId, teacherId);
 
             ApiResponse<LessonResponse> response = lessonService.getLessonById(lessonId, teacherId);
@@ -138,10 +204,10 @@ public class LessonController {
     public ResponseEntity<ApiResponse<LessonResponse>> updateLesson(
             @PathVariable String lessonId,
             @Valid @RequestBody LessonUpdateRequest request,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             log.info("Updating lesson: {} by teacher: {}", lessonId, teacherId);
 
             ApiResponse<LessonResponse> response = lessonService.updateLesson(lessonId, request, teacherId);
@@ -158,13 +224,37 @@ public class LessonController {
         }
     }
 
+    // JSON Merge Patch: only the fields sent are changed; an explicit null clears one
+    @PatchMapping(value = "/{lessonId}", consumes = { "application/merge-patch+json", "application/json" })
+    public ResponseEntity<ApiResponse<LessonResponse>> patchLesson(
+            @PathVariable String lessonId,
+            @RequestBody Map<String, Object> patch,
+            @CurrentPrincipal JwtPrincipal principal) {
+
+        try {
+            String teacherId = extractTeacherId(principal);
+
+            ApiResponse<LessonResponse> response = lessonService.patchLesson(lessonId, patch, teacherId);
+
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.badRequest().body(response);
+            }
+        } catch (Exception e) {
+            log.error("Error patching lesson: {}", lessonId, e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to update lesson", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{lessonId}")
     public ResponseEntity<ApiResponse<String>> deleteLesson(
             @PathVariable String lessonId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             log.info("Deleting lesson: {} by teacher: {}", lessonId, teacherId);
 
             ApiResponse<String> response = lessonService.deleteLesson(lessonId, teacherId);
@@ -185,13 +275,14 @@ public class LessonController {
     public ResponseEntity<ApiResponse<List<LessonResponse>>> searchLessons(
             @RequestParam String courseId,
             @RequestParam String searchTerm,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @RequestParam(required = false) String language,
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             log.info("Searching lessons in course: {} with term: {} by teacher: {}", courseId, searchTerm, teacherId);
 
-            ApiResponse<List<LessonResponse>> response = lessonService.searchLessons(courseId, searchTerm, teacherId);
+            ApiResponse<List<LessonResponse>> response = lessonService.searchLessons(courseId, searchTerm, language, teacherId);
 
             if (response.isSuccess()) {
                 return ResponseEntity.ok(response);
@@ -207,10 +298,10 @@ public class LessonController {
 
     @GetMapping("/stats")
     public ResponseEntity<ApiResponse<LessonStatsResponse>> getLessonStats(
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             log.info("Fetching lesson statistics for teacher: {}", teacherId);
 
             ApiResponse<LessonStatsResponse> response = lessonService.getLessonStats(teacherId);
@@ -231,10 +322,10 @@ public class LessonController {
     public ResponseEntity<ApiResponse<String>> reorderLessons(
             @PathVariable String moduleId,
             @RequestBody Map<String, List<String>> requestBody,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             List<String> lessonIds = requestBody.get("lessonIds");
 
             if (lessonIds == null || lessonIds.isEmpty()) {
@@ -261,10 +352,10 @@ public class LessonController {
     @PutMapping("/{lessonId}/publish")
     public ResponseEntity<ApiResponse<String>> publishLesson(
             @PathVariable String lessonId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             log.info("Publishing lesson: {} by teacher: {}", lessonId, teacherId);
 
             ApiResponse<String> response = lessonService.publishLesson(lessonId, teacherId);
@@ -284,10 +375,10 @@ public class LessonController {
     @PutMapping("/{lessonId}/unpublish")
     public ResponseEntity<ApiResponse<String>> unpublishLesson(
             @PathVariable String lessonId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             log.info("Unpublishing lesson: {} by teacher: {}", lessonId, teacherId);
 
             ApiResponse<String> response = lessonService.unpublishLesson(lessonId, teacherId);
@@ -304,22 +395,11 @@ public class LessonController {
         }
     }
 
-    // Helper method to extract teacher ID from JWT token
-    private String extractTeacherIdFromToken(String token) {
-        try {
-            if (token == null || token.trim().isEmpty()) {
-                throw new RuntimeException("Authorization token is required");
-            }
-
-            // Remove "Bearer " prefix if present
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-
-            // Use existing JwtService to extract teacher ID
-            return jwtService.extractTeacherId(token);
-        } catch (Exception e) {
-            throw new RuntimeException("Invalid or expired token: " + e.getMessage());
+    // Helper method to extract teacher ID from the verified JWT principal
+    private String extractTeacherId(JwtPrincipal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Invalid or expired token: Authorization token is required");
         }
+        return principal.getTeacherId();
     }
 }
\ No newline at end of file
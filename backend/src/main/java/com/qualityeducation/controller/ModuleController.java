@@ -1,9 +1,11 @@
 package com.qualityeducation.controller;
 
+import com.qualityeducation.config.CurrentPrincipal;
+import com.qualityeducation.config.JwtPrincipal;
 import com.qualityeducation.dto.*;
 import com.qualityeducation.model.Module;
+import com.qualityeducation.service.KeysetCursor;
 import com.qualityeducation.service.ModuleService;
-import com.qualityeducation.service.JwtService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +15,7 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,12 +25,11 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = { "http://localhost:3000", "http://127.0.0.1:3000" },
         allowedHeaders = "*",
         methods = { RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT,
-                RequestMethod.DELETE, RequestMethod.OPTIONS },
+                RequestMethod.PATCH, RequestMethod.DELETE, RequestMethod.OPTIONS },
         allowCredentials = "true")
 public class ModuleController {
 
     private final ModuleService moduleService;
-    private final JwtService jwtService;
 
     /**
      * Create a new module for a course
@@ -37,7 +39,7 @@ public class ModuleController {
     public ResponseEntity<ApiResponse<ModuleResponse>> createModule(
             @PathVariable String courseId,
             @Valid @RequestBody ModuleRequest request,
-            @RequestHeader(value = "Authorization", required = false) String token,
+            @CurrentPrincipal JwtPrincipal principal,
             BindingResult bindingResult) {
 
         try {
@@ -51,7 +53,7 @@ public class ModuleController {
                         .body(ApiResponse.error("Validation failed", errors));
             }
 
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             ApiResponse<ModuleResponse> response = moduleService.createModule(courseId, request, teacherId);
 
             if (response.isSuccess()) {
@@ -74,10 +76,10 @@ public class ModuleController {
     @PreAuthorize("hasRole('TEACHER') or hasRole('SUPERVISOR')")
     public ResponseEntity<ApiResponse<List<ModuleResponse>>> getModulesByCourse(
             @PathVariable String courseId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             ApiResponse<List<ModuleResponse>> response = moduleService.getModulesByCourse(courseId, teacherId);
 
             if (response.isSuccess()) {
@@ -93,6 +95,33 @@ public class ModuleController {
         }
     }
 
+    /**
+     * Get a course's modules with lesson summaries, without heavy lesson fields
+     */
+    @GetMapping("/course/{courseId}/summary")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('SUPERVISOR')")
+    public ResponseEntity<ApiResponse<List<ModuleWithLessonsResponse>>> getModuleSummariesByCourse(
+            @PathVariable String courseId,
+            @CurrentPrincipal JwtPrincipal principal) {
+
+        try {
+            String teacherId = extractTeacherId(principal);
+            ApiResponse<List<ModuleWithLessonsResponse>> response =
+                    moduleService.getModuleSummariesByCourse(courseId, teacherId);
+
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.badRequest().body(response);
+            }
+
+        } catch (Exception e) {
+            log.error("Error fetching module summaries for course {}: {}", courseId, e.getMessage(), e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to retrieve modules", e.getMessage()));
+        }
+    }
+
     /**
      * Get a specific module by ID
      */
@@ -100,10 +129,10 @@ public class ModuleController {
     @PreAuthorize("hasRole('TEACHER') or hasRole('SUPERVISOR')")
     public ResponseEntity<ApiResponse<ModuleResponse>> getModuleById(
             @PathVariable String moduleId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             ApiResponse<ModuleResponse> response = moduleService.getModuleById(moduleId, teacherId);
 
             if (response.isSuccess()) {
@@ -127,7 +156,7 @@ public class ModuleController {
     public ResponseEntity<ApiResponse<ModuleResponse>> updateModule(
             @PathVariable String moduleId,
             @Valid @RequestBody ModuleUpdateRequest request,
-            @RequestHeader(value = "Authorization", required = false) String token,
+            @CurrentPrincipal JwtPrincipal principal,
             BindingResult bindingResult) {
 
         try {
@@ -141,7 +170,7 @@ public class ModuleController {
                         .body(ApiResponse.error("Validation failed", errors));
             }
 
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             ApiResponse<ModuleResponse> response = moduleService.updateModule(moduleId, request, teacherId);
 
             if (response.isSuccess()) {
@@ -157,6 +186,33 @@ public class ModuleController {
         }
     }
 
+    /**
+     * Update a module with a JSON Merge Patch
+     */
+    @PatchMapping(value = "/{moduleId}", consumes = { "application/merge-patch+json", "application/json" })
+    @PreAuthorize("hasRole('TEACHER') or hasRole('SUPERVISOR')")
+    public ResponseEntity<ApiResponse<ModuleResponse>> patchModule(
+            @PathVariable String moduleId,
+            @RequestBody Map<String, Object> patch,
+            @CurrentPrincipal JwtPrincipal principal) {
+
+        try {
+            String teacherId = extractTeacherId(principal);
+            ApiResponse<ModuleResponse> response = moduleService.patchModule(moduleId, patch, teacherId);
+
+            if (response.isSuccess()) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.badRequest().body(response);
+            }
+
+        } catch (Exception e) {
+            log.error("Error patching module {}: {}", moduleId, e.getMessage(), e);
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to update module", e.getMessage()));
+        }
+    }
+
     /**
      * Delete a module
      */
@@ -164,10 +220,10 @@ public class ModuleController {
     @PreAuthorize("hasRole('TEACHER') or hasRole('SUPERVISOR')")
     public ResponseEntity<ApiResponse<Void>> deleteModule(
             @PathVariable String moduleId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             ApiResponse<Void> response = moduleService.deleteModule(moduleId, teacherId);
 
             if (response.isSuccess()) {
@@ -191,7 +247,7 @@ public class ModuleController {
     public ResponseEntity<ApiResponse<List<ModuleResponse>>> reorderModules(
             @PathVariable String courseId,
             @Valid @RequestBody ModuleReorderRequest request,
-            @RequestHeader(value = "Authorization", required = false) String token,
+            @CurrentPrincipal JwtPrincipal principal,
             BindingResult bindingResult) {
 
         try {
@@ -205,7 +261,7 @@ public class ModuleController {
                         .body(ApiResponse.error("Validation failed", errors));
             }
 
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             ApiResponse<List<ModuleResponse>> response = moduleService.reorderModules(courseId, request, teacherId);
 
             if (response.isSuccess()) {
@@ -227,10 +283,17 @@ public class ModuleController {
     @GetMapping("/teacher")
     @PreAuthorize("hasRole('TEACHER') or hasRole('SUPERVISOR')")
     public ResponseEntity<ApiResponse<List<ModuleResponse>>> getModulesByTeacher(
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
+
+            if (KeysetCursor.isPaged(cursor, limit)) {
+                return CursorPages.respond(moduleService.getModulesByTeacher(teacherId, cursor, limit));
+            }
+
             ApiResponse<List<ModuleResponse>> response = moduleService.getModulesByTeacher(teacherId);
 
             if (response.isSuccess()) {
@@ -254,10 +317,10 @@ public class ModuleController {
     public ResponseEntity<ApiResponse<ModuleResponse>> updateModuleStatus(
             @PathVariable String moduleId,
             @RequestParam Module.ModuleStatus status,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
 
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             ApiResponse<ModuleResponse> response = moduleService.updateModuleStatus(moduleId, status, teacherId);
 
             if (response.isSuccess()) {
@@ -290,23 +353,12 @@ public class ModuleController {
     }
 
     /**
-     * Helper method to extract teacher ID from JWT token
+     * Helper method to extract teacher ID from the verified JWT principal
      */
-    private String extractTeacherIdFromToken(String token) {
-        try {
-            if (token == null || token.trim().isEmpty()) {
-                throw new RuntimeException("Authorization token is required");
-            }
-
-            // Remove "Bearer " prefix if present
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
-
-            // Extract teacher ID using JwtService
-            return jwtService.extractTeacherId(token);
-        } catch (Exception e) {
-            throw new RuntimeException("Invalid or expired token: " + e.getMessage());
+    private String extractTeacherId(JwtPrincipal principal) {
+        if (principal == null) {
+            throw new RuntimeException("Invalid or expired token: Authorization token is required");
         }
+        return principal.getTeacherId();
     }
 }
\ No newline at end of file
@@ -1,12 +1,17 @@
 package com.qualityeducation.controller;
 
+import com.qualityeducation.config.CurrentPrincipal;
+import com.qualityeducation.config.JwtPrincipal;
 import com.qualityeducation.model.User;
+import com.qualityeducation.service.EnrollmentProgressService;
 import com.qualityeducation.service.StudentService;
 import com.qualityeducation.dto.ApiResponse;
 import com.qualityeducation.dto.StudentProfileResponse;
 import com.qualityeducation.dto.StudentStatsResponse;
 import com.qualityeducation.dto.StudentActivityResponse;
+import com.qualityeducation.dto.LessonProgressRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,6 +24,7 @@ import java.util.List;
 public class StudentController {
     
     private final StudentService studentService;
+    private final EnrollmentProgressService enrollmentProgressService;
     
     @GetMapping("/profile/{studentId}")
     public ResponseEntity<ApiResponse<StudentProfileResponse>> getStudentProfile(
@@ -62,9 +68,32 @@ public class StudentController {
     
     @GetMapping("/profile/{studentId}/activities")
     public ResponseEntity<ApiResponse<List<StudentActivityResponse>>> getStudentActivities(
-            @PathVariable String studentId) {
+            @PathVariable String studentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        
+        return CursorPages.respond(studentService.getStudentActivities(studentId, cursor, limit));
+    }
+    
+    @PostMapping("/{studentId}/courses/{courseId}/lessons/{lessonId}/progress")
+    public ResponseEntity<ApiResponse<String>> recordLessonProgress(
+            @PathVariable String studentId,
+            @PathVariable String courseId,
+            @PathVariable String lessonId,
+            @RequestBody LessonProgressRequest request,
+            @CurrentPrincipal JwtPrincipal principal) {
+        
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Authorization token is required"));
+        }
+        // Students record only their own progress
+        if (!studentId.equals(principal.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("You can only record your own progress"));
+        }
         
-        ApiResponse<List<StudentActivityResponse>> response = studentService.getStudentActivities(studentId);
+        ApiResponse<String> response = enrollmentProgressService.recordLessonProgress(studentId, courseId, lessonId, request);
         
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -1,9 +1,15 @@
 package com.qualityeducation.controller;
 
+import com.qualityeducation.config.CurrentPrincipal;
+import com.qualityeducation.config.JwtPrincipal;
+import com.qualityeducation.config.LoginThrottle;
 import com.qualityeducation.dto.*;
 import com.qualityeducation.service.SupervisorService;
+import com.qualityeducation.service.TeacherService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -20,6 +26,8 @@ import java.util.stream.Collectors;
 public class SupervisorController {
     
     private final SupervisorService supervisorService;
+    private final TeacherService teacherService;
+    private final LoginThrottle loginThrottle;
     
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<SupervisorResponse>> register(
@@ -47,7 +55,8 @@ public class SupervisorController {
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<SupervisorLoginResponse>> login(
             @Valid @RequestBody SupervisorLoginRequest request,
-            BindingResult bindingResult) {
+            BindingResult bindingResult,
+            HttpServletRequest httpRequest) {
         
         if (bindingResult.hasErrors()) {
             String errors = bindingResult.getFieldErrors().stream()
@@ -58,6 +67,13 @@ public class SupervisorController {
                 .body(ApiResponse.error("Validation failed", errors));
         }
         
+        long retryAfter = loginThrottle.tryAcquire(httpRequest.getRemoteAddr(), request.getEmail());
+        if (retryAfter > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(ApiResponse.error("Too many login attempts. Please try again later."));
+        }
+        
         ApiResponse<SupervisorLoginResponse> response = supervisorService.loginSupervisor(request);
         
         if (response.isSuccess()) {
@@ -109,9 +125,44 @@ public class SupervisorController {
     
     @GetMapping("/profile/{supervisorId}/activities")
     public ResponseEntity<ApiResponse<List<SupervisorActivityResponse>>> getSupervisorActivities(
-            @PathVariable String supervisorId) {
+            @PathVariable String supervisorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        
+        return CursorPages.respond(supervisorService.getSupervisorActivities(supervisorId, cursor, limit));
+    }
+    
+    @GetMapping("/teachers")
+    public ResponseEntity<ApiResponse<List<TeacherResponse>>> getTeachers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        
+        return CursorPages.respond(teacherService.getAllTeachers(cursor, limit));
+    }
+    
+    @PostMapping("/teachers/{teacherId}/approve")
+    public ResponseEntity<ApiResponse<TeacherResponse>> approveTeacher(
+            @PathVariable String teacherId,
+            @CurrentPrincipal JwtPrincipal principal) {
         
-        ApiResponse<List<SupervisorActivityResponse>> response = supervisorService.getSupervisorActivities(supervisorId);
+        ApiResponse<TeacherResponse> response = teacherService.approveTeacher(teacherId, principal.getSupervisorId());
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @PostMapping("/teachers/{teacherId}/reject")
+    public ResponseEntity<ApiResponse<TeacherResponse>> rejectTeacher(
+            @PathVariable String teacherId,
+            @RequestBody Map<String, String> requestBody,
+            @CurrentPrincipal JwtPrincipal principal) {
+        
+        String reason = requestBody.get("reason");
+        ApiResponse<TeacherResponse> response = teacherService.rejectTeacher(teacherId, reason,
+                principal.getSupervisorId());
         
         if (response.isSuccess()) {
             return ResponseEntity.ok(response);
@@ -145,4 +196,48 @@ public class SupervisorController {
             return ResponseEntity.badRequest().body(response);
         }
     }
+    
+    @PostMapping("/security/jwt-keys/rotate")
+    public ResponseEntity<ApiResponse<String>> rotateJwtSigningKey() {
+        ApiResponse<String> response = supervisorService.rotateJwtSigningKey();
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @PostMapping("/maintenance/student-rollups/rebuild")
+    public ResponseEntity<ApiResponse<String>> rebuildStudentRollups() {
+        ApiResponse<String> response = supervisorService.rebuildStudentRollups();
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @PostMapping("/maintenance/course-counts/recount")
+    public ResponseEntity<ApiResponse<String>> recountCourseStructure() {
+        ApiResponse<String> response = supervisorService.recountCourseStructure();
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @PostMapping("/maintenance/lesson-progress/migrate")
+    public ResponseEntity<ApiResponse<String>> migrateLegacyLessonProgress() {
+        ApiResponse<String> response = supervisorService.migrateLegacyLessonProgress();
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
 }
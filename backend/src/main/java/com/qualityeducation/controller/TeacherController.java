@@ -1,15 +1,20 @@
 package com.qualityeducation.controller;
 
+import com.qualityeducation.config.CurrentPrincipal;
+import com.qualityeducation.config.JwtPrincipal;
+import com.qualityeducation.config.LoginThrottle;
 import com.qualityeducation.dto.*;
-import com.qualityeducation.service.JwtService;
 import com.qualityeducation.service.TeacherService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import lombok.RequiredArgsConstructor;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,9 +27,9 @@ public class TeacherController {
 
     @Autowired
     private TeacherService teacherService;
-    
+
     @Autowired
-    private JwtService jwtService;
+    private LoginThrottle loginThrottle;
 
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<TeacherResponse>> register(
@@ -52,7 +57,8 @@ public class TeacherController {
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<TeacherLoginResponse>> login(
             @Valid @RequestBody TeacherLoginRequest request,
-            BindingResult bindingResult) {
+            BindingResult bindingResult,
+            HttpServletRequest httpRequest) {
 
         if (bindingResult.hasErrors()) {
             String errors = bindingResult.getFieldErrors().stream()
@@ -63,6 +69,11 @@ public class TeacherController {
                     .body(ApiResponse.error("Validation failed", errors));
         }
 
+        long retryAfter = loginThrottle.tryAcquire(httpRequest.getRemoteAddr(), request.getEmail());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
+
         ApiResponse<TeacherLoginResponse> response = teacherService.loginTeacher(request);
 
         if (response.isSuccess()) {
@@ -87,19 +98,44 @@ public class TeacherController {
 
     @PostMapping("/forgot-password")
     public ResponseEntity<ApiResponse<String>> forgotPassword(
-            @RequestBody ForgotPasswordRequest request) {
+            @RequestBody ForgotPasswordRequest request,
+            HttpServletRequest httpRequest) {
+
+        long retryAfter = loginThrottle.tryAcquire(httpRequest.getRemoteAddr(), request.getEmail());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
 
         ApiResponse<String> response = teacherService.forgotPassword(request.getEmail());
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/reset-password")
+    public ResponseEntity<ApiResponse<String>> resetPassword(
+            @RequestBody ResetPasswordRequest request,
+            HttpServletRequest httpRequest) {
+
+        long retryAfter = loginThrottle.tryAcquire(httpRequest.getRemoteAddr(), null);
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
+
+        ApiResponse<String> response = teacherService.resetPassword(request.getToken(), request.getNewPassword());
+
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @GetMapping("/students")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<List<StudentEnrollmentResponse>>> getTeacherStudents(
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
         
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             
             if (teacherId == null) {
                 return ResponseEntity.badRequest()
@@ -125,10 +161,10 @@ public class TeacherController {
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<StudentDetailsResponse>> getStudentDetails(
             @PathVariable String studentId,
-            @RequestHeader(value = "Authorization", required = false) String token) {
+            @CurrentPrincipal JwtPrincipal principal) {
         
         try {
-            String teacherId = extractTeacherIdFromToken(token);
+            String teacherId = extractTeacherId(principal);
             
             if (teacherId == null) {
                 return ResponseEntity.badRequest()
@@ -151,14 +187,15 @@ public class TeacherController {
     }
     
     /**
-     * Extract teacher ID from JWT token
+     * Extract teacher ID from the verified JWT principal
      */
-    private String extractTeacherIdFromToken(String authorizationHeader) {
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            return null;
-        }
-        
-        String token = authorizationHeader.substring(7);
-        return jwtService.extractTeacherId(token);
+    private String extractTeacherId(JwtPrincipal principal) {
+        return principal != null ? principal.getTeacherId() : null;
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> tooManyAttempts(long retryAfter) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(ApiResponse.error("Too many attempts. Please try again later."));
     }
 }
\ No newline at end of file
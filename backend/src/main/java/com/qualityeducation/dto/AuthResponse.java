@@ -2,6 +2,7 @@ package com.qualityeducation.dto;
 
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String userId;
     private String username;
     private String role; // Add role field
@@ -32,6 +33,14 @@ public class AuthResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public String getUserId() {
         return userId;
     }
@@ -0,0 +1,26 @@
+package com.qualityeducation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class CourseFacetsResponse {
+    // Published courses matching every selected filter
+    private long total;
+    // Facet name -> value counts, each computed with the other facets' filters applied
+    private Map<String, List<FacetCount>> facets;
+
+    @Data
+    @AllArgsConstructor
+    public static class FacetCount {
+        private String value;
+        private String label;
+        private long count;
+        private boolean selected;
+    }
+}
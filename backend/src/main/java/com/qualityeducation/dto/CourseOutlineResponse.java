@@ -0,0 +1,66 @@
+package com.qualityeducation.dto;
+
+import com.qualityeducation.model.CourseOutline;
+import com.qualityeducation.model.Lesson;
+import com.qualityeducation.model.Module;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Data
+@Builder
+public class CourseOutlineResponse {
+    private String courseId;
+    private String teacherId;
+    private String title;
+    private String description;
+    private String category;
+    private String level;
+    private String language;
+    private String image;
+    private String status;
+    private int totalModules;
+    private int totalLessons;
+    private List<ModuleWithLessonsResponse> modules;
+    private LocalDateTime rebuiltAt;
+
+    public static CourseOutlineResponse fromOutline(CourseOutline outline) {
+        return fromOutline(outline, outline.getModules());
+    }
+
+    /**
+     * The outline as students see it: published modules with their published lessons.
+     */
+    public static CourseOutlineResponse publishedFromOutline(CourseOutline outline) {
+        List<ModuleWithLessonsResponse> modules = outline.getModules().stream()
+                .filter(module -> module.getStatus() == Module.ModuleStatus.PUBLISHED)
+                .map(module -> module.toBuilder()
+                        .lessons(module.getLessons().stream()
+                                .filter(lesson -> Lesson.LessonStatus.PUBLISHED.name().equals(lesson.getStatus()))
+                                .collect(Collectors.toList()))
+                        .build())
+                .collect(Collectors.toList());
+        return fromOutline(outline, modules);
+    }
+
+    private static CourseOutlineResponse fromOutline(CourseOutline outline, List<ModuleWithLessonsResponse> modules) {
+        return CourseOutlineResponse.builder()
+                .courseId(outline.getCourseId())
+                .teacherId(outline.getTeacherId())
+                .title(outline.getTitle())
+                .description(outline.getDescription())
+                .category(outline.getCategory())
+                .level(outline.getLevel())
+                .language(outline.getLanguage())
+                .image(outline.getImage())
+                .status(outline.getStatus())
+                .totalModules(modules.size())
+                .totalLessons(modules.stream().mapToInt(module -> module.getLessons().size()).sum())
+                .modules(modules)
+                .rebuiltAt(outline.getRebuiltAt())
+                .build();
+    }
+}
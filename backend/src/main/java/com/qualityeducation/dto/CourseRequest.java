@@ -6,6 +6,7 @@ public class CourseRequest {
     private String title;
     private String category;
     private String level;
+    private String language;
     private String description;
     private String instructor;
     private String instructorTitle;
@@ -40,6 +41,14 @@ public class CourseRequest {
         this.level = level;
     }
 
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -8,6 +8,7 @@ public class CourseResponse {
     private String title;
     private String category;
     private String level;
+    private String language;
     private String description;
     private String instructor;
     private String instructorTitle;
@@ -19,6 +20,7 @@ public class CourseResponse {
     private String status;
     private int students;
     private int modules;
+    private int views;
     private LocalDateTime createdAt;
     private String teacherId;
 
@@ -55,6 +57,14 @@ public class CourseResponse {
         this.level = level;
     }
 
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -143,6 +153,14 @@ public class CourseResponse {
         this.modules = modules;
     }
 
+    public int getViews() {
+        return views;
+    }
+
+    public void setViews(int views) {
+        this.views = views;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
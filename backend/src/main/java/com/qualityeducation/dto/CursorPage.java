@@ -0,0 +1,21 @@
+package com.qualityeducation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private int limit;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
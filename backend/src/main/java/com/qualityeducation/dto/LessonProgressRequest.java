@@ -0,0 +1,11 @@
+package com.qualityeducation.dto;
+
+import lombok.Data;
+
+@Data
+public class LessonProgressRequest {
+    private Integer progress; // 0-100
+    private Boolean completed;
+    private Integer quizScore; // 0-100, when a quiz was attempted
+    private Integer timeSpent; // minutes spent in this session
+}
@@ -2,9 +2,14 @@ package com.qualityeducation.dto;
 
 import lombok.Data;
 import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import com.qualityeducation.repository.LessonSummary;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class LessonSummaryResponse {
     private String id;
     private String title;
@@ -14,4 +19,19 @@ public class LessonSummaryResponse {
     private String status;
     private String videoUrl;
     private Integer quizCount;
+    private Integer slot;
+
+    public static LessonSummaryResponse fromSummary(LessonSummary lesson) {
+        return LessonSummaryResponse.builder()
+                .id(lesson.getId())
+                .title(lesson.getTitle())
+                .description(lesson.getDescription())
+                .duration(lesson.getDuration())
+                .order(lesson.getOrder())
+                .status(lesson.getStatus() != null ? lesson.getStatus().name() : null)
+                .videoUrl(lesson.getVideoUrl())
+                .quizCount(lesson.getQuizzes() != null ? lesson.getQuizzes().size() : 0)
+                .slot(lesson.getSlot())
+                .build();
+    }
 }
\ No newline at end of file
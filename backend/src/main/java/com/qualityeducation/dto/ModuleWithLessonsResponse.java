@@ -2,13 +2,18 @@ package com.qualityeducation.dto;
 
 import lombok.Data;
 import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
 import com.qualityeducation.model.Module;
+import com.qualityeducation.repository.ModuleSummary;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
 public class ModuleWithLessonsResponse {
 
     private String id;
@@ -29,4 +34,25 @@ public class ModuleWithLessonsResponse {
 
     // This would contain lesson details if needed
     private List<LessonSummaryResponse> lessons;
+
+    public static ModuleWithLessonsResponse fromSummary(ModuleSummary module, List<LessonSummaryResponse> lessons) {
+        return ModuleWithLessonsResponse.builder()
+                .id(module.getId())
+                .title(module.getTitle())
+                .description(module.getDescription())
+                .duration(module.getDuration())
+                .order(module.getOrder())
+                .courseId(module.getCourseId())
+                .status(module.getStatus())
+                .totalLessons(module.getTotalLessons())
+                .completedLessons(module.getCompletedLessons())
+                .completionPercentage(module.getCompletionPercentage())
+                .createdAt(module.getCreatedAt())
+                .updatedAt(module.getUpdatedAt())
+                .coverImage(module.getCoverImage())
+                .learningObjectives(module.getLearningObjectives())
+                .prerequisites(module.getPrerequisites())
+                .lessons(lessons)
+                .build();
+    }
 }
\ No newline at end of file
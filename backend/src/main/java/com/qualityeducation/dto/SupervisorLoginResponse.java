@@ -7,5 +7,6 @@ import lombok.Data;
 @Builder
 public class SupervisorLoginResponse {
     private String token;
+    private String refreshToken;
     private SupervisorResponse supervisor;
 }
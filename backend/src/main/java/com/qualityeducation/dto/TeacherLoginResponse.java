@@ -7,5 +7,6 @@ import lombok.Data;
 @Builder
 public class TeacherLoginResponse {
     private String token;
+    private String refreshToken;
     private TeacherResponse teacher;
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.qualityeducation.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TokenRefreshResponse {
+    private String token;
+    private String refreshToken;
+}
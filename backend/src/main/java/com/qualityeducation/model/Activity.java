@@ -0,0 +1,43 @@
+package com.qualityeducation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry in a user's activity feed. Entries are only ever appended; the feed is read
+ * newest first by keyset on {@code (actorId, timestamp, _id)}. Old entries expire through
+ * a TTL index on {@code timestamp}, and {@link com.qualityeducation.service.ActivityFeed},
+ * which creates both indexes, trims each actor back to a fixed number of entries.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "activities")
+public class Activity {
+
+    @Id
+    private String id;
+
+    private String actorId;
+    private ActorType actorType;
+    private String type; // lesson_completed, quiz_completed, course_completed, review
+    private String title;
+    private String description;
+    private String status;
+    private Integer xpGained;
+    private Integer score;
+    private String subjectId; // lesson, course or teacher the entry is about
+
+    private LocalDateTime timestamp;
+
+    public enum ActorType {
+        STUDENT, TEACHER, SUPERVISOR
+    }
+}
@@ -12,6 +12,7 @@ public class Course {
     private String title;
     private String category;
     private String level;
+    private String language;
     private String description;
     private String instructor;
     private String instructorTitle;
@@ -23,6 +24,7 @@ public class Course {
     private String status = "draft";
     private int students = 0;
     private int modules = 0;
+    private int views = 0;
     private LocalDateTime createdAt;
     private String teacherId; // Link to teacher who created the course
 
@@ -64,6 +66,14 @@ public class Course {
         this.level = level;
     }
 
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -152,6 +162,14 @@ public class Course {
         this.modules = modules;
     }
 
+    public int getViews() {
+        return views;
+    }
+
+    public void setViews(int views) {
+        this.views = views;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,45 @@
+package com.qualityeducation.model;
+
+import com.qualityeducation.dto.ModuleWithLessonsResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read model for course pages: the course with its modules and their lessons, ordered,
+ * in one document keyed by course id. It is derived from the courses, modules and lessons
+ * collections and is never edited directly; see {@code CourseOutlineProjector}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "course_outlines")
+public class CourseOutline {
+
+    @Id
+    private String courseId;
+
+    private String teacherId;
+    private String title;
+    private String description;
+    private String category;
+    private String level;
+    private String language;
+    private String image;
+    private String status;
+
+    private int totalModules;
+    private int totalLessons;
+
+    // Modules in order, each with its lessons in order
+    private List<ModuleWithLessonsResponse> modules;
+
+    private LocalDateTime rebuiltAt;
+}
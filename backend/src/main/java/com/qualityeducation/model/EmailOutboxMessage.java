@@ -0,0 +1,67 @@
+package com.qualityeducation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An email waiting to be sent, or the record of one that was. Written by
+ * {@code EmailService} in the request and delivered later by the outbox workers; see
+ * {@code EmailOutbox}. {@code nextAttemptAt} is when a pending message may next be
+ * claimed, or when a claim on a sending message lapses. Sent messages expire after a
+ * week and failed ones after a month, through TTL indexes on {@code sentAt} and
+ * {@code failedAt} that {@code EmailOutbox} creates.
+ *
+ * A password-reset message is stored with {@link #RESET_LINK} in its body and a
+ * {@link ResetLink} saying whose token to issue; the token is issued and the link filled
+ * in only when the message is sent, so the outbox never holds a usable reset link.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "email_outbox")
+public class EmailOutboxMessage {
+
+    public static final String RESET_LINK = "{{resetLink}}";
+
+    @Id
+    private String id;
+
+    private List<String> to;
+    private String subject;
+    private String body;
+    private ResetLink resetLink; // only on password-reset messages
+
+    private Status status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private String claimToken; // set while a worker holds the message
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+    private LocalDateTime failedAt;
+
+    /**
+     * The reset token to issue at send time: for whom, the page the link opens and how
+     * long the token stays valid.
+     */
+    public record ResetLink(PrincipalIdentity.PrincipalType principalType, String principalId, String url,
+            long validMinutes) {
+    }
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        SENT,
+        FAILED // gave up after the last attempt
+    }
+}
@@ -9,7 +9,6 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -52,8 +51,20 @@ public class Enrollment {
     
     private LocalDateTime completedDate;
     
+    // Bit n set when the lesson in slot n (Lesson.slot) is completed; see SlotBits
+    private byte[] completedSlots;
+
+    // Quiz score + 1 per lesson slot, 0 when not attempted
+    private byte[] quizScores;
+
+    // Bumped by every progress write; writes are conditional on it
     @Builder.Default
-    private List<LessonProgress> lessonProgress = new ArrayList<>();
+    private long progressVersion = 0;
+
+    // Legacy embedded history. Per-lesson detail now lives in lesson_progress; older
+    // documents are migrated by their first progress write, or in bulk through
+    // POST /api/supervisor/maintenance/lesson-progress/migrate, and this field is then removed.
+    private List<LessonProgress> lessonProgress;
     
     @Builder.Default
     private QuizStats quizStats = new QuizStats();
@@ -0,0 +1,32 @@
+package com.qualityeducation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A JWT signing key shared by every instance, keyed by its key id ({@code kid}). The
+ * newest key whose {@code activatesAt} has passed signs; every stored key verifies until
+ * {@code retiresAt}, which is null until a newer key replaces it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "jwt_keys")
+public class JwtSigningKey {
+
+    @Id
+    private String id;
+
+    private String secret;
+
+    private Date activatesAt;
+
+    private Date retiresAt;
+}
@@ -27,6 +27,9 @@ public class Lesson {
     private String duration;
     private Integer order;
 
+    // Stable per-course position for progress bitsets; unlike order it never changes or is reused
+    private Integer slot;
+
     @Indexed
     private String moduleId;
 
@@ -0,0 +1,36 @@
+package com.qualityeducation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Detailed history for one lesson of one enrollment. Kept out of the enrollment document,
+ * which only carries the compact completion bitset and score array, and read only by
+ * views that show per-lesson detail.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "lesson_progress")
+public class LessonProgressEntry {
+
+    @Id
+    private String id;
+
+    private String enrollmentId;
+    private String lessonId;
+    private boolean completed;
+    private int progress; // 0-100
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private int quizScore;
+    private int attempts;
+    private int timeSpent; // in minutes
+}
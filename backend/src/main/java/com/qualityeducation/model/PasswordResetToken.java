@@ -0,0 +1,33 @@
+package com.qualityeducation.model;
+
+import com.qualityeducation.model.PrincipalIdentity.PrincipalType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * An outstanding password-reset token. The id is the SHA-256 of the token, so the raw
+ * value is never stored; a TTL index on {@code expiresAt}, created by
+ * {@code PasswordResetTokenStore}, removes unused tokens.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "password_reset_tokens")
+public class PasswordResetToken {
+
+    @Id
+    private String id;
+
+    private PrincipalType principalType;
+
+    private String principalId;
+
+    private Date expiresAt;
+}
@@ -0,0 +1,52 @@
+package com.qualityeducation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per account across the students, teachers and supervisors collections,
+ * so an email resolves to its principal type and id with a single indexed lookup.
+ * The id is {@code TYPE:principalId}, so an email change overwrites the same row.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "principal_identities")
+public class PrincipalIdentity {
+
+    @Id
+    private String id;
+
+    private String email;
+
+    private PrincipalType type;
+    private String principalId;
+    private String passwordHash;
+    private boolean enabled;
+
+    private LocalDateTime updatedAt;
+
+    public String getRole() {
+        return switch (type) {
+            case TEACHER -> "ROLE_TEACHER";
+            case SUPERVISOR -> "ROLE_SUPERVISOR";
+            case STUDENT -> "ROLE_USER";
+        };
+    }
+
+    public static String idFor(PrincipalType type, String principalId) {
+        return type.name() + ":" + principalId;
+    }
+
+    public enum PrincipalType {
+        // Declaration order is lookup precedence when one email has several accounts
+        TEACHER, SUPERVISOR, STUDENT
+    }
+}
@@ -0,0 +1,37 @@
+package com.qualityeducation.model;
+
+import com.qualityeducation.model.PrincipalIdentity.PrincipalType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A refresh token issued to a login session. The id is the SHA-256 of the token.
+ * Each refresh marks the presented token used and issues the next one in the same
+ * session; used tokens are kept until they expire so a replay can be detected.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    private String id;
+
+    private String sessionId;
+
+    private PrincipalType principalType;
+    private String principalId;
+    private boolean used;
+
+    private Date issuedAt;
+
+    private Date expiresAt;
+}
@@ -0,0 +1,29 @@
+package com.qualityeducation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A revoked access token ({@code jti:<id>}) or refresh session ({@code sid:<id>}).
+ * Kept only until the last access token it covers would have expired anyway.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    private String id;
+
+    private Date revokedAt;
+
+    private Date expiresAt;
+}
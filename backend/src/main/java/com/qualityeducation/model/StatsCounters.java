@@ -0,0 +1,46 @@
+package com.qualityeducation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Counters behind the supervisor dashboard, kept current with {@code $inc} as the
+ * counted things change and corrected by a periodic reconciliation; see
+ * {@code SupervisorCounters}. One document holds the platform-wide figures and each
+ * supervisor has one for the reviews they completed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stats_counters")
+public class StatsCounters {
+
+    public static final String PLATFORM_ID = "platform";
+
+    @Id
+    private String id; // PLATFORM_ID or supervisorId(...)
+
+    // Platform-wide
+    private long activeTeachers; // approved or active
+    private long pendingTeachers;
+    private long courses;
+    private long students; // distinct students with an enrollment
+
+    // Per supervisor
+    private long completedReviews;
+    private long approvedReviews;
+
+    private LocalDateTime updatedAt;
+    private LocalDateTime reconciledAt;
+
+    public static String supervisorId(String supervisorId) {
+        return "supervisor:" + supervisorId;
+    }
+}
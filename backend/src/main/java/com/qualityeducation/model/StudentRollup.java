@@ -0,0 +1,49 @@
+package com.qualityeducation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A student's totals across all their enrollments, kept current with {@code $inc} as
+ * progress is recorded so the student dashboard is one point read; see
+ * {@code StudentRollups}. Streaks can go down as well as up, so each enrollment's is kept
+ * and the student's is the best of them. {@code versions} records which progress version
+ * of each enrollment the totals include, so no change is counted twice.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "student_rollups")
+public class StudentRollup {
+
+    @Id
+    private String studentId;
+
+    private long coursesEnrolled;
+    private long coursesCompleted;
+    private long totalLessons;
+    private long completedLessons;
+    private long quizzesScored;
+    private long quizScoreSum; // average is quizScoreSum / quizzesScored
+    private long timeSpent; // in minutes
+    private Map<String, Integer> streaks; // current streak by enrollment id
+    private Map<String, Long> versions; // counted progressVersion by enrollment id
+
+    private LocalDateTime updatedAt;
+    private LocalDateTime rebuiltAt;
+
+    /**
+     * Best current streak across the student's enrollments.
+     */
+    public int getCurrentStreak() {
+        return streaks == null ? 0 : streaks.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+}
@@ -52,6 +52,10 @@ public class Teacher implements UserDetails {
     private String profileImage;
     private String bio;
     
+    // Supervisor who last approved or rejected the application
+    private String reviewedBy;
+    private LocalDateTime reviewedAt;
+    
     @Builder.Default
     private Double rating = 0.0;
     
@@ -76,9 +80,6 @@ public class Teacher implements UserDetails {
     @Builder.Default
     private boolean credentialsNonExpired = true;
     
-    private String resetPasswordToken;
-    private LocalDateTime resetPasswordExpiry;
-    
     public enum TeacherStatus {
         PENDING,
         APPROVED,
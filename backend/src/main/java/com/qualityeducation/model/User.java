@@ -13,8 +13,6 @@ public class User {
     private String password;
     private String languageToLearn;
     private String languageKnown;
-    private String resetToken;
-    private Long resetTokenExpiry;
     private String role; // Add role field
     private LocalDateTime createdAt; // Add createdAt field
     private LocalDateTime updatedAt; // Add updatedAt field
@@ -85,22 +83,6 @@ public class User {
         this.languageKnown = languageKnown;
     }
 
-    public String getResetToken() {
-        return resetToken;
-    }
-
-    public void setResetToken(String resetToken) {
-        this.resetToken = resetToken;
-    }
-
-    public Long getResetTokenExpiry() {
-        return resetTokenExpiry;
-    }
-
-    public void setResetTokenExpiry(Long resetTokenExpiry) {
-        this.resetTokenExpiry = resetTokenExpiry;
-    }
-
     public String getRole() {
         return role;
     }
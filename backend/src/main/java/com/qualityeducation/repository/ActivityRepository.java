@@ -0,0 +1,15 @@
+package com.qualityeducation.repository;
+
+import com.qualityeducation.model.Activity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ActivityRepository extends MongoRepository<Activity, String> {
+
+    // Keyset page of an actor's feed, newest first
+    Window<Activity> findByActorIdOrderByTimestampDesc(String actorId, ScrollPosition position, Limit limit);
+}
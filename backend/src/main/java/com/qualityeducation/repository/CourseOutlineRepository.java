@@ -0,0 +1,9 @@
+package com.qualityeducation.repository;
+
+import com.qualityeducation.model.CourseOutline;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CourseOutlineRepository extends MongoRepository<CourseOutline, String> {
+}
@@ -1,6 +1,9 @@
 package com.qualityeducation.repository;
 
 import com.qualityeducation.model.Course;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -12,4 +15,9 @@ public interface CourseRepository extends MongoRepository<Course, String> {
     List<Course> findByStatus(String status);
 
     List<Course> findByCategory(String category);
+
+    // Keyset pages, newest first
+    Window<Course> findAllByOrderByCreatedAtDesc(ScrollPosition position, Limit limit);
+
+    Window<Course> findByStatusOrderByCreatedAtDesc(String status, ScrollPosition position, Limit limit);
 }
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EnrollmentRepository extends MongoRepository<Enrollment, String> {
@@ -14,12 +15,18 @@ public interface EnrollmentRepository extends MongoRepository<Enrollment, String
     // Find all enrollments for a specific student
     List<Enrollment> findByStudentId(String studentId);
     
+    // Whether the student is enrolled in anything yet
+    boolean existsByStudentId(String studentId);
+    
     // Find all enrollments for a specific course
     List<Enrollment> findByCourseId(String courseId);
     
     // Find all enrollments for courses taught by a teacher
     List<Enrollment> findByTeacherId(String teacherId);
     
+    // A student's enrollments in one teacher's courses
+    List<Enrollment> findByTeacherIdAndStudentId(String teacherId, String studentId);
+
     // Find specific enrollment
     Optional<Enrollment> findByStudentIdAndCourseId(String studentId, String courseId);
     
@@ -49,6 +56,11 @@ public interface EnrollmentRepository extends MongoRepository<Enrollment, String
     @Query("{'teacherId': ?0, 'status': 'at-risk'}")
     List<Enrollment> findAtRiskEnrollmentsByTeacher(String teacherId);
     
+    // The fields student rollups are computed from, every enrollment grouped by student
+    @Query(value = "{}", sort = "{'studentId': 1}",
+            fields = "{'studentId': 1, 'status': 1, 'totalLessons': 1, 'completedLessons': 1, 'quizScores': 1, 'totalTimeSpent': 1, 'currentStreak': 1, 'progressVersion': 1}")
+    Stream<Enrollment> streamRollupInputsOrderByStudentId();
+    
     // Delete by course
     void deleteByCourseId(String courseId);
     
@@ -0,0 +1,15 @@
+package com.qualityeducation.repository;
+
+import com.qualityeducation.model.LessonProgressEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LessonProgressRepository extends MongoRepository<LessonProgressEntry, String> {
+
+    // Per-lesson history for a set of enrollments
+    List<LessonProgressEntry> findByEnrollmentIdIn(Collection<String> enrollmentIds);
+}
@@ -1,6 +1,9 @@
 package com.qualityeducation.repository;
 
 import com.qualityeducation.model.Lesson;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -18,9 +21,19 @@ public interface LessonRepository extends MongoRepository<Lesson, String> {
     // Find lessons by course
     List<Lesson> findByCourseIdOrderByOrderAsc(String courseId);
 
+    // Summary rows for listings, in lesson order
+    @Query(value = "{'moduleId': ?0}", fields = LessonSummary.FIELDS, sort = "{'order': 1}")
+    List<LessonSummary> findSummariesByModuleId(String moduleId);
+
+    @Query(value = "{'courseId': ?0}", fields = LessonSummary.FIELDS, sort = "{'order': 1}")
+    List<LessonSummary> findSummariesByCourseId(String courseId);
+
     // Find lessons by teacher
     List<Lesson> findByTeacherIdOrderByCreatedAtDesc(String teacherId);
 
+    // Keyset page of a teacher's lessons, newest first
+    Window<Lesson> findByTeacherIdOrderByCreatedAtDesc(String teacherId, ScrollPosition position, Limit limit);
+
     // Find lessons by status
     List<Lesson> findByStatusOrderByCreatedAtDesc(Lesson.LessonStatus status);
 
@@ -0,0 +1,41 @@
+package com.qualityeducation.repository;
+
+import com.qualityeducation.model.Lesson;
+
+import java.util.List;
+
+/**
+ * Closed projection for lesson listings. Quizzes are reduced to their ids so a list row
+ * can show a quiz count without loading questions, options, explanations or the
+ * transcript.
+ */
+public interface LessonSummary {
+
+    // Field projection for queries returning this type; keep in step with the getters
+    String FIELDS = "{'moduleId': 1, 'title': 1, 'description': 1, 'duration': 1, 'order': 1, "
+            + "'status': 1, 'videoUrl': 1, 'slot': 1, 'quizzes._id': 1}";
+
+    String getId();
+
+    String getModuleId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getDuration();
+
+    Integer getOrder();
+
+    Lesson.LessonStatus getStatus();
+
+    String getVideoUrl();
+
+    Integer getSlot();
+
+    List<QuizRef> getQuizzes();
+
+    interface QuizRef {
+        String getId();
+    }
+}
@@ -1,6 +1,9 @@
 package com.qualityeducation.repository;
 
 import com.qualityeducation.model.Module;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -14,12 +17,18 @@ public interface ModuleRepository extends MongoRepository<Module, String> {
     // Find all modules for a specific course, ordered by module order
     List<Module> findByCourseIdOrderByOrderAsc(String courseId);
 
+    // Summary rows for a course's modules, ordered by module order
+    List<ModuleSummary> findSummariesByCourseIdOrderByOrderAsc(String courseId);
+
     // Find all modules for a specific course with a specific status
     List<Module> findByCourseIdAndStatusOrderByOrderAsc(String courseId, Module.ModuleStatus status);
 
     // Find all modules created by a specific teacher
     List<Module> findByTeacherIdOrderByCreatedAtDesc(String teacherId);
 
+    // Keyset page of a teacher's modules, newest first
+    Window<Module> findByTeacherIdOrderByCreatedAtDesc(String teacherId, ScrollPosition position, Limit limit);
+
     // Find modules by course and teacher
     List<Module> findByCourseIdAndTeacherIdOrderByOrderAsc(String courseId, String teacherId);
 
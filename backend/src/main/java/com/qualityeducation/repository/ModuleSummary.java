@@ -0,0 +1,42 @@
+package com.qualityeducation.repository;
+
+import com.qualityeducation.model.Module;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Closed projection for module listings; Spring Data fetches only these fields.
+ */
+public interface ModuleSummary {
+
+    String getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getDuration();
+
+    Integer getOrder();
+
+    String getCourseId();
+
+    Module.ModuleStatus getStatus();
+
+    Integer getTotalLessons();
+
+    Integer getCompletedLessons();
+
+    Double getCompletionPercentage();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    String getCoverImage();
+
+    List<String> getLearningObjectives();
+
+    List<String> getPrerequisites();
+}
@@ -0,0 +1,13 @@
+package com.qualityeducation.repository;
+
+import com.qualityeducation.model.PrincipalIdentity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PrincipalIdentityRepository extends MongoRepository<PrincipalIdentity, String> {
+
+    List<PrincipalIdentity> findByEmail(String email);
+}
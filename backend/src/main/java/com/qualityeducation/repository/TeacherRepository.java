@@ -1,6 +1,9 @@
 package com.qualityeducation.repository;
 
 import com.qualityeducation.model.Teacher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -17,6 +20,9 @@ public interface TeacherRepository extends MongoRepository<Teacher, String> {
     
     List<Teacher> findByStatus(Teacher.TeacherStatus status);
     
+    // Keyset page of all teachers, newest first
+    Window<Teacher> findAllByOrderByCreatedAtDesc(ScrollPosition position, Limit limit);
+    
     @Query("{'specialization': {$in: ?0}}")
     List<Teacher> findBySpecializationIn(List<String> specializations);
     
@@ -29,8 +35,6 @@ public interface TeacherRepository extends MongoRepository<Teacher, String> {
     @Query("{'status': ?0, '$or': [{'firstName': {$regex: ?1, $options: 'i'}}, {'lastName': {$regex: ?1, $options: 'i'}}, {'email': {$regex: ?1, $options: 'i'}}]}")
     List<Teacher> findByStatusAndSearchTerm(Teacher.TeacherStatus status, String searchTerm);
     
-    Optional<Teacher> findByResetPasswordToken(String token);
-    
     long countByStatus(Teacher.TeacherStatus status);
     
     @Query(value = "{}", sort = "{'rating': -1}")
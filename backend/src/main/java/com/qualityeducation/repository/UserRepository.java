@@ -9,7 +9,6 @@ public interface UserRepository extends MongoRepository<User, String> {
 
     Optional<User> findByUsername(String username);
 
-    Optional<User> findByResetToken(String resetToken);
 
     boolean existsByEmail(String email);
 
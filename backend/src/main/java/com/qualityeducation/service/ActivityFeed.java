@@ -0,0 +1,249 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.config.MongoIndexes;
+import com.qualityeducation.model.Activity;
+import com.qualityeducation.model.Teacher;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write side of the activity feed. {@link #record(Activity)} only offers the entry to a
+ * bounded in-memory queue, so the request that caused it never waits on Mongo; a
+ * periodic flush drains the queue and appends the entries in batches of
+ * {@code activity.batch-size} inserts. When the queue is full the entry is dropped and
+ * counted rather than blocking the caller. The queue is flushed once more on shutdown.
+ *
+ * Entries for progress and teacher reviews come from the {@link DomainEventBus}.
+ *
+ * Feeds are kept bounded two ways: a TTL index on {@link Activity#getTimestamp()}
+ * expires entries after {@value #RETENTION_DAYS} days, and a compaction job trims every actor written to since its last
+ * run back to the newest {@code activity.max-per-actor} entries.
+ */
+@Component
+@Slf4j
+public class ActivityFeed implements DomainEventSubscriber {
+
+    static final int RETENTION_DAYS = 90;
+    private static final Index ACTOR_TIMESTAMP_INDEX = new Index().on("actorId", Sort.Direction.ASC)
+            .on("timestamp", Sort.Direction.DESC).on("_id", Sort.Direction.ASC).named("actor_timestamp_keyset");
+    private static final Index RETENTION_INDEX = new Index().on("timestamp", Sort.Direction.ASC)
+            .expire(RETENTION_DAYS, TimeUnit.DAYS).named("activity_retention");
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+    private final BlockingQueue<Activity> queue;
+    private final int batchSize;
+    private final int maxPerActor;
+
+    private final Set<String> touchedActors = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder compacted = new LongAdder();
+
+    public ActivityFeed(MongoTemplate mongoTemplate, MongoIndexes mongoIndexes,
+            @Value("${activity.queue-capacity:10000}") int queueCapacity,
+            @Value("${activity.batch-size:500}") int batchSize,
+            @Value("${activity.max-per-actor:500}") int maxPerActor) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoIndexes = mongoIndexes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxPerActor = Math.max(1, maxPerActor);
+    }
+
+    /**
+     * Queues an entry for the feed of {@code activity.getActorId()}. Never blocks and
+     * never throws.
+     */
+    public void record(Activity activity) {
+        if (activity == null || activity.getActorId() == null) {
+            return;
+        }
+        if (activity.getTimestamp() == null) {
+            activity.setTimestamp(LocalDateTime.now());
+        }
+        if (!queue.offer(activity)) {
+            dropped.increment();
+            log.debug("Activity queue full, dropped {} for {}", activity.getType(), activity.getActorId());
+        }
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.EnrollmentProgressed progressed) {
+                recordProgress(progressed);
+            } else if (event instanceof DomainEvent.TeacherReviewed reviewed) {
+                recordReview(reviewed);
+            }
+        }
+    }
+
+    /**
+     * Entries recorded but not yet written.
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    public long getAppendedCount() {
+        return appended.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushes.sum();
+    }
+
+    public long getCompactedCount() {
+        return compacted.sum();
+    }
+
+    private void recordProgress(DomainEvent.EnrollmentProgressed event) {
+        if (event.lessonCompleted()) {
+            record(studentActivity(event, "lesson_completed", "Completed lesson: " + event.lessonTitle(),
+                    event.courseTitle(), event.lessonId())
+                    .xpGained(StudentService.XP_PER_LESSON)
+                    .build());
+        }
+        if (event.quizScore() != null) {
+            record(studentActivity(event, "quiz_completed", "Quiz: " + event.lessonTitle(),
+                    "Scored " + event.quizScore() + "% on quiz", event.lessonId())
+                    .score(event.quizScore())
+                    .build());
+        }
+        if (event.courseCompleted()) {
+            record(studentActivity(event, "course_completed", "Completed course: " + event.courseTitle(),
+                    "Finished all " + event.totalLessons() + " lessons", event.courseId())
+                    .xpGained(StudentService.XP_PER_COURSE)
+                    .build());
+        }
+    }
+
+    private void recordReview(DomainEvent.TeacherReviewed event) {
+        boolean approved = event.decision() == Teacher.TeacherStatus.APPROVED;
+        record(Activity.builder()
+                .actorId(event.supervisorId())
+                .actorType(Activity.ActorType.SUPERVISOR)
+                .type("review")
+                .title(approved ? "Teacher Approved" : "Teacher Rejected")
+                .description("Reviewed the application of " + event.teacherName())
+                .status(approved ? "approved" : "rejected")
+                .subjectId(event.teacherId())
+                .build());
+    }
+
+    private static Activity.ActivityBuilder studentActivity(DomainEvent.EnrollmentProgressed event, String type,
+            String title, String description, String subjectId) {
+        return Activity.builder()
+                .actorId(event.studentId())
+                .actorType(Activity.ActorType.STUDENT)
+                .type(type)
+                .title(title)
+                .description(description)
+                .status("completed")
+                .subjectId(subjectId);
+    }
+
+    @Scheduled(fixedDelayString = "${activity.flush-interval-ms:1000}")
+    public void flush() {
+        List<Activity> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                ensureIndexes();
+                mongoTemplate.insert(batch, Activity.class);
+                appended.add(batch.size());
+                for (Activity activity : batch) {
+                    touchedActors.add(activity.getActorId());
+                }
+            } catch (Exception e) {
+                // Put the entries back for the next flush; any that no longer fit are lost
+                failedFlushes.increment();
+                for (Activity activity : batch) {
+                    if (!queue.offer(activity)) {
+                        dropped.increment();
+                    }
+                }
+                log.warn("Failed to append {} activities: {}", batch.size(), e.getMessage());
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Trims every actor appended to since the last run back to its newest
+     * {@code activity.max-per-actor} entries.
+     */
+    @Scheduled(initialDelayString = "${activity.compact-interval-ms:600000}",
+            fixedDelayString = "${activity.compact-interval-ms:600000}")
+    public void compact() {
+        List<String> actors = new ArrayList<>(touchedActors);
+        touchedActors.removeAll(actors);
+        for (String actorId : actors) {
+            try {
+                compacted.add(compact(actorId));
+            } catch (Exception e) {
+                touchedActors.add(actorId);
+                log.warn("Failed to compact activity feed for {}: {}", actorId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates the feed's keyset and retention indexes. Readers of the feed call this
+     * before their first page.
+     */
+    public void ensureIndexes() {
+        mongoIndexes.ensure(Activity.class, ACTOR_TIMESTAMP_INDEX, RETENTION_INDEX);
+    }
+
+    private long compact(String actorId) {
+        // The first entry past the limit, in feed order; it and everything after it go
+        Query boundaryQuery = Query.query(Criteria.where("actorId").is(actorId))
+                .with(Sort.by(Sort.Order.desc("timestamp"), Sort.Order.asc("_id")))
+                .skip(maxPerActor)
+                .limit(1);
+        boundaryQuery.fields().include("timestamp");
+        Activity boundary = mongoTemplate.findOne(boundaryQuery, Activity.class);
+        if (boundary == null) {
+            return 0;
+        }
+        Query older = Query.query(new Criteria().andOperator(
+                Criteria.where("actorId").is(actorId),
+                new Criteria().orOperator(
+                        Criteria.where("timestamp").lt(boundary.getTimestamp()),
+                        new Criteria().andOperator(
+                                Criteria.where("timestamp").is(boundary.getTimestamp()),
+                                Criteria.where("_id").gte(boundary.getId())))));
+        return mongoTemplate.remove(older, Activity.class).getDeletedCount();
+    }
+}
@@ -1,15 +1,17 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.config.BoundedPasswordEncoder;
+import com.qualityeducation.config.JwtPrincipal;
+import com.qualityeducation.config.PasswordHashingRejectedException;
 import com.qualityeducation.dto.*;
+import com.qualityeducation.model.PrincipalIdentity;
+import com.qualityeducation.model.PrincipalIdentity.PrincipalType;
 import com.qualityeducation.model.User;
 import com.qualityeducation.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
-import java.util.UUID;
-import java.time.Instant;
 
 @Service
 public class AuthService {
@@ -17,14 +19,20 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private BCryptPasswordEncoder passwordEncoder;
+    private BoundedPasswordEncoder passwordEncoder;
     
     @Autowired
-    private JwtService jwtService;
+    private RefreshTokenService refreshTokenService;
     
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private PrincipalDirectory principalDirectory;
+    
+    @Autowired
+    private PasswordResetTokenStore passwordResetTokenStore;
+    
     public AuthResponse register(RegistrationRequest request) {
         // Check if email already exists
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -46,31 +54,56 @@ public class AuthService {
         user.setRole("STUDENT"); // Set default role as STUDENT
         
         user = userRepository.save(user);
+        principalDirectory.record(user);
         
-        // Generate JWT token
-        String token = jwtService.generateToken(user);
+        // Access token plus a refresh token for the new session
+        RefreshTokenService.TokenPair tokens = refreshTokenService.startSession(user);
         
-        return new AuthResponse(token, user.getId(), user.getUsername(), user.getRole().toString(), "Registration successful");
+        AuthResponse response = new AuthResponse(tokens.accessToken(), user.getId(), user.getUsername(), user.getRole().toString(), "Registration successful");
+        response.setRefreshToken(tokens.refreshToken());
+        return response;
     }
     
     public AuthResponse login(LoginRequest request) {
-        Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
+        // Usually served from the directory cache; unknown emails never reach the students collection
+        Optional<PrincipalIdentity> identityOpt = principalDirectory.resolve(request.getEmail(), PrincipalType.STUDENT);
         
-        if (userOpt.isEmpty()) {
+        if (identityOpt.isEmpty()) {
             return new AuthResponse("Invalid email or password");
         }
         
-        User user = userOpt.get();
+        PrincipalIdentity identity = identityOpt.get();
         
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        try {
+            if (!passwordEncoder.matches(request.getPassword(), identity.getPasswordHash())) {
+                return new AuthResponse("Invalid email or password");
+            }
+        } catch (PasswordHashingRejectedException e) {
+            return new AuthResponse("Too many login attempts right now. Please try again shortly.");
+        }
+        
+        Optional<User> userOpt = userRepository.findById(identity.getPrincipalId());
+        if (userOpt.isEmpty()) {
+            principalDirectory.invalidate(request.getEmail());
             return new AuthResponse("Invalid email or password");
         }
         
-        // Generate JWT token
-        String token = jwtService.generateToken(user);
+        User user = userOpt.get();
         
-        return new AuthResponse(token, user.getId(), user.getUsername(), user.getRole().toString(), "Login successful");
+        // Re-hash when the stored cost no longer matches the configured one
+        String upgraded = passwordEncoder.rehashIfNeeded(request.getPassword(), identity.getPasswordHash());
+        if (upgraded != null) {
+            user.setPassword(upgraded);
+            principalDirectory.updatePassword(identity, upgraded);
+        }
+        
+        // Access token plus a refresh token for the new session
+        RefreshTokenService.TokenPair tokens = refreshTokenService.startSession(user);
+        
+        AuthResponse response = new AuthResponse(tokens.accessToken(), user.getId(), user.getUsername(), user.getRole().toString(), "Login successful");
+        response.setRefreshToken(tokens.refreshToken());
+        return response;
     }
     
     public AuthResponse forgotPassword(ForgotPasswordRequest request) {
@@ -83,22 +116,29 @@ public class AuthService {
         
         User user = userOpt.get();
         
-        // Generate reset token
-        String resetToken = UUID.randomUUID().toString();
-        user.setResetToken(resetToken);
-        user.setResetTokenExpiry(Instant.now().plusSeconds(3600).getEpochSecond()); // Token valid for 1 hour
-        
-        userRepository.save(user);
-        
-        // Send email with reset link
-        String resetLink = "http://localhost:3000/reset-password?token=" + resetToken;
-        emailService.sendPasswordResetEmail(user.getEmail(), resetLink);
+        // Send email with reset link; the token is issued when it goes out
+        emailService.sendPasswordResetEmail(user.getEmail(), PrincipalType.STUDENT, user.getId());
         
         return new AuthResponse("If your email is registered, you will receive a password reset link");
     }
     
     public AuthResponse resetPassword(ResetPasswordRequest request) {
-        Optional<User> userOpt = userRepository.findByResetToken(request.getToken());
+        // Only a live token is worth a hash; unknown tokens never reach the hashing pool
+        if (!passwordResetTokenStore.isLive(request.getToken(), PrincipalType.STUDENT)) {
+            return new AuthResponse("Invalid or expired token");
+        }
+        
+        // Hash before redeeming, so a busy hashing pool leaves the token usable for a retry
+        String encodedPassword;
+        try {
+            encodedPassword = passwordEncoder.encode(request.getNewPassword());
+        } catch (PasswordHashingRejectedException e) {
+            return new AuthResponse("Too many requests right now. Please try again shortly.");
+        }
+        
+        // Redeeming deletes the token, so it cannot be used twice
+        Optional<User> userOpt = passwordResetTokenStore.redeem(request.getToken(), PrincipalType.STUDENT)
+                .flatMap(resetToken -> userRepository.findById(resetToken.getPrincipalId()));
         
         if (userOpt.isEmpty()) {
             return new AuthResponse("Invalid or expired token");
@@ -106,18 +146,34 @@ public class AuthService {
         
         User user = userOpt.get();
         
-        // Check if token has expired
-        if (user.getResetTokenExpiry() < Instant.now().getEpochSecond()) {
-            return new AuthResponse("Token has expired");
-        }
-        
         // Update password
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        user.setResetToken(null);
-        user.setResetTokenExpiry(null);
+        user.setPassword(encodedPassword);
         
         userRepository.save(user);
+        principalDirectory.record(user);
         
         return new AuthResponse("Password has been reset successfully");
     }
-}
\ No newline at end of file
+    
+    public ApiResponse<TokenRefreshResponse> refresh(TokenRefreshRequest request) {
+        try {
+            return refreshTokenService.rotate(request.getRefreshToken())
+                    .map(tokens -> ApiResponse.success("Token refreshed", TokenRefreshResponse.builder()
+                            .token(tokens.accessToken())
+                            .refreshToken(tokens.refreshToken())
+                            .build()))
+                    .orElseGet(() -> ApiResponse.error("Invalid or expired refresh token"));
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to refresh token", e.getMessage());
+        }
+    }
+    
+    public ApiResponse<String> logout(JwtPrincipal principal) {
+        try {
+            refreshTokenService.endSession(principal);
+            return ApiResponse.success("Logged out successfully");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to log out", e.getMessage());
+        }
+    }
+}
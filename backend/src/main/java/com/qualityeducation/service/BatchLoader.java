@@ -0,0 +1,106 @@
+package com.qualityeducation.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Collects the keys a unit of work is going to need and resolves them together, in the
+ * style of DataLoader. Callers {@link #queue} keys while walking their data, and the
+ * first {@link #load} sends every queued key to the batch function in one call
+ * (typically {@code findAllById}, one {@code $in} query). Results, including misses, are
+ * memoized for the rest of the unit of work, so looking the same key up again is free.
+ *
+ * A loader belongs to one unit of work on one thread and is not thread-safe; obtain one
+ * per request from {@link BatchLoaders#begin()}.
+ */
+public final class BatchLoader<K, V> {
+
+    // Keeps a single $in query document a reasonable size
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final Function<List<K>, Iterable<V>> batchFunction;
+    private final Function<V, K> keyFunction;
+
+    private final Map<K, V> values = new HashMap<>();
+    private final Set<K> resolved = new HashSet<>();
+    private final Set<K> queued = new LinkedHashSet<>();
+    private int batchCount;
+
+    public BatchLoader(Function<List<K>, Iterable<V>> batchFunction, Function<V, K> keyFunction) {
+        this.batchFunction = batchFunction;
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Marks a key as needed; nothing is read until the next load or dispatch.
+     */
+    public BatchLoader<K, V> queue(K key) {
+        if (key != null && !resolved.contains(key)) {
+            queued.add(key);
+        }
+        return this;
+    }
+
+    public BatchLoader<K, V> queueAll(Collection<? extends K> keys) {
+        keys.forEach(this::queue);
+        return this;
+    }
+
+    /**
+     * The value for the key, resolving it together with everything queued so far.
+     */
+    public Optional<V> load(K key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        queue(key);
+        dispatch();
+        return Optional.ofNullable(values.get(key));
+    }
+
+    /**
+     * Values for the keys that exist, in the order the keys were given.
+     */
+    public Map<K, V> loadAll(Collection<? extends K> keys) {
+        queueAll(keys);
+        dispatch();
+        Map<K, V> found = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = values.get(key);
+            if (value != null) {
+                found.put(key, value);
+            }
+        }
+        return found;
+    }
+
+    public void dispatch() {
+        if (queued.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(queued);
+        queued.clear();
+        for (int from = 0; from < keys.size(); from += MAX_BATCH_SIZE) {
+            List<K> batch = keys.subList(from, Math.min(from + MAX_BATCH_SIZE, keys.size()));
+            batchFunction.apply(batch).forEach(value -> values.put(keyFunction.apply(value), value));
+            batchCount++;
+        }
+        resolved.addAll(keys);
+    }
+
+    /**
+     * Number of batch calls made so far, i.e. queries issued by this loader.
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+}
@@ -0,0 +1,98 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.model.Course;
+import com.qualityeducation.model.Lesson;
+import com.qualityeducation.model.Module;
+import com.qualityeducation.model.Teacher;
+import com.qualityeducation.model.User;
+import com.qualityeducation.repository.CourseRepository;
+import com.qualityeducation.repository.LessonRepository;
+import com.qualityeducation.repository.ModuleRepository;
+import com.qualityeducation.repository.TeacherRepository;
+import com.qualityeducation.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out a fresh set of {@link BatchLoader}s per unit of work, one per entity type,
+ * each backed by the repository's {@code findAllById}. A service method that builds a
+ * response from many referenced documents calls {@link #begin()} once and reads every
+ * reference through it, so its query count no longer grows with the number of rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchLoaders {
+
+    private final UserRepository userRepository;
+    private final TeacherRepository teacherRepository;
+    private final CourseRepository courseRepository;
+    private final ModuleRepository moduleRepository;
+    private final LessonRepository lessonRepository;
+
+    public UnitOfWork begin() {
+        return new UnitOfWork();
+    }
+
+    public final class UnitOfWork {
+
+        private final List<BatchLoader<?, ?>> loaders = new ArrayList<>();
+        private BatchLoader<String, User> users;
+        private BatchLoader<String, Teacher> teachers;
+        private BatchLoader<String, Course> courses;
+        private BatchLoader<String, Module> modules;
+        private BatchLoader<String, Lesson> lessons;
+
+        private UnitOfWork() {
+        }
+
+        public BatchLoader<String, User> users() {
+            if (users == null) {
+                users = register(new BatchLoader<>(userRepository::findAllById, User::getId));
+            }
+            return users;
+        }
+
+        public BatchLoader<String, Teacher> teachers() {
+            if (teachers == null) {
+                teachers = register(new BatchLoader<>(teacherRepository::findAllById, Teacher::getId));
+            }
+            return teachers;
+        }
+
+        public BatchLoader<String, Course> courses() {
+            if (courses == null) {
+                courses = register(new BatchLoader<>(courseRepository::findAllById, Course::getId));
+            }
+            return courses;
+        }
+
+        public BatchLoader<String, Module> modules() {
+            if (modules == null) {
+                modules = register(new BatchLoader<>(moduleRepository::findAllById, Module::getId));
+            }
+            return modules;
+        }
+
+        public BatchLoader<String, Lesson> lessons() {
+            if (lessons == null) {
+                lessons = register(new BatchLoader<>(lessonRepository::findAllById, Lesson::getId));
+            }
+            return lessons;
+        }
+
+        /**
+         * Queries issued through this unit of work's loaders.
+         */
+        public int getQueryCount() {
+            return loaders.stream().mapToInt(BatchLoader::getBatchCount).sum();
+        }
+
+        private <V> BatchLoader<String, V> register(BatchLoader<String, V> loader) {
+            loaders.add(loader);
+            return loader;
+        }
+    }
+}
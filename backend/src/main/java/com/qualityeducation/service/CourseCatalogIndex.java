@@ -0,0 +1,325 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.dto.CourseFacetsResponse;
+import com.qualityeducation.model.Course;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Facet counts for the public course browser. Every published course gets a dense integer
+ * slot, and each facet value keeps a bitmap of the slots that carry it. Filtering is an
+ * AND of bitmaps and a count is the cardinality of one more AND, so a request never
+ * touches the courses themselves. Slots of removed courses are reused, which keeps the
+ * bitmaps as short as the published catalog.
+ *
+ * {@link CourseService} applies its writes here; a periodic reload picks up courses
+ * changed by other instances or directly in the database.
+ */
+@Component
+@Slf4j
+public class CourseCatalogIndex {
+
+    public enum Facet {
+        CATEGORY("category", Course::getCategory),
+        LEVEL("level", Course::getLevel),
+        LANGUAGE("language", Course::getLanguage),
+        PRICE("price", course -> PriceBand.of(course.getPrice()).key);
+
+        private final String param;
+        private final Function<Course, String> value;
+
+        Facet(String param, Function<Course, String> value) {
+            this.param = param;
+            this.value = value;
+        }
+
+        public String param() {
+            return param;
+        }
+    }
+
+    enum PriceBand {
+        FREE("free"),
+        UNDER_50("under-50"),
+        FROM_50_TO_100("50-100"),
+        OVER_100("over-100");
+
+        private final String key;
+
+        PriceBand(String key) {
+            this.key = key;
+        }
+
+        static PriceBand of(Double price) {
+            if (price == null || price <= 0) {
+                return FREE;
+            }
+            if (price < 50) {
+                return UNDER_50;
+            }
+            return price <= 100 ? FROM_50_TO_100 : OVER_100;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Bitmaps bitmaps = new Bitmaps();
+    private boolean loaded;
+    // Writes made while a reload is reading, replayed onto the reloaded bitmaps
+    private List<Object> replay;
+
+    public CourseCatalogIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Total and per-value counts for the given filters (facet -> value; blank or "all"
+     * means unfiltered). Counts for a facet ignore that facet's own filter, so the
+     * browser can show how many courses each alternative value would give.
+     */
+    public CourseFacetsResponse facets(Map<Facet, String> filters) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Map<Facet, BitSet> selected = new EnumMap<>(Facet.class);
+            filters.forEach((facet, value) -> {
+                String key = key(value);
+                if (key != null && !key.equals("all")) {
+                    BitSet bitmap = bitmaps.values.get(facet).get(key);
+                    selected.put(facet, bitmap != null ? bitmap : new BitSet());
+                }
+            });
+
+            BitSet matching = (BitSet) bitmaps.live.clone();
+            selected.values().forEach(matching::and);
+
+            BitSet base = new BitSet();
+            BitSet scratch = new BitSet();
+            Map<String, List<CourseFacetsResponse.FacetCount>> facets = new LinkedHashMap<>();
+            for (Facet facet : Facet.values()) {
+                base.clear();
+                base.or(bitmaps.live);
+                selected.forEach((other, bitmap) -> {
+                    if (other != facet) {
+                        base.and(bitmap);
+                    }
+                });
+
+                String selectedKey = selected.containsKey(facet) ? key(filters.get(facet)) : null;
+                List<CourseFacetsResponse.FacetCount> counts = new ArrayList<>();
+                bitmaps.values.get(facet).forEach((key, bitmap) -> {
+                    scratch.clear();
+                    scratch.or(base);
+                    scratch.and(bitmap);
+                    int count = scratch.cardinality();
+                    boolean isSelected = key.equals(selectedKey);
+                    if (count > 0 || isSelected) {
+                        counts.add(new CourseFacetsResponse.FacetCount(
+                                key, bitmaps.labels.get(facet).get(key), count, isSelected));
+                    }
+                });
+                counts.sort(Comparator.comparingLong(CourseFacetsResponse.FacetCount::getCount).reversed()
+                        .thenComparing(CourseFacetsResponse.FacetCount::getValue));
+                facets.put(facet.param, counts);
+            }
+
+            return CourseFacetsResponse.builder()
+                    .total(matching.cardinality())
+                    .facets(facets)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a course after a write; courses that are not published are dropped.
+     */
+    public void apply(Course course) {
+        write(course);
+    }
+
+    public void remove(String courseId) {
+        write(courseId);
+    }
+
+    @Scheduled(initialDelayString = "${catalog.courses.reload-interval-ms:300000}",
+            fixedDelayString = "${catalog.courses.reload-interval-ms:300000}")
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            if (!loaded || replay != null) {
+                return;
+            }
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Bitmaps reloaded = null;
+        try {
+            reloaded = load();
+        } catch (Exception e) {
+            log.warn("Failed to reload course facet index: {}", e.getMessage());
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (reloaded != null) {
+                for (Object write : replay) {
+                    reloaded.write(write);
+                }
+                bitmaps = reloaded;
+                log.debug("Reloaded course facet index with {} published courses", reloaded.slots.size());
+            }
+            replay = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Object write) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return; // the initial load will read it
+            }
+            bitmaps.write(write);
+            if (replay != null) {
+                replay.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                bitmaps = load();
+                loaded = true;
+                log.info("Loaded course facet index with {} published courses", bitmaps.slots.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Bitmaps load() {
+        Query query = Query.query(Criteria.where("status").is("published"));
+        query.fields().include("status", "category", "level", "language", "price");
+        Bitmaps loading = new Bitmaps();
+        try (Stream<Course> courses = mongoTemplate.stream(query, Course.class)) {
+            courses.forEach(loading::put);
+        }
+        return loading;
+    }
+
+    private static String key(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Bitmaps {
+        final Map<String, Integer> slots = new HashMap<>();
+        final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+        final Map<Integer, String[]> slotKeys = new HashMap<>();
+        final BitSet live = new BitSet();
+        final Map<Facet, Map<String, BitSet>> values = new EnumMap<>(Facet.class);
+        final Map<Facet, Map<String, String>> labels = new EnumMap<>(Facet.class);
+        int nextSlot;
+
+        Bitmaps() {
+            for (Facet facet : Facet.values()) {
+                values.put(facet, new HashMap<>());
+                labels.put(facet, new HashMap<>());
+            }
+        }
+
+        void write(Object write) {
+            if (write instanceof Course course) {
+                put(course);
+            } else {
+                remove((String) write);
+            }
+        }
+
+        void put(Course course) {
+            remove(course.getId());
+            if (!"published".equals(course.getStatus())) {
+                return;
+            }
+
+            Integer slot = freeSlots.poll();
+            if (slot == null) {
+                slot = nextSlot++;
+            }
+            String[] keys = new String[Facet.values().length];
+            for (Facet facet : Facet.values()) {
+                String label = facet.value.apply(course);
+                String key = key(label);
+                keys[facet.ordinal()] = key;
+                if (key != null) {
+                    values.get(facet).computeIfAbsent(key, k -> new BitSet()).set(slot);
+                    labels.get(facet).put(key, label.trim());
+                }
+            }
+            slots.put(course.getId(), slot);
+            slotKeys.put(slot, keys);
+            live.set(slot);
+        }
+
+        void remove(String courseId) {
+            Integer slot = slots.remove(courseId);
+            if (slot == null) {
+                return;
+            }
+            String[] keys = slotKeys.remove(slot);
+            for (Facet facet : Facet.values()) {
+                String key = keys[facet.ordinal()];
+                if (key == null) {
+                    continue;
+                }
+                BitSet bitmap = values.get(facet).get(key);
+                bitmap.clear(slot);
+                if (bitmap.isEmpty()) {
+                    values.get(facet).remove(key);
+                    labels.get(facet).remove(key);
+                }
+            }
+            live.clear(slot);
+            freeSlots.push(slot);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.dto.LessonSummaryResponse;
+import com.qualityeducation.dto.ModuleWithLessonsResponse;
+import com.qualityeducation.model.Course;
+import com.qualityeducation.model.CourseOutline;
+import com.qualityeducation.model.Lesson;
+import com.qualityeducation.repository.CourseOutlineRepository;
+import com.qualityeducation.repository.CourseRepository;
+import com.qualityeducation.repository.LessonRepository;
+import com.qualityeducation.repository.LessonSummary;
+import com.qualityeducation.repository.ModuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link CourseOutline} documents in step with the courses, modules and lessons
+ * they are built from. Module and lesson writes reach it as events on the
+ * {@link DomainEventBus}, and each course changed within a batch is rebuilt once;
+ * course writes call {@link #rebuild} directly. The rebuild reads the course, its module summaries and its lesson
+ * summaries (three indexed queries) and replaces the outline in one write, so a course
+ * page is then a single point read however many modules the course has.
+ *
+ * Rebuilds of the same course are serialized so an older read can never overwrite a
+ * newer outline. A failed rebuild drops the outline instead of leaving it stale, and the
+ * next read builds it again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseOutlineProjector implements DomainEventSubscriber {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final CourseOutlineRepository courseOutlineRepository;
+    private final CourseRepository courseRepository;
+    private final ModuleRepository moduleRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonSlots lessonSlots;
+    private final MongoTemplate mongoTemplate;
+
+    private final Object[] locks = createLocks();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder failedRebuilds = new LongAdder();
+
+    /**
+     * The course's outline, built on first access.
+     */
+    public Optional<CourseOutline> outline(String courseId) {
+        Optional<CourseOutline> outline = courseOutlineRepository.findById(courseId);
+        if (outline.isPresent()) {
+            return outline;
+        }
+        return Optional.ofNullable(build(courseId));
+    }
+
+    /**
+     * Outlines for several courses in one query, building any that are missing. Courses
+     * that no longer exist are left out.
+     */
+    public Map<String, CourseOutline> outlines(Collection<String> courseIds) {
+        Map<String, CourseOutline> outlines = new HashMap<>();
+        courseOutlineRepository.findAllById(new LinkedHashSet<>(courseIds))
+                .forEach(outline -> outlines.put(outline.getCourseId(), outline));
+        for (String courseId : courseIds) {
+            if (!outlines.containsKey(courseId)) {
+                CourseOutline built = build(courseId);
+                if (built != null) {
+                    outlines.put(courseId, built);
+                }
+            }
+        }
+        return outlines;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<String> courseIds = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.CourseStructureChanged changed) {
+                courseIds.add(changed.courseId());
+            }
+        }
+        courseIds.forEach(this::rebuild);
+    }
+
+    /**
+     * Rebuilds the course's outline after a write. Never throws, so a read-model problem
+     * cannot fail the write that triggered it.
+     */
+    public void rebuild(String courseId) {
+        if (courseId == null) {
+            return;
+        }
+        try {
+            build(courseId);
+        } catch (Exception e) {
+            failedRebuilds.increment();
+            log.warn("Failed to rebuild outline for course {}: {}", courseId, e.getMessage());
+            try {
+                courseOutlineRepository.deleteById(courseId);
+            } catch (Exception deleteFailure) {
+                log.warn("Failed to drop stale outline for course {}: {}", courseId, deleteFailure.getMessage());
+            }
+        }
+    }
+
+    public void delete(String courseId) {
+        synchronized (lockFor(courseId)) {
+            courseOutlineRepository.deleteById(courseId);
+        }
+    }
+
+    public long getRebuildCount() {
+        return rebuilds.sum();
+    }
+
+    public long getFailedRebuildCount() {
+        return failedRebuilds.sum();
+    }
+
+    private CourseOutline build(String courseId) {
+        synchronized (lockFor(courseId)) {
+            Optional<Course> courseOpt = courseRepository.findById(courseId);
+            if (courseOpt.isEmpty()) {
+                courseOutlineRepository.deleteById(courseId);
+                return null;
+            }
+            Course course = courseOpt.get();
+
+            List<LessonSummary> lessons = lessonRepository.findSummariesByCourseId(courseId);
+            Map<String, Integer> assignedSlots = assignMissingSlots(courseId, lessons);
+            // Lessons outside any module have no place in the outline; Map.entry rejects a null key
+            Map<String, List<LessonSummaryResponse>> lessonsByModule = lessons.stream()
+                    .filter(lesson -> lesson.getModuleId() != null)
+                    .map(lesson -> {
+                        LessonSummaryResponse response = LessonSummaryResponse.fromSummary(lesson);
+                        if (response.getSlot() == null) {
+                            response.setSlot(assignedSlots.get(lesson.getId()));
+                        }
+                        return Map.entry(lesson.getModuleId(), response);
+                    })
+                    .collect(Collectors.groupingBy(Map.Entry::getKey,
+                            Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+
+            List<ModuleWithLessonsResponse> modules = moduleRepository.findSummariesByCourseIdOrderByOrderAsc(courseId)
+                    .stream()
+                    .map(module -> ModuleWithLessonsResponse.fromSummary(module,
+                            lessonsByModule.getOrDefault(module.getId(), List.of())))
+                    .collect(Collectors.toList());
+
+            CourseOutline outline = CourseOutline.builder()
+                    .courseId(courseId)
+                    .teacherId(course.getTeacherId())
+                    .title(course.getTitle())
+                    .description(course.getDescription())
+                    .category(course.getCategory())
+                    .level(course.getLevel())
+                    .language(course.getLanguage())
+                    .image(course.getImage())
+                    .status(course.getStatus())
+                    .totalModules(modules.size())
+                    .totalLessons(modules.stream().mapToInt(module -> module.getLessons().size()).sum())
+                    .modules(modules)
+                    .rebuiltAt(LocalDateTime.now())
+                    .build();
+
+            CourseOutline saved = courseOutlineRepository.save(outline);
+            rebuilds.increment();
+            return saved;
+        }
+    }
+
+    /**
+     * Gives slots to lessons created before lessons had them. The write only applies if
+     * the lesson still has no slot, so a concurrent assignment elsewhere wins and is read
+     * back.
+     */
+    private Map<String, Integer> assignMissingSlots(String courseId, List<LessonSummary> lessons) {
+        List<String> missing = lessons.stream()
+                .filter(lesson -> lesson.getSlot() == null)
+                .map(LessonSummary::getId)
+                .toList();
+        if (missing.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Integer> assigned = new HashMap<>();
+        int slot = lessonSlots.reserve(courseId, missing.size());
+        for (String lessonId : missing) {
+            Query unslotted = Query.query(Criteria.where("_id").is(lessonId).and("slot").exists(false));
+            if (mongoTemplate.updateFirst(unslotted, Update.update("slot", slot), Lesson.class).getModifiedCount() > 0) {
+                assigned.put(lessonId, slot);
+            } else {
+                Query current = Query.query(Criteria.where("_id").is(lessonId));
+                current.fields().include("slot");
+                Lesson lesson = mongoTemplate.findOne(current, Lesson.class);
+                if (lesson != null && lesson.getSlot() != null) {
+                    assigned.put(lessonId, lesson.getSlot());
+                }
+            }
+            slot++;
+        }
+        log.info("Assigned slots to {} lessons in course {}", assigned.size(), courseId);
+        return assigned;
+    }
+
+    private Object lockFor(String courseId) {
+        return locks[Math.floorMod(courseId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static Object[] createLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+}
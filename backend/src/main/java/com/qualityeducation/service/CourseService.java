@@ -1,35 +1,76 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.config.MongoIndexes;
+import com.qualityeducation.dto.CourseFacetsResponse;
+import com.qualityeducation.dto.CourseOutlineResponse;
 import com.qualityeducation.dto.CourseRequest;
 import com.qualityeducation.dto.CourseResponse;
+import com.qualityeducation.dto.CursorPage;
 import com.qualityeducation.dto.ModuleResponse;
 import com.qualityeducation.model.Course;
 import com.qualityeducation.model.Module;
 import com.qualityeducation.repository.CourseRepository;
 import com.qualityeducation.repository.ModuleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class CourseService {
 
+    // Must match the collation of the published_search index, see publishedSearchIndex()
+    static final Collation CASE_INSENSITIVE = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+    private static final Index CREATED_INDEX = new Index().on("createdAt", Sort.Direction.DESC)
+            .on("_id", Sort.Direction.ASC).named("created_keyset");
+    private static final Index STATUS_CREATED_INDEX = new Index().on("status", Sort.Direction.ASC)
+            .on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.ASC).named("status_created_keyset");
+    private static final Index PUBLISHED_SEARCH_INDEX = publishedSearchIndex();
+
     @Autowired
     private CourseRepository courseRepository;
 
     @Autowired
     private ModuleRepository moduleRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexes mongoIndexes;
+
+    @Autowired
+    private CourseCatalogIndex courseCatalogIndex;
+
+    @Autowired
+    private CourseOutlineProjector courseOutlineProjector;
+
+    @Autowired
+    private SupervisorCounters supervisorCounters;
+
     public CourseResponse createCourse(CourseRequest request, String teacherId) {
         Course course = new Course();
         course.setTitle(request.getTitle());
         course.setCategory(request.getCategory());
         course.setLevel(request.getLevel());
+        course.setLanguage(request.getLanguage());
         course.setDescription(request.getDescription());
         course.setInstructor(request.getInstructor());
         course.setInstructorTitle(request.getInstructorTitle());
@@ -45,6 +86,9 @@ public class CourseService {
         course.setCreatedAt(LocalDateTime.now());
 
         Course saved = courseRepository.save(course);
+        courseCatalogIndex.apply(saved);
+        courseOutlineProjector.rebuild(saved.getId());
+        supervisorCounters.courseCreated();
         return mapToCourseResponse(saved);
     }
 
@@ -92,6 +136,24 @@ public class CourseService {
         return Optional.of(courseResponse);
     }
 
+    /**
+     * The course page in one read: course, modules and lessons from the outline read model
+     */
+    public Optional<CourseOutlineResponse> getCourseOutline(String courseId, String teacherId) {
+        return courseOutlineProjector.outline(courseId)
+                .filter(outline -> teacherId.equals(outline.getTeacherId()))
+                .map(CourseOutlineResponse::fromOutline);
+    }
+
+    /**
+     * Published modules and lessons of a published course, from the outline read model
+     */
+    public Optional<CourseOutlineResponse> getPublishedCourseOutline(String courseId) {
+        return courseOutlineProjector.outline(courseId)
+                .filter(outline -> "published".equals(outline.getStatus()))
+                .map(CourseOutlineResponse::publishedFromOutline);
+    }
+
     public List<CourseResponse> getAllCourses() {
         List<Course> courses = courseRepository.findAll();
         return courses.stream()
@@ -106,63 +168,164 @@ public class CourseService {
                 .collect(Collectors.toList());
     }
 
+    public CursorPage<CourseResponse> getAllCourses(String cursor, Integer limit) {
+        mongoIndexes.ensure(Course.class, CREATED_INDEX, STATUS_CREATED_INDEX);
+        Limit pageLimit = KeysetCursor.limit(limit);
+        return KeysetCursor.page(
+                courseRepository.findAllByOrderByCreatedAtDesc(KeysetCursor.position(cursor), pageLimit),
+                pageLimit, this::mapToCourseResponse);
+    }
+
+    public CursorPage<CourseResponse> getAllPublishedCourses(String cursor, Integer limit) {
+        mongoIndexes.ensure(Course.class, CREATED_INDEX, STATUS_CREATED_INDEX);
+        Limit pageLimit = KeysetCursor.limit(limit);
+        return KeysetCursor.page(
+                courseRepository.findByStatusOrderByCreatedAtDesc("published", KeysetCursor.position(cursor), pageLimit),
+                pageLimit, this::mapToCourseResponse);
+    }
+
     public List<CourseResponse> searchPublishedCourses(String searchTerm, String category, String level) {
-        List<Course> courses = courseRepository.findByStatus("published");
-        
+        mongoIndexes.ensure(Course.class, PUBLISHED_SEARCH_INDEX);
+        List<Course> courses = mongoTemplate.find(publishedCourseSearch(searchTerm, category, level), Course.class);
         return courses.stream()
-                .filter(course -> {
-                    boolean matches = true;
-                    
-                    if (searchTerm != null && !searchTerm.isEmpty()) {
-                        String term = searchTerm.toLowerCase();
-                        matches = course.getTitle().toLowerCase().contains(term) ||
-                                course.getDescription().toLowerCase().contains(term) ||
-                                course.getCategory().toLowerCase().contains(term);
-                    }
-                    
-                    if (category != null && !category.isEmpty() && !category.equals("all")) {
-                        matches = matches && course.getCategory().equalsIgnoreCase(category);
-                    }
-                    
-                    if (level != null && !level.isEmpty() && !level.equals("all")) {
-                        matches = matches && course.getLevel().equalsIgnoreCase(level);
-                    }
-                    
-                    return matches;
-                })
                 .map(this::mapToCourseResponse)
                 .collect(Collectors.toList());
     }
 
-    public CourseResponse updateCourse(String courseId, CourseRequest request) {
-        Optional<Course> optionalCourse = courseRepository.findById(courseId);
-        if (optionalCourse.isPresent()) {
-            Course course = optionalCourse.get();
-            course.setTitle(request.getTitle());
-            course.setCategory(request.getCategory());
-            course.setLevel(request.getLevel());
-            course.setDescription(request.getDescription());
-            course.setInstructor(request.getInstructor());
-            course.setInstructorTitle(request.getInstructorTitle());
-            course.setImage(request.getImage());
-            course.setPrice(request.getPrice());
-            course.setEstimatedDuration(request.getEstimatedDuration());
-            course.setPrerequisites(request.getPrerequisites());
-            course.setLearningObjectives(request.getLearningObjectives());
-
-            Course updated = courseRepository.save(course);
+    public CursorPage<CourseResponse> searchPublishedCourses(String searchTerm, String category, String level,
+            String cursor, Integer limit) {
+        mongoIndexes.ensure(Course.class, PUBLISHED_SEARCH_INDEX);
+        Limit pageLimit = KeysetCursor.limit(limit);
+        Query query = publishedCourseSearch(searchTerm, category, level)
+                .with(KeysetCursor.position(cursor))
+                .limit(pageLimit);
+        return KeysetCursor.page(mongoTemplate.scroll(query, Course.class), pageLimit, this::mapToCourseResponse);
+    }
+
+    /**
+     * Published-course search as one Mongo query, newest first. Category and level are
+     * case-insensitive equality matches under {@link #CASE_INSENSITIVE}, so they bound the
+     * {@code published_search} index, which is built with the same collation. The term
+     * is a case-insensitive substring match on title, description or category, evaluated
+     * only on the index-narrowed documents.
+     */
+    static Query publishedCourseSearch(String searchTerm, String category, String level) {
+        Criteria criteria = Criteria.where("status").is("published");
+        if (isFilter(category)) {
+            criteria.and("category").is(category);
+        }
+        if (isFilter(level)) {
+            criteria.and("level").is(level);
+        }
+        if (searchTerm != null && !searchTerm.isEmpty()) {
+            String pattern = Pattern.quote(searchTerm);
+            criteria.orOperator(
+                    Criteria.where("title").regex(pattern, "i"),
+                    Criteria.where("description").regex(pattern, "i"),
+                    Criteria.where("category").regex(pattern, "i"));
+        }
+        return Query.query(criteria)
+                .collation(CASE_INSENSITIVE)
+                .with(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("_id")));
+    }
+
+    private static boolean isFilter(String value) {
+        return value != null && !value.isEmpty() && !value.equals("all");
+    }
+
+    /**
+     * Facet counts for the public course browser, served from {@link CourseCatalogIndex}.
+     */
+    public CourseFacetsResponse getPublishedCourseFacets(String category, String level, String language,
+            String price) {
+        Map<CourseCatalogIndex.Facet, String> filters = new EnumMap<>(CourseCatalogIndex.Facet.class);
+        filters.put(CourseCatalogIndex.Facet.CATEGORY, category);
+        filters.put(CourseCatalogIndex.Facet.LEVEL, level);
+        filters.put(CourseCatalogIndex.Facet.LANGUAGE, language);
+        filters.put(CourseCatalogIndex.Facet.PRICE, price);
+        return courseCatalogIndex.facets(filters);
+    }
+
+    public CourseResponse updateCourse(String courseId, CourseRequest request, String teacherId) {
+        // Provided, non-blank fields replace the stored ones; the rest are left untouched
+        Map<String, Object> patch = new LinkedHashMap<>();
+        putText(patch, "title", request.getTitle());
+        putText(patch, "category", request.getCategory());
+        putText(patch, "level", request.getLevel());
+        putText(patch, "language", request.getLanguage());
+        putText(patch, "description", request.getDescription());
+        putText(patch, "instructor", request.getInstructor());
+        putText(patch, "instructorTitle", request.getInstructorTitle());
+        putText(patch, "image", request.getImage());
+        putValue(patch, "price", request.getPrice());
+        putText(patch, "estimatedDuration", request.getEstimatedDuration());
+        putValue(patch, "prerequisites", request.getPrerequisites());
+        putValue(patch, "learningObjectives", request.getLearningObjectives());
+        return patchCourse(courseId, patch, teacherId);
+    }
+
+    /**
+     * Applies a JSON Merge Patch as one conditional update; only the owning teacher's
+     * course matches the filter.
+     */
+    public CourseResponse patchCourse(String courseId, Map<String, Object> patch, String teacherId) {
+        Update update = MergePatch.of(patch)
+                .requiredField("title", String.class)
+                .field("category", String.class)
+                .field("level", String.class)
+                .field("language", String.class)
+                .field("description", String.class)
+                .field("instructor", String.class)
+                .field("instructorTitle", String.class)
+                .field("image", String.class)
+                .field("price", Double.class)
+                .field("estimatedDuration", String.class)
+                .field("prerequisites", List.class)
+                .field("learningObjectives", List.class)
+                .toUpdate();
+
+        Query owned = Query.query(Criteria.where("_id").is(courseId).and("teacherId").is(teacherId));
+        // An empty patch changes nothing, but still only answers the owner
+        Course updated = update.getUpdateObject().isEmpty()
+                ? mongoTemplate.findOne(owned, Course.class)
+                : mongoTemplate.findAndModify(owned, update, FindAndModifyOptions.options().returnNew(true),
+                        Course.class);
+        if (updated != null) {
+            courseCatalogIndex.apply(updated);
+            courseOutlineProjector.rebuild(courseId);
             return mapToCourseResponse(updated);
         }
+        if (courseRepository.existsById(courseId)) {
+            throw new RuntimeException("You don't have permission to update this course");
+        }
         throw new RuntimeException("Course not found with id: " + courseId);
     }
 
+    private static void putText(Map<String, Object> patch, String field, String value) {
+        if (value != null && !value.trim().isEmpty()) {
+            patch.put(field, value.trim());
+        }
+    }
+
+    private static void putValue(Map<String, Object> patch, String field, Object value) {
+        if (value != null) {
+            patch.put(field, value);
+        }
+    }
+
     @Transactional
     public void deleteCourse(String courseId) {
         // First delete all modules associated with this course
         moduleRepository.deleteByCourseId(courseId);
 
-        // Then delete the course
-        courseRepository.deleteById(courseId);
+        // Then delete the course, counting it only if it was there
+        boolean deleted = mongoTemplate.remove(Query.query(Criteria.where("_id").is(courseId)), Course.class)
+                .getDeletedCount() > 0;
+        courseCatalogIndex.remove(courseId);
+        courseOutlineProjector.delete(courseId);
+        if (deleted) {
+            supervisorCounters.courseDeleted();
+        }
     }
 
     /**
@@ -185,6 +348,7 @@ public class CourseService {
         response.setTitle(course.getTitle());
         response.setCategory(course.getCategory());
         response.setLevel(course.getLevel());
+        response.setLanguage(course.getLanguage());
         response.setDescription(course.getDescription());
         response.setInstructor(course.getInstructor());
         response.setInstructorTitle(course.getInstructorTitle());
@@ -196,8 +360,19 @@ public class CourseService {
         response.setStatus(course.getStatus());
         response.setStudents(course.getStudents());
         response.setModules(course.getModules());
+        response.setViews(course.getViews());
         response.setCreatedAt(course.getCreatedAt());
         response.setTeacherId(course.getTeacherId());
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * Equality fields first, then the sort keys of {@link #publishedCourseSearch}, under
+     * {@link #CASE_INSENSITIVE} so collated category and level matches can use it.
+     */
+    static Index publishedSearchIndex() {
+        return new Index().on("status", Sort.Direction.ASC).on("category", Sort.Direction.ASC)
+                .on("level", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.ASC)
+                .collation(CASE_INSENSITIVE).named("published_search");
+    }
+}
@@ -0,0 +1,154 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.model.Course;
+import com.qualityeducation.model.Enrollment;
+import com.qualityeducation.model.Lesson;
+import com.qualityeducation.model.Module;
+import com.qualityeducation.repository.EnrollmentRepository;
+import com.qualityeducation.repository.LessonRepository;
+import com.qualityeducation.repository.ModuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the denormalized counts on modules and courses ({@code Module.totalLessons},
+ * {@code Course.modules}, {@code Course.students}) in step with the documents they
+ * count. Each module or course touched within a batch of events is recounted once from
+ * its source collection and the new values are written in one bulk, so a lost or
+ * reordered event cannot leave a count off by one for good.
+ *
+ * A batch the bus gave up on leaves the counts it touched stale until those documents
+ * change again; {@link #recountAll()} recomputes every count from scratch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseStructureCounts implements DomainEventSubscriber {
+
+    private static final int RECOUNT_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final LessonRepository lessonRepository;
+    private final ModuleRepository moduleRepository;
+    private final EnrollmentRepository enrollmentRepository;
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<String> lessonCounts = new LinkedHashSet<>();
+        Set<String> moduleCounts = new LinkedHashSet<>();
+        Set<String> studentCounts = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.LessonCreated created) {
+                lessonCounts.add(created.moduleId());
+            } else if (event instanceof DomainEvent.LessonDeleted deleted) {
+                lessonCounts.add(deleted.moduleId());
+            } else if (event instanceof DomainEvent.ModuleCreated created) {
+                moduleCounts.add(created.courseId());
+            } else if (event instanceof DomainEvent.ModuleDeleted deleted) {
+                moduleCounts.add(deleted.courseId());
+            } else if (event instanceof DomainEvent.EnrollmentCreated created) {
+                studentCounts.add(created.courseId());
+            }
+        }
+
+        if (!lessonCounts.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Module.class);
+            for (String moduleId : lessonCounts) {
+                bulk.updateOne(byId(moduleId), new Update()
+                        .set("totalLessons", (int) lessonRepository.countByModuleId(moduleId))
+                        .set("updatedAt", now));
+            }
+            bulk.execute();
+        }
+        if (!moduleCounts.isEmpty() || !studentCounts.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Course.class);
+            for (String courseId : moduleCounts) {
+                bulk.updateOne(byId(courseId), Update.update("modules", (int) moduleRepository.countByCourseId(courseId)));
+            }
+            // One enrollment per student and course, so enrollments are students
+            for (String courseId : studentCounts) {
+                bulk.updateOne(byId(courseId),
+                        Update.update("students", (int) enrollmentRepository.countByCourseId(courseId)));
+            }
+            bulk.execute();
+        }
+        log.debug("Recounted {} modules' lessons, {} courses' modules and {} courses' students",
+                lessonCounts.size(), moduleCounts.size(), studentCounts.size());
+    }
+
+    /**
+     * Recounts the lessons of every module and the modules and students of every course.
+     *
+     * @return the number of modules and courses written
+     */
+    public int recountAll() {
+        Map<String, Integer> lessons = countBy(Lesson.class, "moduleId");
+        Map<String, Integer> modules = countBy(Module.class, "courseId");
+        Map<String, Integer> students = countBy(Enrollment.class, "courseId");
+
+        LocalDateTime now = LocalDateTime.now();
+        int modulesWritten = recount(Module.class, id -> new Update()
+                .set("totalLessons", lessons.getOrDefault(id, 0))
+                .set("updatedAt", now));
+        int coursesWritten = recount(Course.class, id -> new Update()
+                .set("modules", modules.getOrDefault(id, 0))
+                .set("students", students.getOrDefault(id, 0)));
+        log.info("Recounted {} modules and {} courses", modulesWritten, coursesWritten);
+        return modulesWritten + coursesWritten;
+    }
+
+    private Map<String, Integer> countBy(Class<?> entityClass, String field) {
+        Map<String, Integer> counts = new HashMap<>();
+        mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.group(field).count().as("count")), entityClass, Document.class)
+                .forEach(count -> counts.put(count.getString("_id"), ((Number) count.get("count")).intValue()));
+        return counts;
+    }
+
+    private int recount(Class<?> entityClass, Function<String, Update> update) {
+        Query ids = new Query();
+        ids.fields().include("_id");
+        int written = 0;
+        BulkOperations bulk = null;
+        try (Stream<Document> documents = mongoTemplate.stream(ids, Document.class,
+                mongoTemplate.getCollectionName(entityClass))) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+                }
+                String id = document.get("_id").toString();
+                bulk.updateOne(byId(id), update.apply(id));
+                if (++written % RECOUNT_BATCH_SIZE == 0) {
+                    bulk.execute();
+                    bulk = null;
+                }
+            }
+        }
+        if (bulk != null) {
+            bulk.execute();
+        }
+        return written;
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+}
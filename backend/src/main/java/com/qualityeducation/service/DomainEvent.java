@@ -0,0 +1,99 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.model.Teacher;
+
+/**
+ * Something that happened in the domain, published on the {@link DomainEventBus} after
+ * the write that caused it. Events carry ids and the few values subscribers need, never
+ * whole documents, and are immutable.
+ */
+public sealed interface DomainEvent {
+
+    /**
+     * A change to the modules or lessons of a course, and so to its outline.
+     */
+    sealed interface CourseStructureChanged extends DomainEvent {
+        String courseId();
+    }
+
+    record LessonCreated(String lessonId, String moduleId, String courseId, String teacherId)
+            implements CourseStructureChanged {
+    }
+
+    record LessonUpdated(String lessonId, String moduleId, String courseId, String teacherId)
+            implements CourseStructureChanged {
+    }
+
+    record LessonPublished(String lessonId, String courseId, String teacherId) implements CourseStructureChanged {
+    }
+
+    record LessonUnpublished(String lessonId, String courseId, String teacherId) implements CourseStructureChanged {
+    }
+
+    record LessonDeleted(String lessonId, String moduleId, String courseId, String teacherId)
+            implements CourseStructureChanged {
+    }
+
+    record ModuleCreated(String moduleId, String courseId, String teacherId) implements CourseStructureChanged {
+    }
+
+    record ModuleUpdated(String moduleId, String courseId, String teacherId) implements CourseStructureChanged {
+    }
+
+    record ModuleDeleted(String moduleId, String courseId, String teacherId) implements CourseStructureChanged {
+    }
+
+    /**
+     * A new enrollment; {@code firstForStudent} when the student had none before.
+     */
+    record EnrollmentCreated(String enrollmentId, String studentId, String courseId, boolean firstForStudent,
+            StudentRollups.Contribution contribution) implements DomainEvent {
+    }
+
+    /**
+     * A progress write to an enrollment, with its rollup contribution before and after.
+     * {@code lessonCompleted} and {@code courseCompleted} are true only when this write
+     * completed them; {@code quizScore} is null when no quiz was scored.
+     */
+    record EnrollmentProgressed(String enrollmentId, String studentId, String courseId, String courseTitle,
+            int totalLessons, String lessonId, String lessonTitle, boolean lessonCompleted, Integer quizScore,
+            boolean courseCompleted, StudentRollups.Contribution before, StudentRollups.Contribution after)
+            implements DomainEvent {
+    }
+
+    /**
+     * A supervisor's decision on a teacher application, with the status and reviewer the
+     * teacher had before it.
+     */
+    sealed interface TeacherReviewed extends DomainEvent {
+        String teacherId();
+
+        String teacherName();
+
+        String supervisorId();
+
+        Teacher.TeacherStatus previousStatus();
+
+        String previousReviewer();
+
+        Teacher.TeacherStatus decision();
+    }
+
+    record TeacherApproved(String teacherId, String teacherName, String supervisorId,
+            Teacher.TeacherStatus previousStatus, String previousReviewer) implements TeacherReviewed {
+
+        @Override
+        public Teacher.TeacherStatus decision() {
+            return Teacher.TeacherStatus.APPROVED;
+        }
+    }
+
+    record TeacherRejected(String teacherId, String teacherName, String supervisorId,
+            Teacher.TeacherStatus previousStatus, String previousReviewer) implements TeacherReviewed {
+
+        @Override
+        public Teacher.TeacherStatus decision() {
+            return Teacher.TeacherStatus.REJECTED;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.qualityeducation.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process bus that takes the fan-out of a write (read models, counters, rollups,
+ * feeds) off the request thread. {@link #publish} claims the next slot of a
+ * preallocated ring with one CAS and stores the event there; a single dispatcher thread
+ * reads the ring in order and hands every {@link DomainEventSubscriber} up to
+ * {@code events.batch-size} events at a time, so subscribers can coalesce work across
+ * a burst of writes.
+ *
+ * A slot is reused only after its event has been delivered to every subscriber. When
+ * publishers get a whole ring ahead of the dispatcher they wait for it to catch up, so
+ * a slow subscriber slows writers down instead of growing memory. On shutdown the ring
+ * stays open while the dispatcher drains it, and is closed only once it is empty. Before
+ * the dispatcher starts, after the ring is closed, and for events published by a
+ * subscriber, delivery happens on the calling thread instead, so no event is ever
+ * delivered concurrently with, or ahead of, the events still in the ring.
+ *
+ * A subscriber that throws gets the same batch again, up to {@code events.max-attempts}
+ * times with a doubling backoff, before the dispatcher moves on.
+ */
+@Component
+@Slf4j
+public class DomainEventBus {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    // Set on the claimed sequence while no dispatcher reads the ring
+    private static final long CLOSED = 1L << 62;
+
+    private final List<DomainEventSubscriber> subscribers;
+    private final Slot[] slots;
+    private final int mask;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffNanos;
+
+    // Next sequence to claim, plus CLOSED; every sequence below dispatched has been delivered
+    private final AtomicLong claimed = new AtomicLong(CLOSED);
+    private volatile long dispatched;
+
+    private volatile boolean running;
+    private volatile boolean dispatcherParked;
+    private volatile Thread dispatcher;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder backpressureWaits = new LongAdder();
+    private final LongAdder retriedDeliveries = new LongAdder();
+    private final LongAdder failedDeliveries = new LongAdder();
+
+    public DomainEventBus(List<DomainEventSubscriber> subscribers,
+            @Value("${events.ring-size:8192}") int ringSize,
+            @Value("${events.batch-size:256}") int batchSize,
+            @Value("${events.max-attempts:3}") int maxAttempts,
+            @Value("${events.retry-backoff-ms:100}") long retryBackoffMillis) {
+        this.subscribers = List.copyOf(subscribers);
+        int capacity = Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, retryBackoffMillis));
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        claimed.set(dispatched);
+        Thread thread = new Thread(this::dispatch, "domain-events");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        Thread thread = dispatcher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+    }
+
+    public void publish(DomainEvent event) {
+        if (event == null) {
+            return;
+        }
+        if (Thread.currentThread() == dispatcher) {
+            published.increment();
+            deliver(List.of(event));
+            return;
+        }
+
+        long sequence;
+        boolean waited = false;
+        while (true) {
+            sequence = claimed.get();
+            if ((sequence & CLOSED) != 0) {
+                published.increment();
+                deliver(List.of(event));
+                return;
+            }
+            if (sequence - dispatched < slots.length) {
+                if (claimed.compareAndSet(sequence, sequence + 1)) {
+                    break;
+                }
+                continue;
+            }
+            // The ring is full: wait for the dispatcher to free a slot
+            if (!waited) {
+                backpressureWaits.increment();
+                waited = true;
+            }
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.event = event;
+        slot.sequence = sequence;
+        published.increment();
+        if (dispatcherParked) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    /**
+     * Events published but not yet delivered to every subscriber.
+     */
+    public long pending() {
+        return (claimed.get() & ~CLOSED) - dispatched;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getBackpressureWaitCount() {
+        return backpressureWaits.sum();
+    }
+
+    public long getRetriedDeliveryCount() {
+        return retriedDeliveries.sum();
+    }
+
+    public long getFailedDeliveryCount() {
+        return failedDeliveries.sum();
+    }
+
+    private void dispatch() {
+        List<DomainEvent> batch = new ArrayList<>(batchSize);
+        long next = dispatched;
+        while (true) {
+            while (batch.size() < batchSize) {
+                Slot slot = slots[(int) (next & mask)];
+                if (slot.sequence != next) {
+                    break;
+                }
+                batch.add(slot.event);
+                slot.event = null;
+                next++;
+            }
+            if (batch.isEmpty()) {
+                // After stop, close the ring only once nothing more has been claimed; a
+                // publisher that claimed first makes the CAS fail and is waited for
+                if (!running && claimed.compareAndSet(next, next | CLOSED)) {
+                    return;
+                }
+                idle(next);
+                continue;
+            }
+            deliver(batch);
+            dispatched = next;
+            batch.clear();
+        }
+    }
+
+    private void idle(long next) {
+        dispatcherParked = true;
+        // A publish between the empty read and setting the flag would not unpark us
+        if (slots[(int) (next & mask)].sequence != next) {
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        dispatcherParked = false;
+    }
+
+    private void deliver(List<DomainEvent> batch) {
+        List<DomainEvent> events = Collections.unmodifiableList(batch);
+        for (DomainEventSubscriber subscriber : subscribers) {
+            deliver(subscriber, events);
+        }
+        delivered.add(batch.size());
+        batches.increment();
+    }
+
+    // Retried in place, so later events never overtake the batch that failed
+    private void deliver(DomainEventSubscriber subscriber, List<DomainEvent> events) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                subscriber.onEvents(events);
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    failedDeliveries.increment();
+                    log.error("{} failed on a batch of {} events {} times, skipping it: {}",
+                            subscriber.getClass().getSimpleName(), events.size(), attempt, e.getMessage());
+                    return;
+                }
+                retriedDeliveries.increment();
+                log.warn("{} failed on a batch of {} events, retrying: {}", subscriber.getClass().getSimpleName(),
+                        events.size(), e.getMessage());
+                LockSupport.parkNanos(this, retryBackoffNanos << (attempt - 1));
+            }
+        }
+    }
+
+    private static final class Slot {
+        volatile long sequence = -1;
+        DomainEvent event;
+    }
+}
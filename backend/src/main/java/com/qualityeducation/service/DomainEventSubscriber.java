@@ -0,0 +1,15 @@
+package com.qualityeducation.service;
+
+import java.util.List;
+
+/**
+ * Receives batches of {@link DomainEvent}s from the {@link DomainEventBus}, in publish
+ * order, on the bus's dispatcher thread. A subscriber picks out the events it cares
+ * about and should coalesce work across the batch, e.g. one rebuild per course however
+ * many of its lessons changed. A batch that throws is delivered again, so handling one
+ * must be safe to repeat; one that keeps failing is logged, counted and skipped.
+ */
+public interface DomainEventSubscriber {
+
+    void onEvents(List<DomainEvent> events);
+}
@@ -0,0 +1,346 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.config.MongoIndexes;
+import com.qualityeducation.model.EmailOutboxMessage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transactional email outbox. {@link #enqueue} only inserts the message into
+ * {@code email_outbox}, so a request that sends mail costs one Mongo write and never
+ * waits on SMTP. A pool of {@code email.outbox.workers} delivery workers drains the
+ * outbox: each claims up to {@code email.outbox.batch-size} due messages and sends them
+ * over a single SMTP connection, then records which were sent. Password-reset tokens are
+ * issued just before sending, so no usable link is ever stored in the outbox.
+ *
+ * A message that fails is retried with exponential backoff, from
+ * {@code email.outbox.retry-base-seconds} up to an hour, and marked failed after
+ * {@code email.outbox.max-attempts}. A claim lapses after
+ * {@code email.outbox.lease-seconds}, so messages held by a worker that died are picked
+ * up again; delivery is at least once.
+ */
+@Component
+@Slf4j
+public class EmailOutbox {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int SENT_RETENTION_DAYS = 7;
+    private static final int FAILED_RETENTION_DAYS = 30;
+    private static final Index STATUS_NEXT_ATTEMPT_INDEX = new Index().on("status", Sort.Direction.ASC)
+            .on("nextAttemptAt", Sort.Direction.ASC).named("status_next_attempt");
+    private static final Index SENT_RETENTION_INDEX = new Index().on("sentAt", Sort.Direction.ASC)
+            .expire(SENT_RETENTION_DAYS, TimeUnit.DAYS).named("sent_retention");
+    private static final Index FAILED_RETENTION_INDEX = new Index().on("failedAt", Sort.Direction.ASC)
+            .expire(FAILED_RETENTION_DAYS, TimeUnit.DAYS).named("failed_retention");
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+    private final JavaMailSender mailSender;
+    private final PasswordResetTokenStore passwordResetTokenStore;
+    private final String from;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBase;
+    private final Duration lease;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicBoolean wakeUp = new AtomicBoolean();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public EmailOutbox(MongoTemplate mongoTemplate, MongoIndexes mongoIndexes, JavaMailSender mailSender,
+            PasswordResetTokenStore passwordResetTokenStore,
+            @Value("${email.outbox.from:${spring.mail.username:}}") String from,
+            @Value("${email.outbox.workers:2}") int workers,
+            @Value("${email.outbox.batch-size:20}") int batchSize,
+            @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${email.outbox.retry-base-seconds:30}") long retryBaseSeconds,
+            @Value("${email.outbox.lease-seconds:300}") long leaseSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoIndexes = mongoIndexes;
+        this.mailSender = mailSender;
+        this.passwordResetTokenStore = passwordResetTokenStore;
+        this.from = from != null && !from.isBlank() ? from : null;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBase = Duration.ofSeconds(Math.max(1, retryBaseSeconds));
+        this.lease = Duration.ofSeconds(Math.max(1, leaseSeconds));
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.workers, this.workers, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "email-outbox-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Writes the message to the outbox and wakes a worker. Returns once the write is
+     * acknowledged; delivery happens in the background.
+     */
+    public void enqueue(SimpleMailMessage message) {
+        enqueue(message, null);
+    }
+
+    /**
+     * Writes a password-reset message whose text holds {@link EmailOutboxMessage#RESET_LINK}
+     * where the link goes; the token is issued when the message is sent.
+     */
+    public void enqueue(SimpleMailMessage message, EmailOutboxMessage.ResetLink resetLink) {
+        mongoIndexes.ensure(EmailOutboxMessage.class,
+                STATUS_NEXT_ATTEMPT_INDEX, SENT_RETENTION_INDEX, FAILED_RETENTION_INDEX);
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.insert(EmailOutboxMessage.builder()
+                .to(message.getTo() != null ? List.of(message.getTo()) : List.of())
+                .subject(message.getSubject())
+                .body(message.getText())
+                .resetLink(resetLink)
+                .status(EmailOutboxMessage.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        enqueued.increment();
+        dispatch();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getRetriedCount() {
+        return retried.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Starts idle workers so retries that have come due and lapsed claims are picked up
+     * even when nothing new is enqueued.
+     */
+    @Scheduled(initialDelayString = "${email.outbox.poll-interval-ms:5000}",
+            fixedDelayString = "${email.outbox.poll-interval-ms:5000}")
+    public void dispatch() {
+        wakeUp.set(true);
+        startWorkers();
+    }
+
+    private void startWorkers() {
+        while (true) {
+            int active = activeWorkers.get();
+            if (active >= workers) {
+                return;
+            }
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (Exception e) {
+                    activeWorkers.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void drain() {
+        boolean drained = false;
+        try {
+            while (!executor.isShutdown()) {
+                wakeUp.set(false);
+                List<EmailOutboxMessage> batch = claim();
+                if (batch.isEmpty()) {
+                    drained = true;
+                    break;
+                }
+                issueResetLinks(batch);
+                complete(batch, deliver(mailSender, from, batch));
+            }
+        } catch (Exception e) {
+            // Claimed messages are retried once their claim lapses
+            log.warn("Email outbox worker stopped: {}", e.getMessage());
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+        // A message enqueued after our last claim, while every worker was busy
+        if (drained && wakeUp.get() && !executor.isShutdown()) {
+            startWorkers();
+        }
+    }
+
+    /**
+     * Claims up to a batch of due messages for this worker: the oldest due ids are read,
+     * then taken with one update that only matches messages still claimable, so two
+     * workers never hold the same message.
+     */
+    private List<EmailOutboxMessage> claim() {
+        mongoIndexes.ensure(EmailOutboxMessage.class,
+                STATUS_NEXT_ATTEMPT_INDEX, SENT_RETENTION_INDEX, FAILED_RETENTION_INDEX);
+        LocalDateTime now = LocalDateTime.now();
+        Criteria due = Criteria.where("status").in(EmailOutboxMessage.Status.PENDING, EmailOutboxMessage.Status.SENDING)
+                .and("nextAttemptAt").lte(now);
+        Query candidates = Query.query(due).with(Sort.by("nextAttemptAt")).limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, EmailOutboxMessage.class).stream()
+                .map(EmailOutboxMessage::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String claimToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids).andOperator(due)), new Update()
+                .set("status", EmailOutboxMessage.Status.SENDING)
+                .set("claimToken", claimToken)
+                .set("nextAttemptAt", now.plus(lease))
+                .inc("attempts", 1), EmailOutboxMessage.class);
+        return mongoTemplate.find(Query.query(Criteria.where("claimToken").is(claimToken)), EmailOutboxMessage.class);
+    }
+
+    /**
+     * Issues a reset token for each password-reset message in the batch and fills its link
+     * into the body in memory only. Issuing replaces any earlier token, so only the link in
+     * the latest attempt works.
+     */
+    private void issueResetLinks(List<EmailOutboxMessage> batch) {
+        for (EmailOutboxMessage message : batch) {
+            EmailOutboxMessage.ResetLink resetLink = message.getResetLink();
+            if (resetLink != null) {
+                String token = passwordResetTokenStore.issue(resetLink.principalType(), resetLink.principalId(),
+                        Duration.ofMinutes(resetLink.validMinutes()));
+                message.setBody(message.getBody().replace(EmailOutboxMessage.RESET_LINK,
+                        resetLink.url() + "?token=" + token));
+            }
+        }
+    }
+
+    /**
+     * Sends the batch over one SMTP connection, from {@code from} when given. Returns the
+     * error for each message that was not accepted, keyed by message id; an empty map
+     * means all were sent.
+     */
+    static Map<String, String> deliver(JavaMailSender mailSender, String from, List<EmailOutboxMessage> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            EmailOutboxMessage outboxMessage = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            if (from != null) {
+                message.setFrom(from);
+            }
+            message.setTo(outboxMessage.getTo().toArray(String[]::new));
+            message.setSubject(outboxMessage.getSubject());
+            message.setText(outboxMessage.getBody());
+            messages[i] = message;
+        }
+
+        Map<String, String> errors = new HashMap<>();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failures = e.getFailedMessages();
+            for (int i = 0; i < messages.length; i++) {
+                // Without per-message detail nothing is known to have been sent
+                Exception failure = failures.isEmpty() ? e : failures.get(messages[i]);
+                if (failure != null) {
+                    errors.put(batch.get(i).getId(), String.valueOf(failure.getMessage()));
+                }
+            }
+        } catch (Exception e) {
+            batch.forEach(message -> errors.put(message.getId(), String.valueOf(e.getMessage())));
+        }
+        return errors;
+    }
+
+    /**
+     * Delay before the next attempt of a message that has been tried {@code attempts}
+     * times: the base delay, doubled for each further attempt, capped at {@code max}.
+     */
+    static Duration backoff(int attempts, Duration base, Duration max) {
+        int doublings = Math.min(Math.max(0, attempts - 1), 30);
+        Duration delay = base.multipliedBy(1L << doublings);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private void complete(List<EmailOutboxMessage> batch, Map<String, String> errors) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmailOutboxMessage.class);
+        for (EmailOutboxMessage message : batch) {
+            // Only while the claim is still ours; a lapsed claim belongs to another worker
+            Query claimed = Query.query(Criteria.where("_id").is(message.getId())
+                    .and("claimToken").is(message.getClaimToken()));
+            String error = errors.get(message.getId());
+            Update update = new Update().unset("claimToken");
+            if (error == null) {
+                update.set("status", EmailOutboxMessage.Status.SENT).set("sentAt", now).unset("lastError");
+                sent.increment();
+            } else if (message.getAttempts() >= maxAttempts) {
+                update.set("status", EmailOutboxMessage.Status.FAILED).set("failedAt", now)
+                        .set("lastError", truncate(error));
+                failed.increment();
+                log.warn("Giving up on email {} to {} after {} attempts: {}", message.getId(), message.getTo(),
+                        message.getAttempts(), error);
+            } else {
+                update.set("status", EmailOutboxMessage.Status.PENDING)
+                        .set("nextAttemptAt", now.plus(backoff(message.getAttempts(), retryBase, MAX_BACKOFF)))
+                        .set("lastError", truncate(error));
+                retried.increment();
+            }
+            bulk.updateOne(claimed, update);
+        }
+        bulk.execute();
+        if (!errors.isEmpty()) {
+            log.warn("Email outbox batch of {}: {} not delivered", batch.size(), errors.size());
+        }
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
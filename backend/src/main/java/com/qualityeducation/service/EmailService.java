@@ -1,17 +1,19 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.model.EmailOutboxMessage;
+import com.qualityeducation.model.PrincipalIdentity.PrincipalType;
 import com.qualityeducation.model.Supervisor;
 import com.qualityeducation.model.Teacher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EmailService {
     
+    // Messages are written to the outbox and delivered in the background
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutbox emailOutbox;
     
     // Generic email sending method
     public void sendEmail(String toEmail, String subject, String body) {
@@ -20,18 +22,20 @@ public class EmailService {
         message.setSubject(subject);
         message.setText(body);
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     // SUPERVISOR EMAIL METHODS
-    public void sendPasswordResetEmail(String toEmail, String resetLink) {
+    // The reset token is issued when the email is sent, valid for 1 hour
+    public void sendPasswordResetEmail(String toEmail, PrincipalType principalType, String principalId) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(toEmail);
         message.setSubject("Password Reset Request");
-        message.setText("To reset your password, click the link below:\n\n" + resetLink + 
+        message.setText("To reset your password, click the link below:\n\n" + EmailOutboxMessage.RESET_LINK + 
                          "\n\nIf you did not request a password reset, please ignore this email.");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message, new EmailOutboxMessage.ResetLink(principalType, principalId,
+                "http://localhost:3000/reset-password", 60));
     }
     
     public void sendSupervisorRegistrationNotification(Supervisor supervisor) {
@@ -46,7 +50,7 @@ public class EmailService {
                         "Specializations: " + String.join(", ", supervisor.getSpecialization()) + "\n\n" +
                         "Please review the application in the admin dashboard.");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     public void sendSupervisorRegistrationConfirmation(String toEmail, String firstName) {
@@ -61,7 +65,7 @@ public class EmailService {
                         "Best regards,\n" +
                         "Quality Education Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     public void sendSupervisorApprovalEmail(String toEmail, String firstName) {
@@ -76,7 +80,7 @@ public class EmailService {
                         "Best regards,\n" +
                         "Quality Education Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     public void sendSupervisorRejectionEmail(String toEmail, String firstName, String reason) {
@@ -92,7 +96,7 @@ public class EmailService {
                         "Best regards,\n" +
                         "Quality Education Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     public void sendSupervisorWelcomeEmail(String toEmail, String firstName) {
@@ -112,7 +116,7 @@ public class EmailService {
                         "Best regards,\n" +
                         "Quality Education Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     // TEACHER EMAIL METHODS
@@ -131,7 +135,7 @@ public class EmailService {
                         "Specializations: " + String.join(", ", teacher.getSpecialization()) + "\n\n" +
                         "Please review the application in the supervisor dashboard.");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     public void sendTeacherRegistrationConfirmation(Teacher teacher) {
@@ -153,7 +157,7 @@ public class EmailService {
                         "Best regards,\n" +
                         "ZorsCode Academy Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     public void sendTeacherApprovalEmail(Teacher teacher) {
@@ -174,7 +178,7 @@ public class EmailService {
                         "Best regards,\n" +
                         "ZorsCode Academy Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     public void sendTeacherRejectionEmail(Teacher teacher, String reason) {
@@ -193,25 +197,26 @@ public class EmailService {
                         "Best regards,\n" +
                         "ZorsCode Academy Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
-    public void sendTeacherPasswordResetEmail(Teacher teacher, String resetToken) {
+    // The reset token is issued when the email is sent, valid for 1 hour
+    public void sendTeacherPasswordResetEmail(Teacher teacher) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(teacher.getEmail());
         message.setSubject("Password Reset Request - ZorsCode Academy");
-        String resetLink = "http://localhost:3000/teacher/reset-password?token=" + resetToken;
         message.setText("Dear " + teacher.getFirstName() + ",\n\n" +
                         "You have requested to reset your password for your ZorsCode Academy teacher account.\n\n" +
                         "Click the link below to reset your password:\n" +
-                        resetLink + "\n\n" +
+                        EmailOutboxMessage.RESET_LINK + "\n\n" +
                         "This link will expire in 1 hour for security purposes.\n\n" +
                         "If you did not request this password reset, please ignore this email and your password will remain unchanged.\n\n" +
                         "For security reasons, please do not share this link with anyone.\n\n" +
                         "Best regards,\n" +
                         "ZorsCode Academy Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message, new EmailOutboxMessage.ResetLink(PrincipalType.TEACHER, teacher.getId(),
+                "http://localhost:3000/teacher/reset-password", 60));
     }
     
     public void sendTeacherWelcomeEmail(Teacher teacher) {
@@ -236,7 +241,7 @@ public class EmailService {
                         "Best regards,\n" +
                         "ZorsCode Academy Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
     
     public void sendTeacherStatusChangeNotification(Teacher teacher, Teacher.TeacherStatus oldStatus, Teacher.TeacherStatus newStatus) {
@@ -260,6 +265,6 @@ public class EmailService {
                         "Best regards,\n" +
                         "ZorsCode Academy Team");
         
-        mailSender.send(message);
+        emailOutbox.enqueue(message);
     }
 }
\ No newline at end of file
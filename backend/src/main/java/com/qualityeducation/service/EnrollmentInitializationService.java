@@ -1,9 +1,10 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.dto.LessonSummaryResponse;
 import com.qualityeducation.model.Course;
+import com.qualityeducation.model.CourseOutline;
 import com.qualityeducation.model.Enrollment;
-import com.qualityeducation.model.Lesson;
-import com.qualityeducation.model.Module;
+import com.qualityeducation.model.LessonProgressEntry;
 import com.qualityeducation.model.User;
 import com.qualityeducation.repository.*;
 import lombok.RequiredArgsConstructor;
@@ -27,8 +28,9 @@ public class EnrollmentInitializationService {
     private final EnrollmentRepository enrollmentRepository;
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
-    private final ModuleRepository moduleRepository;
-    private final LessonRepository lessonRepository;
+    private final LessonProgressRepository lessonProgressRepository;
+    private final CourseOutlineProjector courseOutlineProjector;
+    private final DomainEventBus domainEventBus;
     private final Random random = new Random();
     
     /**
@@ -81,12 +83,13 @@ public class EnrollmentInitializationService {
             return;
         }
         
-        // Get modules and lessons
-        List<Module> modules = moduleRepository.findByCourseIdOrderByOrderAsc(course.getId());
-        List<Lesson> allLessons = new ArrayList<>();
-        for (Module module : modules) {
-            allLessons.addAll(lessonRepository.findByModuleIdOrderByOrderAsc(module.getId()));
-        }
+        // Get lessons in outline order
+        List<LessonSummaryResponse> allLessons = courseOutlineProjector.outline(course.getId())
+                .map(CourseOutline::getModules)
+                .orElse(List.of())
+                .stream()
+                .flatMap(module -> module.getLessons().stream())
+                .toList();
         
         int totalLessons = allLessons.size();
         if (totalLessons == 0) {
@@ -98,11 +101,13 @@ public class EnrollmentInitializationService {
         int completedLessons = random.nextInt(totalLessons + 1);
         int progress = totalLessons > 0 ? (completedLessons * 100 / totalLessons) : 0;
         
-        // Create lesson progress
-        List<Enrollment.LessonProgress> lessonProgressList = new ArrayList<>();
+        // Create lesson progress, compact in the enrollment and detailed in lesson_progress
+        List<LessonProgressEntry> lessonProgressList = new ArrayList<>();
+        byte[] completedSlots = new byte[0];
+        byte[] quizScores = new byte[0];
         for (int i = 0; i < completedLessons && i < allLessons.size(); i++) {
-            Lesson lesson = allLessons.get(i);
-            lessonProgressList.add(Enrollment.LessonProgress.builder()
+            LessonSummaryResponse lesson = allLessons.get(i);
+            LessonProgressEntry entry = LessonProgressEntry.builder()
                     .lessonId(lesson.getId())
                     .completed(true)
                     .progress(100)
@@ -111,13 +116,18 @@ public class EnrollmentInitializationService {
                     .quizScore(random.nextInt(40) + 60) // 60-100
                     .attempts(random.nextInt(3) + 1)
                     .timeSpent(random.nextInt(60) + 15) // 15-75 minutes
-                    .build());
+                    .build();
+            lessonProgressList.add(entry);
+            if (lesson.getSlot() != null) {
+                completedSlots = SlotBits.set(completedSlots, lesson.getSlot());
+                quizScores = SlotBits.withScore(quizScores, lesson.getSlot(), entry.getQuizScore());
+            }
         }
         
         // Create quiz stats
         double averageScore = lessonProgressList.isEmpty() ? 0.0 : 
                 lessonProgressList.stream()
-                        .mapToInt(Enrollment.LessonProgress::getQuizScore)
+                        .mapToInt(LessonProgressEntry::getQuizScore)
                         .average()
                         .orElse(0.0);
         
@@ -126,11 +136,11 @@ public class EnrollmentInitializationService {
                 .completedQuizzes(completedLessons)
                 .averageScore(averageScore)
                 .bestScore(lessonProgressList.stream()
-                        .mapToInt(Enrollment.LessonProgress::getQuizScore)
+                        .mapToInt(LessonProgressEntry::getQuizScore)
                         .max()
                         .orElse(0))
                 .totalAttempts(lessonProgressList.stream()
-                        .mapToInt(Enrollment.LessonProgress::getAttempts)
+                        .mapToInt(LessonProgressEntry::getAttempts)
                         .sum())
                 .build();
         
@@ -155,17 +165,23 @@ public class EnrollmentInitializationService {
                 .completedLessons(completedLessons)
                 .totalLessons(totalLessons)
                 .lastActivity(LocalDateTime.now().minusDays(random.nextInt(7)))
-                .lessonProgress(lessonProgressList)
+                .completedSlots(completedSlots)
+                .quizScores(quizScores)
                 .quizStats(quizStats)
                 .currentStreak(random.nextInt(15))
                 .totalTimeSpent(lessonProgressList.stream()
-                        .mapToInt(Enrollment.LessonProgress::getTimeSpent)
+                        .mapToInt(LessonProgressEntry::getTimeSpent)
                         .sum())
                 .build();
         
         enrollment.updateProgress(); // This will calculate the grade
         
-        enrollmentRepository.save(enrollment);
+        boolean firstForStudent = !enrollmentRepository.existsByStudentId(student.getId());
+        Enrollment saved = enrollmentRepository.save(enrollment);
+        domainEventBus.publish(new DomainEvent.EnrollmentCreated(saved.getId(), saved.getStudentId(),
+                saved.getCourseId(), firstForStudent, StudentRollups.Contribution.of(saved)));
+        lessonProgressList.forEach(entry -> entry.setEnrollmentId(saved.getId()));
+        lessonProgressRepository.saveAll(lessonProgressList);
         log.info("Created enrollment for student {} in course {}", student.getEmail(), course.getTitle());
     }
 }
\ No newline at end of file
@@ -0,0 +1,357 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.config.MongoIndexes;
+import com.qualityeducation.dto.ApiResponse;
+import com.qualityeducation.dto.LessonProgressRequest;
+import com.qualityeducation.dto.LessonSummaryResponse;
+import com.qualityeducation.model.CourseOutline;
+import com.qualityeducation.model.Enrollment;
+import com.qualityeducation.model.LessonProgressEntry;
+import com.qualityeducation.repository.EnrollmentRepository;
+import com.qualityeducation.repository.LessonProgressRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Records lesson progress in the compact enrollment form. The enrollment keeps a
+ * completion bitset and a packed score array indexed by lesson slot, plus the summary
+ * counters, so a progress write touches a few hundred bytes instead of rewriting an
+ * embedded list; the detailed per-lesson history goes to {@code lesson_progress} and is
+ * read only by views that show it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EnrollmentProgressService {
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final int MIGRATION_BATCH_SIZE = 200;
+    // Unique, so concurrent history upserts for the same lesson cannot insert twice
+    private static final Index ENROLLMENT_LESSON_INDEX = new Index().on("enrollmentId", Sort.Direction.ASC)
+            .on("lessonId", Sort.Direction.ASC).unique().named("enrollment_lesson");
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+    private final EnrollmentRepository enrollmentRepository;
+    private final LessonProgressRepository lessonProgressRepository;
+    private final CourseOutlineProjector courseOutlineProjector;
+    private final StudentRollups studentRollups;
+    private final DomainEventBus domainEventBus;
+
+    public ApiResponse<String> recordLessonProgress(String studentId, String courseId, String lessonId,
+            LessonProgressRequest request) {
+        try {
+            Integer progress = request.getProgress();
+            Integer quizScore = request.getQuizScore();
+            if ((progress != null && (progress < 0 || progress > 100))
+                    || (quizScore != null && (quizScore < 0 || quizScore > 100))) {
+                return ApiResponse.error("Progress and quiz score must be between 0 and 100");
+            }
+            boolean completed = Boolean.TRUE.equals(request.getCompleted()) || (progress != null && progress == 100);
+            int timeSpent = request.getTimeSpent() != null ? Math.max(0, request.getTimeSpent()) : 0;
+
+            Optional<Enrollment> enrollmentOpt = enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId);
+            if (enrollmentOpt.isEmpty()) {
+                return ApiResponse.error("Student is not enrolled in this course");
+            }
+            Optional<CourseOutline> outlineOpt = courseOutlineProjector.outline(courseId);
+            if (outlineOpt.isEmpty()) {
+                return ApiResponse.error("Course not found");
+            }
+            CourseOutline outline = outlineOpt.get();
+            Integer slot = slotOf(outline, lessonId);
+            if (slot == null) {
+                return ApiResponse.error("Lesson not found in this course");
+            }
+
+            Enrollment enrollment = enrollmentOpt.get();
+            mongoIndexes.ensure(LessonProgressEntry.class, ENROLLMENT_LESSON_INDEX);
+            migrateLegacyProgress(enrollment, outline);
+            recordHistory(enrollment.getId(), lessonId, progress, completed, quizScore, timeSpent);
+
+            for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+                if (attempt > 0) {
+                    enrollment = readCompact(enrollment.getId());
+                    if (enrollment == null) {
+                        return ApiResponse.error("Student is not enrolled in this course");
+                    }
+                }
+                if (writeCompact(enrollment, outline, lessonId, slot, completed, quizScore, timeSpent)) {
+                    return ApiResponse.success("Progress recorded successfully");
+                }
+            }
+            return ApiResponse.error("Progress was updated concurrently, please retry");
+
+        } catch (Exception e) {
+            log.error("Failed to record progress for student {} lesson {}: {}", studentId, lessonId, e.getMessage(), e);
+            return ApiResponse.error("Failed to record progress", e.getMessage());
+        }
+    }
+
+    /**
+     * Per-lesson history for the enrollments in one query, keyed by enrollment id and
+     * then lesson id.
+     */
+    public Map<String, Map<String, LessonProgressEntry>> history(Collection<String> enrollmentIds) {
+        mongoIndexes.ensure(LessonProgressEntry.class, ENROLLMENT_LESSON_INDEX);
+        Map<String, Map<String, LessonProgressEntry>> history = new HashMap<>();
+        for (LessonProgressEntry entry : lessonProgressRepository.findByEnrollmentIdIn(enrollmentIds)) {
+            history.computeIfAbsent(entry.getEnrollmentId(), id -> new HashMap<>()).put(entry.getLessonId(), entry);
+        }
+        return history;
+    }
+
+    /**
+     * Migrates every enrollment that still embeds its lesson progress, a batch at a
+     * time. Enrollments whose course no longer exists are left as they are. Returns the
+     * number migrated.
+     */
+    public int migrateAllLegacyProgress() {
+        mongoIndexes.ensure(LessonProgressEntry.class, ENROLLMENT_LESSON_INDEX);
+        Set<String> skipped = new HashSet<>();
+        int migrated = 0;
+        while (true) {
+            Query query = Query.query(Criteria.where("lessonProgress").exists(true).and("_id").nin(skipped))
+                    .limit(MIGRATION_BATCH_SIZE);
+            List<Enrollment> batch = mongoTemplate.find(query, Enrollment.class);
+            if (batch.isEmpty()) {
+                log.info("Migrated embedded lesson progress of {} enrollments, skipped {}", migrated, skipped.size());
+                return migrated;
+            }
+            Map<String, CourseOutline> outlines = courseOutlineProjector.outlines(
+                    batch.stream().map(Enrollment::getCourseId).distinct().toList());
+            for (Enrollment enrollment : batch) {
+                CourseOutline outline = outlines.get(enrollment.getCourseId());
+                if (outline != null && migrateLegacyProgress(enrollment, outline)) {
+                    migrated++;
+                } else if (outline == null) {
+                    skipped.add(enrollment.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves an older enrollment's embedded history into {@code lesson_progress} and
+     * folds it into the bitset and score array. Does nothing for compact enrollments.
+     * Returns whether this call migrated it.
+     */
+    public boolean migrateLegacyProgress(Enrollment enrollment, CourseOutline outline) {
+        List<Enrollment.LessonProgress> legacy = enrollment.getLessonProgress();
+        if (legacy == null) {
+            return false;
+        }
+
+        Map<String, Integer> slots = slotsByLesson(outline);
+        byte[] completedSlots = enrollment.getCompletedSlots();
+        byte[] quizScores = enrollment.getQuizScores();
+        if (!legacy.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LessonProgressEntry.class);
+            for (Enrollment.LessonProgress lp : legacy) {
+                Integer slot = slots.get(lp.getLessonId());
+                if (slot != null && lp.isCompleted()) {
+                    completedSlots = SlotBits.set(completedSlots, slot);
+                }
+                if (slot != null && lp.getQuizScore() > 0) {
+                    quizScores = SlotBits.withScore(quizScores, slot, Math.min(lp.getQuizScore(), 100));
+                }
+                bulk.upsert(historyQuery(enrollment.getId(), lp.getLessonId()), new Update()
+                        .set("completed", lp.isCompleted())
+                        .set("progress", lp.getProgress())
+                        .set("startedAt", lp.getStartedAt())
+                        .set("completedAt", lp.getCompletedAt())
+                        .set("quizScore", lp.getQuizScore())
+                        .set("attempts", lp.getAttempts())
+                        .set("timeSpent", lp.getTimeSpent()));
+            }
+            bulk.execute();
+        }
+
+        Query query = Query.query(Criteria.where("_id").is(enrollment.getId()).and("lessonProgress").exists(true));
+        Update update = new Update()
+                .set("completedSlots", completedSlots)
+                .set("quizScores", quizScores)
+                .unset("lessonProgress")
+                .inc("progressVersion", 1);
+        boolean migrated = mongoTemplate.updateFirst(query, update, Enrollment.class).getModifiedCount() > 0;
+
+        StudentRollups.Contribution before = StudentRollups.Contribution.of(enrollment);
+        enrollment.setCompletedSlots(completedSlots);
+        enrollment.setQuizScores(quizScores);
+        enrollment.setLessonProgress(null);
+        enrollment.setProgressVersion(enrollment.getProgressVersion() + 1);
+        if (migrated) {
+            // The migrated quiz scores now count towards the student's rollup
+            studentRollups.enrollmentChanged(enrollment.getStudentId(), enrollment.getId(), before,
+                    StudentRollups.Contribution.of(enrollment));
+            log.debug("Migrated {} embedded lesson progress entries of enrollment {}", legacy.size(), enrollment.getId());
+        }
+        return migrated;
+    }
+
+    /**
+     * Slots of the lessons the course still has; AND it with an enrollment's bitset to
+     * ignore progress on deleted lessons.
+     */
+    public static byte[] liveSlots(CourseOutline outline) {
+        return SlotBits.of(slotsByLesson(outline).values());
+    }
+
+    private boolean writeCompact(Enrollment enrollment, CourseOutline outline, String lessonId, int slot,
+            boolean completed, Integer quizScore, int timeSpent) {
+        byte[] completedSlots = completed
+                ? SlotBits.set(enrollment.getCompletedSlots(), slot)
+                : enrollment.getCompletedSlots();
+        byte[] quizScores = quizScore != null
+                ? SlotBits.withScore(enrollment.getQuizScores(), slot, quizScore)
+                : enrollment.getQuizScores();
+
+        byte[] live = liveSlots(outline);
+        Enrollment.QuizStats quizStats = quizStats(outline, quizScores, enrollment.getQuizStats(), quizScore != null);
+
+        // Derive progress, status and grade the same way the model does
+        Enrollment derived = Enrollment.builder()
+                .completedLessons(SlotBits.andCardinality(completedSlots, live))
+                .totalLessons(outline.getTotalLessons())
+                .status(enrollment.getStatus())
+                .grade(enrollment.getGrade())
+                .completedDate(enrollment.getCompletedDate())
+                .quizStats(quizStats)
+                .quizScores(quizScores)
+                .totalTimeSpent(enrollment.getTotalTimeSpent() + timeSpent)
+                .currentStreak(enrollment.getCurrentStreak())
+                .progressVersion(enrollment.getProgressVersion() + 1)
+                .build();
+        derived.updateProgress();
+
+        Criteria version = enrollment.getProgressVersion() == 0
+                ? new Criteria().orOperator(Criteria.where("progressVersion").is(0L),
+                        Criteria.where("progressVersion").exists(false))
+                : Criteria.where("progressVersion").is(enrollment.getProgressVersion());
+        Query query = Query.query(new Criteria().andOperator(Criteria.where("_id").is(enrollment.getId()), version));
+
+        Update update = new Update()
+                .set("completedSlots", completedSlots)
+                .set("quizScores", quizScores)
+                .set("completedLessons", derived.getCompletedLessons())
+                .set("totalLessons", derived.getTotalLessons())
+                .set("progress", derived.getProgress())
+                .set("status", derived.getStatus())
+                .set("grade", derived.getGrade())
+                .set("completedDate", derived.getCompletedDate())
+                .set("quizStats", quizStats)
+                .set("lastActivity", LocalDateTime.now())
+                .inc("totalTimeSpent", timeSpent)
+                .inc("progressVersion", 1);
+        if (mongoTemplate.updateFirst(query, update, Enrollment.class).getModifiedCount() == 0) {
+            return false;
+        }
+        // The version check makes the read state exactly what this write replaced, so
+        // the event's before and after figures and completion flags are exact
+        String lessonTitle = lessons(outline).stream()
+                .filter(lesson -> lessonId.equals(lesson.getId()))
+                .map(LessonSummaryResponse::getTitle)
+                .findFirst()
+                .orElse("Lesson");
+        domainEventBus.publish(new DomainEvent.EnrollmentProgressed(enrollment.getId(), enrollment.getStudentId(),
+                outline.getCourseId(), outline.getTitle(), outline.getTotalLessons(), lessonId, lessonTitle,
+                completed && !SlotBits.isSet(enrollment.getCompletedSlots(), slot), quizScore,
+                !"completed".equals(enrollment.getStatus()) && "completed".equals(derived.getStatus()),
+                StudentRollups.Contribution.of(enrollment), StudentRollups.Contribution.of(derived)));
+        return true;
+    }
+
+    private Enrollment readCompact(String enrollmentId) {
+        Query query = Query.query(Criteria.where("_id").is(enrollmentId));
+        query.fields().include("studentId", "completedSlots", "quizScores", "progressVersion", "quizStats", "status",
+                "grade", "completedDate", "completedLessons", "totalLessons", "totalTimeSpent", "currentStreak");
+        return mongoTemplate.findOne(query, Enrollment.class);
+    }
+
+    private void recordHistory(String enrollmentId, String lessonId, Integer progress, boolean completed,
+            Integer quizScore, int timeSpent) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .setOnInsert("enrollmentId", enrollmentId)
+                .setOnInsert("lessonId", lessonId)
+                .min("startedAt", now)
+                .inc("timeSpent", timeSpent);
+        if (completed) {
+            update.set("completed", true).max("progress", 100).min("completedAt", now);
+        } else if (progress != null) {
+            update.max("progress", progress);
+        }
+        if (quizScore != null) {
+            update.set("quizScore", quizScore).inc("attempts", 1);
+        }
+        mongoTemplate.upsert(historyQuery(enrollmentId, lessonId), update, LessonProgressEntry.class);
+    }
+
+    private static Query historyQuery(String enrollmentId, String lessonId) {
+        return Query.query(Criteria.where("enrollmentId").is(enrollmentId).and("lessonId").is(lessonId));
+    }
+
+    private static Enrollment.QuizStats quizStats(CourseOutline outline, byte[] quizScores,
+            Enrollment.QuizStats previous, boolean attempted) {
+        int totalQuizzes = 0;
+        int completedQuizzes = 0;
+        int scoreSum = 0;
+        int bestScore = 0;
+        for (LessonSummaryResponse lesson : lessons(outline)) {
+            if (lesson.getQuizCount() != null && lesson.getQuizCount() > 0) {
+                totalQuizzes++;
+            }
+            int score = lesson.getSlot() != null ? SlotBits.score(quizScores, lesson.getSlot()) : -1;
+            if (score >= 0) {
+                completedQuizzes++;
+                scoreSum += score;
+                bestScore = Math.max(bestScore, score);
+            }
+        }
+        int attempts = (previous != null ? previous.getTotalAttempts() : 0) + (attempted ? 1 : 0);
+        return Enrollment.QuizStats.builder()
+                .totalQuizzes(Math.max(totalQuizzes, completedQuizzes))
+                .completedQuizzes(completedQuizzes)
+                .averageScore(completedQuizzes > 0 ? (double) scoreSum / completedQuizzes : 0.0)
+                .bestScore(bestScore)
+                .totalAttempts(attempts)
+                .build();
+    }
+
+    private static Integer slotOf(CourseOutline outline, String lessonId) {
+        return slotsByLesson(outline).get(lessonId);
+    }
+
+    private static Map<String, Integer> slotsByLesson(CourseOutline outline) {
+        Map<String, Integer> slots = new HashMap<>();
+        for (LessonSummaryResponse lesson : lessons(outline)) {
+            if (lesson.getSlot() != null) {
+                slots.put(lesson.getId(), lesson.getSlot());
+            }
+        }
+        return slots;
+    }
+
+    private static List<LessonSummaryResponse> lessons(CourseOutline outline) {
+        return outline.getModules().stream()
+                .flatMap(module -> module.getLessons().stream())
+                .toList();
+    }
+}
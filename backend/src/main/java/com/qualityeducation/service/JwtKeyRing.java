@@ -0,0 +1,214 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.config.MongoIndexes;
+import com.qualityeducation.model.JwtSigningKey;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the HMAC keys used to sign and verify JWTs, indexed by key id ({@code kid}).
+ *
+ * The key configured as {@code jwt.secret} / {@code jwt.key-id} and the verify-only keys
+ * in {@code jwt.previous-keys} ({@code id:secret,...}) are always present. On top of
+ * them, keys stored in {@code jwt_keys} are reloaded every
+ * {@code jwt.keys.reload-interval-ms}, so a key added by {@link #rotate()} on any
+ * instance reaches all of them without a restart. The newest stored key whose
+ * activation time has passed signs, and the configured key signs until there is one.
+ *
+ * A rotated key activates two reload intervals after it is written, so every instance
+ * can verify it before any instance signs with it. The key it replaces keeps verifying
+ * until the last access token it signed has expired.
+ *
+ * Each reload swaps in an immutable key set; keys already loaded are reused, and the
+ * parser is built once, so signing and verifying do not allocate them per call.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    private static final Index RETIREMENT_INDEX = new Index().on("retiresAt", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+    private final String legacyKeyId;
+    private final Map<String, SigningKey> configuredKeys = new HashMap<>();
+    private final SigningKey configuredKey;
+    private final long activationDelayMillis;
+    private final long accessTokenLifetimeMillis;
+    private final JwtParser parser;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private volatile KeySet keySet;
+
+    private record KeySet(Map<String, SigningKey> keys, SigningKey active) {
+    }
+
+    public JwtKeyRing(MongoTemplate mongoTemplate, MongoIndexes mongoIndexes,
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.key-id:primary}") String keyId,
+            @Value("${jwt.previous-keys:}") String previousKeys,
+            @Value("${jwt.keys.reload-interval-ms:60000}") long reloadIntervalMillis,
+            @Value("${jwt.expiration}") long accessTokenLifetimeMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoIndexes = mongoIndexes;
+        this.legacyKeyId = keyId;
+        this.configuredKey = new SigningKey(keyId, hmacKey(keyId, secret));
+        this.configuredKeys.put(keyId, configuredKey);
+        this.activationDelayMillis = 2 * reloadIntervalMillis;
+        this.accessTokenLifetimeMillis = accessTokenLifetimeMillis;
+
+        for (String entry : previousKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("jwt.previous-keys entries must be id:secret");
+            }
+            String previousId = entry.substring(0, separator).trim();
+            if (configuredKeys.containsKey(previousId)) {
+                throw new IllegalArgumentException("JWT key id configured twice: " + previousId);
+            }
+            configuredKeys.put(previousId,
+                    new SigningKey(previousId, hmacKey(previousId, entry.substring(separator + 1).trim())));
+        }
+        this.keySet = new KeySet(Map.copyOf(configuredKeys), configuredKey);
+
+        // JwtParser is immutable and thread-safe; the resolver picks the key from the kid header
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyIdResolver())
+                .build();
+    }
+
+    public SigningKey activeKey() {
+        return keySet.active();
+    }
+
+    public JwtParser parser() {
+        return parser;
+    }
+
+    public boolean canVerify(String keyId) {
+        return keySet.keys().containsKey(keyId != null ? keyId : legacyKeyId);
+    }
+
+    /**
+     * Reloads the stored keys. Runs once right after startup and then on every interval;
+     * until the first reload, the configured keys sign and verify.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${jwt.keys.reload-interval-ms:60000}")
+    public void reload() {
+        try {
+            mongoIndexes.ensure(JwtSigningKey.class, RETIREMENT_INDEX);
+            apply(mongoTemplate.findAll(JwtSigningKey.class), new Date());
+        } catch (Exception e) {
+            // Keep the current keys; the next reload tries again
+            log.warn("Failed to reload JWT keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a new random signing key that activates once every instance has loaded it,
+     * and retires the keys it replaces after the access tokens they signed expire.
+     *
+     * @return the new key id
+     */
+    public String rotate() {
+        mongoIndexes.ensure(JwtSigningKey.class, RETIREMENT_INDEX);
+        Date activatesAt = new Date(System.currentTimeMillis() + activationDelayMillis);
+        mongoTemplate.updateMulti(Query.query(Criteria.where("retiresAt").is(null)),
+                Update.update("retiresAt", new Date(activatesAt.getTime() + accessTokenLifetimeMillis)),
+                JwtSigningKey.class);
+
+        byte[] secret = new byte[48];
+        secureRandom.nextBytes(secret);
+        String keyId = UUID.randomUUID().toString();
+        mongoTemplate.insert(JwtSigningKey.builder()
+                .id(keyId)
+                .secret(Base64.getUrlEncoder().withoutPadding().encodeToString(secret))
+                .activatesAt(activatesAt)
+                .build());
+        reload();
+        log.info("Added JWT signing key {}, active from {}", keyId, activatesAt);
+        return keyId;
+    }
+
+    /**
+     * Replaces the key set with the configured keys plus the stored keys that have not
+     * retired at {@code now}. Keys already loaded are kept as they are.
+     */
+    void apply(List<JwtSigningKey> stored, Date now) {
+        Map<String, SigningKey> current = keySet.keys();
+        Map<String, SigningKey> keys = new HashMap<>(configuredKeys);
+        JwtSigningKey newest = null;
+        for (JwtSigningKey key : stored) {
+            if (configuredKeys.containsKey(key.getId())
+                    || (key.getRetiresAt() != null && !key.getRetiresAt().after(now))) {
+                continue;
+            }
+            SigningKey loaded = current.get(key.getId());
+            keys.put(key.getId(), loaded != null ? loaded : new SigningKey(key.getId(), hmacKey(key.getId(), key.getSecret())));
+            if (key.getActivatesAt() != null && !key.getActivatesAt().after(now)
+                    && (newest == null || key.getActivatesAt().after(newest.getActivatesAt()))) {
+                newest = key;
+            }
+        }
+
+        SigningKey active = newest != null ? keys.get(newest.getId()) : configuredKey;
+        if (active != keySet.active()) {
+            log.info("JWT signing with key {}, verifying {} key(s)", active.id(), keys.size());
+        }
+        keySet = new KeySet(Map.copyOf(keys), active);
+    }
+
+    private static Key hmacKey(String keyId, String secret) {
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        // Ensure the key is at least 256 bits (32 bytes) for HS256
+        if (keyBytes.length < 32) {
+            log.warn("JWT secret for key {} is shorter than recommended 256 bits. Consider using a longer key.", keyId);
+        }
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+
+    public record SigningKey(String id, Key key) {
+    }
+
+    private class KeyIdResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            // Tokens issued before the key ring existed carry no kid
+            String keyId = header.getKeyId() != null ? header.getKeyId() : legacyKeyId;
+            SigningKey key = keySet.keys().get(keyId);
+            if (key == null) {
+                throw new SignatureException("Unknown or retired JWT key id: " + keyId);
+            }
+            return key.key();
+        }
+    }
+}
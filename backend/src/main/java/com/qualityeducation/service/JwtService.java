@@ -1,5 +1,6 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.config.JwtPrincipal;
 import com.qualityeducation.model.User;
 import com.qualityeducation.model.Supervisor;
 import com.qualityeducation.model.Teacher;
@@ -10,37 +11,30 @@ import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    static final String SESSION_CLAIM = "sid";
+
+    private final JwtKeyRing keyRing;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        // Ensure the key is at least 256 bits (32 bytes) for HS256
-        if (keyBytes.length < 32) {
-            log.warn("JWT secret key is shorter than recommended 256 bits. Consider using a longer key.");
-        }
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     public String extractUsername(String token) {
         try {
             return extractClaim(token, Claims::getSubject);
@@ -59,11 +53,27 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifies the token once and captures every claim the request path needs.
+     */
+    public JwtPrincipal parsePrincipal(String token) {
+        Claims claims = extractAllClaims(token);
+        String userType = claims.get("userType", String.class);
+        return JwtPrincipal.builder()
+                .email(claims.getSubject())
+                .userType(userType != null ? userType : "student")
+                .userId(claims.get("userId", String.class))
+                .teacherId(claims.get("teacherId", String.class))
+                .supervisorId(claims.get("supervisorId", String.class))
+                .tokenId(claims.getId())
+                .sessionId(claims.get(SESSION_CLAIM, String.class))
+                .expiresAtMillis(claims.getExpiration().getTime())
+                .build();
+    }
+
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
+            return keyRing.parser()
                     .parseClaimsJws(token)
                     .getBody();
         } catch (SignatureException e) {
@@ -106,33 +116,46 @@ public class JwtService {
 
     // Original method for User (keep this unchanged)
     public String generateToken(User user) {
+        return generateToken(user, null);
+    }
+
+    // Access token bound to a refresh session, so revoking the session revokes it too
+    public String generateToken(User user, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", user.getId());
         claims.put("username", user.getUsername());
         claims.put("userType", "student"); // Add user type for differentiation
-        return createToken(claims, user.getEmail());
+        return createToken(claims, user.getEmail(), sessionId);
     }
 
     // Method for Supervisor
     public String generateToken(Supervisor supervisor) {
+        return generateToken(supervisor, null);
+    }
+
+    public String generateToken(Supervisor supervisor, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("firstName", supervisor.getFirstName());
         claims.put("lastName", supervisor.getLastName());
         claims.put("userType", "supervisor");
         claims.put("supervisorId", supervisor.getId());
 
-        return createToken(claims, supervisor.getEmail());
+        return createToken(claims, supervisor.getEmail(), sessionId);
     }
 
     // Method for Teacher
     public String generateToken(Teacher teacher) {
+        return generateToken(teacher, null);
+    }
+
+    public String generateToken(Teacher teacher, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("firstName", teacher.getFirstName());
         claims.put("lastName", teacher.getLastName());
         claims.put("userType", "teacher");
         claims.put("teacherId", teacher.getId());
 
-        return createToken(claims, teacher.getEmail());
+        return createToken(claims, teacher.getEmail(), sessionId);
     }
 
     // Alternative method using email string (for backward compatibility)
@@ -140,24 +163,31 @@ public class JwtService {
         Map<String, Object> claims = new HashMap<>();
         claims.put("supervisorId", supervisorId);
         claims.put("userType", "supervisor");
-        return createToken(claims, email);
+        return createToken(claims, email, null);
     }
 
     // Method to generate token with email and role
     public String generateToken(String email, String role) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
-        return createToken(claims, email);
+        return createToken(claims, email, null);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, String sessionId) {
         try {
+            if (sessionId != null) {
+                claims.put(SESSION_CLAIM, sessionId);
+            }
+            JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
+            long now = System.currentTimeMillis();
             return Jwts.builder()
+                    .setHeaderParam("kid", signingKey.id())
                     .setClaims(claims)
                     .setSubject(subject)
-                    .setIssuedAt(new Date(System.currentTimeMillis()))
-                    .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                    .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                    .setId(UUID.randomUUID().toString())
+                    .setIssuedAt(new Date(now))
+                    .setExpiration(new Date(now + jwtExpiration))
+                    .signWith(signingKey.key(), SignatureAlgorithm.HS256)
                     .compact();
         } catch (Exception e) {
             log.error("Error creating JWT token: {}", e.getMessage());
@@ -165,6 +195,14 @@ public class JwtService {
         }
     }
 
+    /**
+     * Adds a new signing key shared by every instance. Tokens signed with the previous
+     * key stay valid until they expire.
+     */
+    public String rotateSigningKey() {
+        return keyRing.rotate();
+    }
+
     public Boolean validateToken(String token, String userEmail) {
         try {
             final String username = extractUsername(token);
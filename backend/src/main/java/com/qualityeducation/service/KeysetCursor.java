@@ -0,0 +1,156 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.dto.CursorPage;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Opaque cursors for keyset pagination. A cursor carries the sort-key values and id of
+ * the last item on a page, so the next page is read with a range condition on an index
+ * instead of skipping everything before it; fetching page 500 costs the same as page 1.
+ * Clients pass the cursor back verbatim and must not depend on its layout.
+ */
+public final class KeysetCursor {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte DATE = 5;
+    private static final byte LOCAL_DATE_TIME = 6;
+    private static final byte OBJECT_ID = 7;
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * True when the caller asked for a page rather than the legacy full list.
+     */
+    public static boolean isPaged(String cursor, Integer limit) {
+        return cursor != null || limit != null;
+    }
+
+    public static Limit limit(Integer requested) {
+        if (requested == null) {
+            return Limit.of(DEFAULT_LIMIT);
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        return Limit.of(Math.min(requested, MAX_LIMIT));
+    }
+
+    /**
+     * Position to resume from; the start of the list when no cursor is given.
+     */
+    public static KeysetScrollPosition position(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        return ScrollPosition.forward(decode(cursor));
+    }
+
+    public static <S, T> CursorPage<T> page(Window<S> window, Limit limit, Function<S, T> mapper) {
+        String next = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            next = encode(((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys());
+        }
+        return new CursorPage<>(window.getContent().stream().map(mapper).toList(), next, limit.max());
+    }
+
+    public static String encode(Map<String, ?> keys) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(keys.size());
+            for (Map.Entry<String, ?> entry : keys.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    public static Map<String, Object> decode(String cursor) {
+        try {
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)));
+            int size = in.readUnsignedByte();
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                keys.put(in.readUTF(), readValue(in));
+            }
+            if (in.available() > 0) {
+                throw new IOException("Trailing bytes");
+            }
+            return keys;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            out.writeUTF(s);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INT);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof Date d) {
+            out.writeByte(DATE);
+            out.writeLong(d.getTime());
+        } else if (value instanceof LocalDateTime t) {
+            out.writeByte(LOCAL_DATE_TIME);
+            out.writeUTF(t.toString());
+        } else if (value instanceof ObjectId id) {
+            out.writeByte(OBJECT_ID);
+            out.writeUTF(id.toHexString());
+        } else {
+            throw new IllegalArgumentException("Unsupported cursor key type: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case NULL -> null;
+            case STRING -> in.readUTF();
+            case INT -> in.readInt();
+            case LONG -> in.readLong();
+            case DOUBLE -> in.readDouble();
+            case DATE -> new Date(in.readLong());
+            case LOCAL_DATE_TIME -> LocalDateTime.parse(in.readUTF());
+            case OBJECT_ID -> new ObjectId(in.readUTF());
+            default -> throw new IOException("Unknown cursor key type " + type);
+        };
+    }
+}
@@ -0,0 +1,296 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.model.Lesson;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over lesson title, tags, description and transcript, ranked
+ * with BM25 using per-field weights. {@link LessonService} keeps it current as lessons
+ * are created, updated and deleted. The first search loads every lesson, and a periodic
+ * rebuild picks up changes made by other instances.
+ *
+ * The last query word also matches as a prefix, at a discount, so partial words typed
+ * into a search box still find lessons.
+ */
+@Component
+@Slf4j
+public class LessonSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float TAGS_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.5f;
+    private static final float TRANSCRIPT_WEIGHT = 1.0f;
+    private static final float PREFIX_DISCOUNT = 0.8f;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment segment = new Segment();
+    private boolean loaded;
+    // Writes made while a rebuild is loading, replayed onto the rebuilt segment
+    private List<Object> replay;
+
+    public LessonSearchIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public record Hit(String lessonId, double score) {
+    }
+
+    /**
+     * Best-scoring lessons for the query, optionally restricted to a course and language.
+     */
+    public List<Hit> search(String query, String courseId, TextAnalyzer.Language language, int limit) {
+        ensureLoaded();
+        List<String> terms = TextAnalyzer.analyze(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        String lastToken = lastToken(query);
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = new HashMap<>();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                boolean last = i == terms.size() - 1;
+                Map<String, Double> termScores = new HashMap<>();
+                segment.score(term, 1.0f, courseId, language, termScores);
+                if (last && lastToken != null && lastToken.length() >= MIN_PREFIX_LENGTH) {
+                    // Score each document by its best expansion, so one word is not counted twice
+                    segment.terms(term).stream()
+                            .filter(expansion -> !expansion.equals(term))
+                            .limit(MAX_PREFIX_EXPANSIONS)
+                            .forEach(expansion -> segment.score(expansion, PREFIX_DISCOUNT, courseId, language, termScores));
+                }
+                termScores.forEach((id, score) -> scores.merge(id, score, Double::sum));
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+            scores.forEach((id, score) -> {
+                top.offer(new Hit(id, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Lesson lesson) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return; // the initial load will read it
+            }
+            segment.put(lesson);
+            if (replay != null) {
+                replay.add(lesson);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String lessonId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            segment.remove(lessonId);
+            if (replay != null) {
+                replay.add(lessonId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${search.lessons.rebuild-interval-ms:900000}",
+            fixedDelayString = "${search.lessons.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (!loaded || replay != null) {
+                return;
+            }
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment rebuilt = null;
+        try {
+            rebuilt = load();
+        } catch (Exception e) {
+            log.warn("Failed to rebuild lesson search index: {}", e.getMessage());
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (rebuilt != null) {
+                for (Object write : replay) {
+                    if (write instanceof Lesson lesson) {
+                        rebuilt.put(lesson);
+                    } else {
+                        rebuilt.remove((String) write);
+                    }
+                }
+                segment = rebuilt;
+                log.debug("Rebuilt lesson search index with {} lessons", rebuilt.docs.size());
+            }
+            replay = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Writers wait for the load, then apply on top of it, so nothing saved meanwhile is lost
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                segment = load();
+                loaded = true;
+                log.info("Loaded lesson search index with {} lessons", segment.docs.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Segment load() {
+        Query query = new Query();
+        query.fields().include("courseId", "language", "title", "description", "tags", "transcript");
+        Segment loading = new Segment();
+        try (Stream<Lesson> lessons = mongoTemplate.stream(query, Lesson.class)) {
+            lessons.forEach(loading::put);
+        }
+        return loading;
+    }
+
+    private static String lastToken(String query) {
+        String[] parts = query.trim().split("[^\\p{L}\\p{M}\\p{N}]+");
+        return parts.length == 0 ? null : parts[parts.length - 1];
+    }
+
+    private record Doc(String courseId, TextAnalyzer.Language language, float length, Map<String, Float> terms) {
+    }
+
+    private static final class Segment {
+        // term -> lesson id -> field-weighted term frequency
+        final TreeMap<String, Map<String, Float>> postings = new TreeMap<>();
+        final Map<String, Doc> docs = new HashMap<>();
+        double totalLength;
+
+        void put(Lesson lesson) {
+            remove(lesson.getId());
+
+            Map<String, Float> terms = new HashMap<>();
+            float length = 0;
+            length += add(terms, TextAnalyzer.analyze(lesson.getTitle()), TITLE_WEIGHT);
+            if (lesson.getTags() != null) {
+                length += add(terms, TextAnalyzer.analyze(String.join(" ", lesson.getTags())), TAGS_WEIGHT);
+            }
+            length += add(terms, TextAnalyzer.analyze(lesson.getDescription()), DESCRIPTION_WEIGHT);
+            length += add(terms, TextAnalyzer.analyze(lesson.getTranscript()), TRANSCRIPT_WEIGHT);
+
+            docs.put(lesson.getId(), new Doc(lesson.getCourseId(),
+                    TextAnalyzer.Language.of(lesson.getLanguage()), length, terms));
+            totalLength += length;
+            terms.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(lesson.getId(), tf));
+        }
+
+        void remove(String lessonId) {
+            Doc doc = docs.remove(lessonId);
+            if (doc == null) {
+                return;
+            }
+            totalLength -= doc.length();
+            for (String term : doc.terms().keySet()) {
+                Map<String, Float> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(lessonId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        List<String> terms(String prefix) {
+            NavigableMap<String, Map<String, Float>> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+            return new ArrayList<>(range.keySet());
+        }
+
+        void score(String term, float weight, String courseId, TextAnalyzer.Language language,
+                Map<String, Double> out) {
+            Map<String, Float> posting = postings.get(term);
+            if (posting == null) {
+                return;
+            }
+            int n = docs.size();
+            double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+            double averageLength = n == 0 ? 1 : Math.max(totalLength / n, 1e-6);
+            posting.forEach((id, tf) -> {
+                Doc doc = docs.get(id);
+                if ((courseId != null && !courseId.equals(doc.courseId()))
+                        || (language != null && language != doc.language())) {
+                    return;
+                }
+                double norm = K1 * (1 - B + B * doc.length() / averageLength);
+                double score = weight * idf * (tf * (K1 + 1)) / (tf + norm);
+                out.merge(id, score, Math::max);
+            });
+        }
+
+        private static float add(Map<String, Float> terms, List<String> tokens, float weight) {
+            for (String token : tokens) {
+                terms.merge(token, weight, Float::sum);
+            }
+            return tokens.size() * weight;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.config.MongoIndexes;
 import com.qualityeducation.dto.*;
 import com.qualityeducation.model.Lesson;
 import com.qualityeducation.model.Module;
@@ -7,13 +8,24 @@ import com.qualityeducation.model.Course;
 import com.qualityeducation.repository.LessonRepository;
 import com.qualityeducation.repository.ModuleRepository;
 import com.qualityeducation.repository.CourseRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -23,34 +35,38 @@ import java.util.stream.Collectors;
 @Slf4j
 public class LessonService {
 
+    private static final Index TEACHER_CREATED_INDEX = new Index().on("teacherId", Sort.Direction.ASC)
+            .on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.ASC).named("teacher_created_keyset");
+
     private final LessonRepository lessonRepository;
     private final ModuleRepository moduleRepository;
     private final CourseRepository courseRepository;
-
-    // Public method to get all published lessons
+    private final PublishedLessonCatalog publishedLessonCatalog;
+    private final ViewCounterBuffer viewCounterBuffer;
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+    private final LessonSearchIndex lessonSearchIndex;
+    private final DomainEventBus domainEventBus;
+    private final BatchLoaders batchLoaders;
+    private final LessonSlots lessonSlots;
+    private final TeacherLessonStats teacherLessonStats;
+
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    // Public method to get all published lessons, served from the in-memory catalog
     public ApiResponse<List<LessonResponse>> getAllPublishedLessons() {
         try {
-            log.info("Fetching all published lessons");
-
-            List<Lesson> publishedLessons = lessonRepository.findByStatusOrderByCreatedAtDesc(Lesson.LessonStatus.PUBLISHED);
-            
-            List<LessonResponse> responses = publishedLessons.stream()
-                    .map(lesson -> {
-                        LessonResponse response = LessonResponse.fromLesson(lesson);
-                        // Add instructor name from teacher ID if needed
-                        return response;
-                    })
-                    .collect(Collectors.toList());
-
-            log.info("Found {} published lessons", responses.size());
-            return ApiResponse.success("Published lessons retrieved successfully", responses);
-
+            return getPublishedLessonSnapshot().response();
         } catch (Exception e) {
             log.error("Failed to fetch published lessons", e);
             return ApiResponse.error("Failed to retrieve published lessons: " + e.getMessage());
         }
     }
 
+    public PublishedLessonCatalog.Snapshot getPublishedLessonSnapshot() {
+        return publishedLessonCatalog.current();
+    }
+
     // Public method to get a published lesson by ID
     public ApiResponse<LessonResponse> getPublishedLessonById(String lessonId) {
         try {
@@ -68,11 +84,18 @@ public class LessonService {
                 return ApiResponse.error("Lesson is not published");
             }
 
-            // Increment view count
-            lesson.incrementViews();
-            lessonRepository.save(lesson);
+            // Count the view against the lesson and its module and course; written behind in bulk
+            viewCounterBuffer.record(ViewCounterBuffer.Target.LESSON, lessonId);
+            if (lesson.getModuleId() != null) {
+                viewCounterBuffer.record(ViewCounterBuffer.Target.MODULE, lesson.getModuleId());
+            }
+            if (lesson.getCourseId() != null) {
+                viewCounterBuffer.record(ViewCounterBuffer.Target.COURSE, lesson.getCourseId());
+            }
 
             LessonResponse response = LessonResponse.fromLesson(lesson);
+            long storedViews = lesson.getViews() != null ? lesson.getViews() : 0;
+            response.setViews((int) (storedViews + viewCounterBuffer.pending(ViewCounterBuffer.Target.LESSON, lessonId)));
             return ApiResponse.success("Lesson retrieved successfully", response);
 
         } catch (Exception e) {
@@ -122,6 +145,7 @@ public class LessonService {
                     .videoUrl(request.getVideoUrl().trim())
                     .duration(request.getDuration().trim())
                     .order(request.getOrder())
+                    .slot(lessonSlots.next(module.getCourseId()))
                     .moduleId(moduleId)
                     .courseId(module.getCourseId())
                     .teacherId(teacherId)
@@ -146,10 +170,13 @@ public class LessonService {
 
             // Save lesson
             Lesson savedLesson = lessonRepository.save(lesson);
+            lessonSearchIndex.index(savedLesson);
             log.info("Lesson created successfully with ID: {}", savedLesson.getId());
 
-            // Update module lesson count
-            updateModuleLessonCount(moduleId);
+            teacherLessonStats.invalidate(teacherId);
+            // Module lesson count and course outline follow from the event
+            domainEventBus.publish(new DomainEvent.LessonCreated(savedLesson.getId(), moduleId,
+                    savedLesson.getCourseId(), teacherId));
 
             LessonResponse response = LessonResponse.fromLesson(savedLesson);
             return ApiResponse.success("Lesson created successfully", response);
@@ -189,6 +216,65 @@ public class LessonService {
         }
     }
 
+    public ApiResponse<List<LessonSummaryResponse>> getLessonSummariesByModule(String moduleId, String teacherId) {
+        try {
+            log.info("Fetching lesson summaries for module: {}", moduleId);
+
+            // Verify module exists and belongs to teacher
+            Optional<Module> moduleOpt = moduleRepository.findById(moduleId);
+            if (moduleOpt.isEmpty()) {
+                return ApiResponse.error("Module not found");
+            }
+
+            Optional<Course> courseOpt = courseRepository.findById(moduleOpt.get().getCourseId());
+            if (courseOpt.isEmpty() || !courseOpt.get().getTeacherId().equals(teacherId)) {
+                return ApiResponse.error("You don't have permission to view lessons in this module");
+            }
+
+            List<LessonSummaryResponse> responses = lessonRepository.findSummariesByModuleId(moduleId).stream()
+                    .map(LessonSummaryResponse::fromSummary)
+                    .collect(Collectors.toList());
+
+            return ApiResponse.success("Lessons retrieved successfully", responses);
+
+        } catch (Exception e) {
+            log.error("Failed to fetch lesson summaries for module: {}", moduleId, e);
+            return ApiResponse.error("Failed to retrieve lessons: " + e.getMessage());
+        }
+    }
+
+    public ApiResponse<List<LessonResponse>> getLessonsByTeacher(String teacherId) {
+        try {
+            log.info("Fetching all lessons for teacher: {}", teacherId);
+
+            List<LessonResponse> responses = lessonRepository.findByTeacherIdOrderByCreatedAtDesc(teacherId).stream()
+                    .map(LessonResponse::fromLesson)
+                    .collect(Collectors.toList());
+
+            return ApiResponse.success("Lessons retrieved successfully", responses);
+
+        } catch (Exception e) {
+            log.error("Failed to fetch lessons for teacher: {}", teacherId, e);
+            return ApiResponse.error("Failed to retrieve lessons: " + e.getMessage());
+        }
+    }
+
+    public ApiResponse<CursorPage<LessonResponse>> getLessonsByTeacher(String teacherId, String cursor, Integer limit) {
+        try {
+            mongoIndexes.ensure(Lesson.class, TEACHER_CREATED_INDEX);
+            Limit pageLimit = KeysetCursor.limit(limit);
+            CursorPage<LessonResponse> page = KeysetCursor.page(
+                    lessonRepository.findByTeacherIdOrderByCreatedAtDesc(teacherId, KeysetCursor.position(cursor), pageLimit),
+                    pageLimit, LessonResponse::fromLesson);
+
+            return ApiResponse.success("Lessons retrieved successfully", page);
+
+        } catch (Exception e) {
+            log.error("Failed to fetch lesson page for teacher: {}", teacherId, e);
+            return ApiResponse.error("Failed to retrieve lessons: " + e.getMessage());
+        }
+    }
+
     public ApiResponse<LessonResponse> getLessonById(String lessonId, String teacherId) {
         try {
             log.info("Fetching lesson: {} for teacher: {}", lessonId, teacherId);
@@ -216,95 +302,97 @@ public class LessonService {
 
     @Transactional
     public ApiResponse<LessonResponse> updateLesson(String lessonId, LessonUpdateRequest request, String teacherId) {
+        // Provided, non-blank fields replace the stored ones; the rest are left untouched
+        Map<String, Object> patch = new LinkedHashMap<>();
+        putText(patch, "title", request.getTitle());
+        putText(patch, "description", request.getDescription());
+        putText(patch, "videoUrl", request.getVideoUrl());
+        putText(patch, "duration", request.getDuration());
+        putValue(patch, "order", request.getOrder());
+        putValue(patch, "status", request.getStatus());
+        putValue(patch, "coverImage", request.getCoverImage());
+        putValue(patch, "transcript", request.getTranscript());
+        putValue(patch, "tags", request.getTags());
+        putValue(patch, "difficulty", request.getDifficulty());
+        putValue(patch, "language", request.getLanguage());
+        putValue(patch, "quizzes", request.getQuizzes());
+        return patchLesson(lessonId, patch, teacherId);
+    }
+
+    /**
+     * Applies a JSON Merge Patch as a single conditional {@code $set}/{@code $unset} with
+     * the ownership check in the filter. The lesson is only read beforehand when the
+     * title or order changes, to keep them unique within the module.
+     */
+    public ApiResponse<LessonResponse> patchLesson(String lessonId, Map<String, Object> patch, String teacherId) {
         try {
             log.info("Updating lesson: {} by teacher: {}", lessonId, teacherId);
 
-            Optional<Lesson> lessonOpt = lessonRepository.findById(lessonId);
-            if (lessonOpt.isEmpty()) {
-                return ApiResponse.error("Lesson not found");
-            }
-
-            Lesson lesson = lessonOpt.get();
-
-            // Verify lesson belongs to teacher
-            if (!lesson.getTeacherId().equals(teacherId)) {
-                return ApiResponse.error("You don't have permission to update this lesson");
-            }
-
-            // Update fields if provided
-            if (request.getTitle() != null && !request.getTitle().trim().isEmpty()) {
-                // Check if new title conflicts with existing lessons in the module
-                if (!lesson.getTitle().equalsIgnoreCase(request.getTitle()) &&
-                        lessonRepository.existsByModuleIdAndTitleIgnoreCase(lesson.getModuleId(), request.getTitle())) {
-                    return ApiResponse.error("A lesson with this title already exists in this module");
+            MergePatch mergePatch = MergePatch.of(patch)
+                    .requiredField("title", String.class)
+                    .field("description", String.class)
+                    .field("videoUrl", String.class)
+                    .field("duration", String.class)
+                    .requiredField("order", Integer.class)
+                    .requiredField("status", Lesson.LessonStatus.class)
+                    .field("coverImage", String.class)
+                    .field("transcript", String.class)
+                    .field("tags", List.class)
+                    .field("difficulty", String.class)
+                    .field("language", String.class)
+                    .field("quizzes", value -> MergePatch.convert(value, new TypeReference<List<QuizRequest>>() {})
+                            .stream()
+                            .map(this::mapToQuiz)
+                            .collect(Collectors.toList()));
+
+            String title = mergePatch.get("title", String.class);
+            Integer order = mergePatch.get("order", Integer.class);
+            if (title != null || order != null) {
+                Query query = ownedLesson(lessonId, teacherId);
+                query.fields().include("moduleId", "title", "order");
+                Lesson current = mongoTemplate.findOne(query, Lesson.class);
+                if (current == null) {
+                    return lessonWriteMissed(lessonId, "update");
                 }
-                lesson.setTitle(request.getTitle().trim());
-            }
-
-            if (request.getDescription() != null && !request.getDescription().trim().isEmpty()) {
-                lesson.setDescription(request.getDescription().trim());
-            }
-
-            if (request.getVideoUrl() != null && !request.getVideoUrl().trim().isEmpty()) {
-                lesson.setVideoUrl(request.getVideoUrl().trim());
-                // Update thumbnail
-                String thumbnail = extractYouTubeThumbnail(request.getVideoUrl());
-                if (thumbnail != null) {
-                    lesson.setVideoThumbnail(thumbnail);
+                if (title != null && !title.trim().equalsIgnoreCase(current.getTitle()) &&
+                        lessonRepository.existsByModuleIdAndTitleIgnoreCase(current.getModuleId(), title.trim())) {
+                    return ApiResponse.error("A lesson with this title already exists in this module");
                 }
-            }
-
-            if (request.getDuration() != null && !request.getDuration().trim().isEmpty()) {
-                lesson.setDuration(request.getDuration().trim());
-            }
-
-            if (request.getOrder() != null) {
-                // Check if new order conflicts with existing lessons in the module
-                if (!lesson.getOrder().equals(request.getOrder()) &&
-                        lessonRepository.existsByModuleIdAndOrder(lesson.getModuleId(), request.getOrder())) {
+                if (order != null && !order.equals(current.getOrder()) &&
+                        lessonRepository.existsByModuleIdAndOrder(current.getModuleId(), order)) {
                     return ApiResponse.error("A lesson with this order already exists in this module");
                 }
-                lesson.setOrder(request.getOrder());
             }
 
-            if (request.getStatus() != null) {
-                lesson.setStatus(request.getStatus());
-            }
-
-            if (request.getCoverImage() != null) {
-                lesson.setCoverImage(request.getCoverImage());
-            }
-
-            if (request.getTranscript() != null) {
-                lesson.setTranscript(request.getTranscript());
-            }
-
-            if (request.getTags() != null) {
-                lesson.setTags(request.getTags());
-            }
-
-            if (request.getDifficulty() != null) {
-                lesson.setDifficulty(request.getDifficulty());
-            }
-
-            if (request.getLanguage() != null) {
-                lesson.setLanguage(request.getLanguage());
+            if (mergePatch.has("videoUrl")) {
+                String videoUrl = mergePatch.get("videoUrl", String.class);
+                String thumbnail = videoUrl != null ? extractYouTubeThumbnail(videoUrl) : null;
+                if (thumbnail != null) {
+                    mergePatch.alsoSet("videoThumbnail", thumbnail);
+                } else if (videoUrl == null) {
+                    mergePatch.alsoUnset("videoThumbnail");
+                }
             }
 
-            if (request.getQuizzes() != null) {
-                lesson.setQuizzes(request.getQuizzes().stream()
-                        .map(this::mapToQuiz)
-                        .collect(Collectors.toList()));
+            Update update = mergePatch.alsoSet("updatedAt", LocalDateTime.now()).toUpdate();
+            Lesson updatedLesson = mongoTemplate.findAndModify(ownedLesson(lessonId, teacherId), update,
+                    FindAndModifyOptions.options().returnNew(true), Lesson.class);
+            if (updatedLesson == null) {
+                return lessonWriteMissed(lessonId, "update");
             }
 
-            lesson.setUpdatedAt(LocalDateTime.now());
-
-            Lesson updatedLesson = lessonRepository.save(lesson);
+            publishedLessonCatalog.apply(updatedLesson);
+            lessonSearchIndex.index(updatedLesson);
+            teacherLessonStats.invalidate(teacherId);
+            domainEventBus.publish(new DomainEvent.LessonUpdated(lessonId, updatedLesson.getModuleId(),
+                    updatedLesson.getCourseId(), teacherId));
             log.info("Lesson updated successfully: {}", lessonId);
 
             LessonResponse response = LessonResponse.fromLesson(updatedLesson);
             return ApiResponse.success("Lesson updated successfully", response);
 
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage());
         } catch (Exception e) {
             log.error("Failed to update lesson: {}", lessonId, e);
             return ApiResponse.error("Failed to update lesson: " + e.getMessage());
@@ -330,9 +418,11 @@ public class LessonService {
 
             String moduleId = lesson.getModuleId();
             lessonRepository.deleteById(lessonId);
+            publishedLessonCatalog.remove(lessonId);
+            lessonSearchIndex.remove(lessonId);
 
-            // Update module lesson count
-            updateModuleLessonCount(moduleId);
+            teacherLessonStats.invalidate(teacherId);
+            domainEventBus.publish(new DomainEvent.LessonDeleted(lessonId, moduleId, lesson.getCourseId(), teacherId));
 
             log.info("Lesson deleted successfully: {}", lessonId);
             return ApiResponse.success("Lesson deleted successfully");
@@ -344,6 +434,15 @@ public class LessonService {
     }
 
     public ApiResponse<List<LessonResponse>> searchLessons(String courseId, String searchTerm, String teacherId) {
+        return searchLessons(courseId, searchTerm, null, teacherId);
+    }
+
+    /**
+     * Ranked search over the course's lessons; {@code language} optionally restricts the
+     * results to lessons written in that language.
+     */
+    public ApiResponse<List<LessonResponse>> searchLessons(String courseId, String searchTerm, String language,
+            String teacherId) {
         try {
             log.info("Searching lessons in course: {} with term: {}", courseId, searchTerm);
 
@@ -353,7 +452,28 @@ public class LessonService {
                 return ApiResponse.error("You don't have permission to search lessons in this course");
             }
 
-            List<Lesson> lessons = lessonRepository.findByCourseIdAndTitleOrDescriptionContainingIgnoreCase(courseId, searchTerm);
+            TextAnalyzer.Language languageFilter = language != null && !language.isBlank()
+                    ? TextAnalyzer.Language.of(language) : null;
+            List<Lesson> lessons;
+            if (TextAnalyzer.analyze(searchTerm).isEmpty()) {
+                // Nothing searchable in the term (blank or only stop words): list the course
+                lessons = lessonRepository.findByCourseIdOrderByOrderAsc(courseId).stream()
+                        .filter(lesson -> languageFilter == null
+                                || TextAnalyzer.Language.of(lesson.getLanguage()) == languageFilter)
+                        .collect(Collectors.toList());
+            } else {
+                List<String> rankedIds = lessonSearchIndex
+                        .search(searchTerm, courseId, languageFilter, MAX_SEARCH_RESULTS).stream()
+                        .map(LessonSearchIndex.Hit::lessonId)
+                        .collect(Collectors.toList());
+                Map<String, Lesson> byId = new LinkedHashMap<>();
+                lessonRepository.findAllById(rankedIds).forEach(lesson -> byId.put(lesson.getId(), lesson));
+                lessons = rankedIds.stream()
+                        .map(byId::get)
+                        .filter(lesson -> lesson != null)
+                        .collect(Collectors.toList());
+            }
+
             List<LessonResponse> responses = lessons.stream()
                     .map(LessonResponse::fromLesson)
                     .collect(Collectors.toList());
@@ -370,48 +490,8 @@ public class LessonService {
         try {
             log.info("Fetching lesson statistics for teacher: {}", teacherId);
 
-            List<Lesson> allLessons = lessonRepository.findByTeacherIdOrderByCreatedAtDesc(teacherId);
-
-            long totalLessons = allLessons.size();
-            long publishedLessons = allLessons.stream()
-                    .filter(lesson -> lesson.getStatus() == Lesson.LessonStatus.PUBLISHED)
-                    .count();
-            long draftLessons = allLessons.stream()
-                    .filter(lesson -> lesson.getStatus() == Lesson.LessonStatus.DRAFT)
-                    .count();
-
-            long totalViews = allLessons.stream()
-                    .mapToLong(lesson -> lesson.getViews() != null ? lesson.getViews() : 0)
-                    .sum();
-
-            double averageRating = allLessons.stream()
-                    .filter(lesson -> lesson.getAverageRating() != null && lesson.getAverageRating() > 0)
-                    .mapToDouble(Lesson::getAverageRating)
-                    .average()
-                    .orElse(0.0);
-
-            long totalQuizzes = allLessons.stream()
-                    .mapToLong(lesson -> lesson.getQuizzes() != null ? lesson.getQuizzes().size() : 0)
-                    .sum();
-
-            String mostPopularLesson = allLessons.stream()
-                    .filter(lesson -> lesson.getViews() != null && lesson.getViews() > 0)
-                    .max((l1, l2) -> Integer.compare(l1.getViews(), l2.getViews()))
-                    .map(Lesson::getTitle)
-                    .orElse("None");
-
-            String recentlyCreated = allLessons.isEmpty() ? "None" : allLessons.get(0).getTitle();
-
-            LessonStatsResponse stats = LessonStatsResponse.builder()
-                    .totalLessons(totalLessons)
-                    .publishedLessons(publishedLessons)
-                    .draftLessons(draftLessons)
-                    .totalViews(totalViews)
-                    .averageRating(Math.round(averageRating * 100.0) / 100.0)
-                    .totalQuizzes(totalQuizzes)
-                    .mostPopularLesson(mostPopularLesson)
-                    .recentlyCreated(recentlyCreated)
-                    .build();
+            // Computed by one aggregation in Mongo and cached until the teacher's lessons change
+            LessonStatsResponse stats = teacherLessonStats.stats(teacherId);
 
             return ApiResponse.success("Statistics retrieved successfully", stats);
 
@@ -463,22 +543,6 @@ public class LessonService {
         return null;
     }
 
-    private void updateModuleLessonCount(String moduleId) {
-        try {
-            long lessonCount = lessonRepository.countByModuleId(moduleId);
-            Optional<Module> moduleOpt = moduleRepository.findById(moduleId);
-            if (moduleOpt.isPresent()) {
-                Module module = moduleOpt.get();
-                module.setTotalLessons((int) lessonCount);
-                module.setUpdatedAt(LocalDateTime.now());
-                moduleRepository.save(module);
-                log.debug("Updated module {} lesson count to {}", moduleId, lessonCount);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to update lesson count for module: {}", moduleId, e);
-        }
-    }
-
     @Transactional
     public ApiResponse<String> reorderLessons(String moduleId, List<String> lessonIds, String teacherId) {
         try {
@@ -496,15 +560,16 @@ public class LessonService {
                 return ApiResponse.error("You don't have permission to reorder lessons in this module");
             }
 
-            // Update lesson orders
+            // Update lesson orders; the lessons are read in one batch
+            Map<String, Lesson> lessons = batchLoaders.begin().lessons().loadAll(lessonIds);
             for (int i = 0; i < lessonIds.size(); i++) {
-                String lessonId = lessonIds.get(i);
-                Optional<Lesson> lessonOpt = lessonRepository.findById(lessonId);
-                if (lessonOpt.isPresent()) {
-                    Lesson lesson = lessonOpt.get();
+                Lesson lesson = lessons.get(lessonIds.get(i));
+                if (lesson != null) {
                     lesson.setOrder(i + 1);
                     lesson.setUpdatedAt(LocalDateTime.now());
-                    lessonRepository.save(lesson);
+                    publishedLessonCatalog.apply(lessonRepository.save(lesson));
+                    domainEventBus.publish(new DomainEvent.LessonUpdated(lesson.getId(), moduleId,
+                            module.getCourseId(), teacherId));
                 }
             }
 
@@ -521,21 +586,16 @@ public class LessonService {
         try {
             log.info("Publishing lesson: {}", lessonId);
 
-            Optional<Lesson> lessonOpt = lessonRepository.findById(lessonId);
-            if (lessonOpt.isEmpty()) {
-                return ApiResponse.error("Lesson not found");
-            }
-
-            Lesson lesson = lessonOpt.get();
-
-            // Verify lesson belongs to teacher
-            if (!lesson.getTeacherId().equals(teacherId)) {
-                return ApiResponse.error("You don't have permission to publish this lesson");
+            // The catalog needs the published lesson, so this write returns it
+            Lesson lesson = mongoTemplate.findAndModify(ownedLesson(lessonId, teacherId),
+                    statusUpdate(Lesson.LessonStatus.PUBLISHED),
+                    FindAndModifyOptions.options().returnNew(true), Lesson.class);
+            if (lesson == null) {
+                return lessonWriteMissed(lessonId, "publish");
             }
-
-            lesson.setStatus(Lesson.LessonStatus.PUBLISHED);
-            lesson.setUpdatedAt(LocalDateTime.now());
-            lessonRepository.save(lesson);
+            publishedLessonCatalog.apply(lesson);
+            teacherLessonStats.invalidate(teacherId);
+            domainEventBus.publish(new DomainEvent.LessonPublished(lessonId, lesson.getCourseId(), teacherId));
 
             return ApiResponse.success("Lesson published successfully");
 
@@ -550,21 +610,16 @@ public class LessonService {
         try {
             log.info("Unpublishing lesson: {}", lessonId);
 
-            Optional<Lesson> lessonOpt = lessonRepository.findById(lessonId);
-            if (lessonOpt.isEmpty()) {
-                return ApiResponse.error("Lesson not found");
+            // Returns just the course id, which the event needs
+            Query query = ownedLesson(lessonId, teacherId);
+            query.fields().include("courseId");
+            Lesson lesson = mongoTemplate.findAndModify(query, statusUpdate(Lesson.LessonStatus.DRAFT), Lesson.class);
+            if (lesson == null) {
+                return lessonWriteMissed(lessonId, "unpublish");
             }
-
-            Lesson lesson = lessonOpt.get();
-
-            // Verify lesson belongs to teacher
-            if (!lesson.getTeacherId().equals(teacherId)) {
-                return ApiResponse.error("You don't have permission to unpublish this lesson");
-            }
-
-            lesson.setStatus(Lesson.LessonStatus.DRAFT);
-            lesson.setUpdatedAt(LocalDateTime.now());
-            lessonRepository.save(lesson);
+            publishedLessonCatalog.remove(lessonId);
+            teacherLessonStats.invalidate(teacherId);
+            domainEventBus.publish(new DomainEvent.LessonUnpublished(lessonId, lesson.getCourseId(), teacherId));
 
             return ApiResponse.success("Lesson unpublished successfully");
 
@@ -573,4 +628,32 @@ public class LessonService {
             return ApiResponse.error("Failed to unpublish lesson: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private static Query ownedLesson(String lessonId, String teacherId) {
+        return Query.query(Criteria.where("_id").is(lessonId).and("teacherId").is(teacherId));
+    }
+
+    private static Update statusUpdate(Lesson.LessonStatus status) {
+        return new Update().set("status", status).set("updatedAt", LocalDateTime.now());
+    }
+
+    // A conditional write matched nothing: the lesson is missing or owned by someone else
+    private <T> ApiResponse<T> lessonWriteMissed(String lessonId, String action) {
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(lessonId)), Lesson.class)) {
+            return ApiResponse.error("You don't have permission to " + action + " this lesson");
+        }
+        return ApiResponse.error("Lesson not found");
+    }
+
+    private static void putText(Map<String, Object> patch, String field, String value) {
+        if (value != null && !value.trim().isEmpty()) {
+            patch.put(field, value.trim());
+        }
+    }
+
+    private static void putValue(Map<String, Object> patch, String field, Object value) {
+        if (value != null) {
+            patch.put(field, value);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.qualityeducation.service;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out lesson slots: small integers, unique within a course, that index a lesson in
+ * an enrollment's progress bitsets. A slot is fixed when the lesson is created and is
+ * never reused after the lesson is deleted, so reordering or removing lessons never
+ * shifts anyone's recorded progress onto a different lesson.
+ *
+ * The per-course counter lives in its own collection so that saving a whole course
+ * document can never roll it back.
+ */
+@Component
+@RequiredArgsConstructor
+public class LessonSlots {
+
+    static final String COLLECTION = "course_lesson_slots";
+
+    private final MongoTemplate mongoTemplate;
+
+    public int next(String courseId) {
+        return reserve(courseId, 1);
+    }
+
+    /**
+     * Reserves {@code count} consecutive slots and returns the first.
+     */
+    public int reserve(String courseId, int count) {
+        Document counter = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(courseId)),
+                new Update().inc("next", count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, COLLECTION);
+        return counter.getInteger("next") - count;
+    }
+}
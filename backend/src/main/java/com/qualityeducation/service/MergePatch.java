@@ -0,0 +1,120 @@
+package com.qualityeducation.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Turns a JSON Merge Patch (RFC 7396) body into a Mongo {@code $set}/{@code $unset}
+ * update, so only the fields the client sent are written. Every patchable field must be
+ * declared: a present value is converted and set, an explicit null unsets the field, and
+ * a field nobody declared makes {@link #toUpdate()} reject the patch. Lists are replaced
+ * whole, as the RFC specifies for arrays.
+ */
+public final class MergePatch {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, Object> patch;
+    private final Update update = new Update();
+    private final Set<String> declared = new HashSet<>();
+
+    private MergePatch(Map<String, Object> patch) {
+        this.patch = patch;
+    }
+
+    public static MergePatch of(Map<String, Object> patch) {
+        if (patch == null) {
+            throw new IllegalArgumentException("Patch body is required");
+        }
+        return new MergePatch(patch);
+    }
+
+    public boolean has(String field) {
+        return patch.containsKey(field);
+    }
+
+    /**
+     * The converted value for a field present in the patch; null when absent or null.
+     */
+    public <T> T get(String field, Class<T> type) {
+        return convert(field, patch.get(field), type);
+    }
+
+    /**
+     * Declares a field that may be changed or removed.
+     */
+    public MergePatch field(String field, Class<?> type) {
+        return field(field, value -> convert(field, value, type));
+    }
+
+    public MergePatch field(String field, Function<Object, ?> converter) {
+        declared.add(field);
+        if (patch.containsKey(field)) {
+            Object value = patch.get(field);
+            if (value == null) {
+                update.unset(field);
+            } else {
+                update.set(field, converter.apply(value));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Declares a field that may be changed but not removed; blank strings are rejected.
+     */
+    public MergePatch requiredField(String field, Class<?> type) {
+        declared.add(field);
+        if (patch.containsKey(field)) {
+            Object value = convert(field, patch.get(field), type);
+            if (value == null || (value instanceof String s && s.isBlank())) {
+                throw new IllegalArgumentException(field + " cannot be removed or blank");
+            }
+            update.set(field, value instanceof String s ? s.trim() : value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a write the server derives itself, such as a timestamp.
+     */
+    public MergePatch alsoSet(String field, Object value) {
+        update.set(field, value);
+        return this;
+    }
+
+    public MergePatch alsoUnset(String field) {
+        update.unset(field);
+        return this;
+    }
+
+    public Update toUpdate() {
+        for (String field : patch.keySet()) {
+            if (!declared.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+        }
+        return update;
+    }
+
+    public static <T> T convert(Object value, TypeReference<T> type) {
+        return MAPPER.convertValue(value, type);
+    }
+
+    private static <T> T convert(String field, Object value, Class<T> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return MAPPER.convertValue(value, type);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + field);
+        }
+    }
+}
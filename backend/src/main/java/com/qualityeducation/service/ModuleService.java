@@ -1,17 +1,30 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.config.MongoIndexes;
 import com.qualityeducation.dto.*;
 import com.qualityeducation.model.Module;
 import com.qualityeducation.model.Course;
 import com.qualityeducation.repository.ModuleRepository;
 import com.qualityeducation.repository.CourseRepository;
+import com.qualityeducation.repository.LessonRepository;
+import com.qualityeducation.repository.LessonSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -20,8 +33,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ModuleService {
 
+    private static final Index TEACHER_CREATED_INDEX = new Index().on("teacherId", Sort.Direction.ASC)
+            .on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.ASC).named("teacher_created_keyset");
+
     private final ModuleRepository moduleRepository;
     private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+    private final DomainEventBus domainEventBus;
 
     /**
      * Create a new module for a course
@@ -67,9 +87,8 @@ public class ModuleService {
 
             Module savedModule = moduleRepository.save(module);
 
-            // Update course modules count
-            course.setModules(course.getModules() + 1);
-            courseRepository.save(course);
+            // Course module count and outline follow from the event
+            domainEventBus.publish(new DomainEvent.ModuleCreated(savedModule.getId(), courseId, teacherId));
 
             ModuleResponse response = ModuleResponse.fromModule(savedModule);
             log.info("Module created successfully with ID: {}", savedModule.getId());
@@ -113,6 +132,42 @@ public class ModuleService {
         }
     }
 
+    /**
+     * Get a course's modules with a summary of each module's lessons, using two
+     * projected queries instead of loading full modules and lessons
+     */
+    public ApiResponse<List<ModuleWithLessonsResponse>> getModuleSummariesByCourse(String courseId, String teacherId) {
+        try {
+            log.info("Fetching module summaries for course {} by teacher {}", courseId, teacherId);
+
+            Optional<Course> courseOpt = courseRepository.findById(courseId);
+            if (courseOpt.isEmpty()) {
+                return ApiResponse.error("Course not found");
+            }
+            if (!courseOpt.get().getTeacherId().equals(teacherId)) {
+                return ApiResponse.error("You don't have permission to view modules for this course");
+            }
+
+            Map<String, List<LessonSummaryResponse>> lessonsByModule = lessonRepository.findSummariesByCourseId(courseId)
+                    .stream()
+                    .filter(lesson -> lesson.getModuleId() != null)
+                    .collect(Collectors.groupingBy(LessonSummary::getModuleId,
+                            Collectors.mapping(LessonSummaryResponse::fromSummary, Collectors.toList())));
+
+            List<ModuleWithLessonsResponse> responses = moduleRepository.findSummariesByCourseIdOrderByOrderAsc(courseId)
+                    .stream()
+                    .map(module -> ModuleWithLessonsResponse.fromSummary(module,
+                            lessonsByModule.getOrDefault(module.getId(), List.of())))
+                    .collect(Collectors.toList());
+
+            return ApiResponse.success("Modules retrieved successfully", responses);
+
+        } catch (Exception e) {
+            log.error("Error fetching module summaries for course {}: {}", courseId, e.getMessage(), e);
+            return ApiResponse.error("Failed to retrieve modules", e.getMessage());
+        }
+    }
+
     /**
      * Get a specific module by ID
      */
@@ -144,60 +199,79 @@ public class ModuleService {
      */
     @Transactional
     public ApiResponse<ModuleResponse> updateModule(String moduleId, ModuleUpdateRequest request, String teacherId) {
+        // Provided fields replace the stored ones; the rest are left untouched
+        Map<String, Object> patch = new LinkedHashMap<>();
+        putValue(patch, "title", request.getTitle());
+        putValue(patch, "description", request.getDescription());
+        putValue(patch, "duration", request.getDuration());
+        putValue(patch, "order", request.getOrder());
+        putValue(patch, "coverImage", request.getCoverImage());
+        putValue(patch, "learningObjectives", request.getLearningObjectives());
+        putValue(patch, "prerequisites", request.getPrerequisites());
+        putValue(patch, "status", request.getStatus());
+        return patchModule(moduleId, patch, teacherId);
+    }
+
+    /**
+     * Apply a JSON Merge Patch as one conditional update with ownership in the filter;
+     * the module is only read first when its order changes
+     */
+    public ApiResponse<ModuleResponse> patchModule(String moduleId, Map<String, Object> patch, String teacherId) {
         try {
             log.info("Updating module {} by teacher {}", moduleId, teacherId);
 
-            Optional<Module> moduleOpt = moduleRepository.findById(moduleId);
-            if (moduleOpt.isEmpty()) {
-                return ApiResponse.error("Module not found");
+            MergePatch mergePatch = MergePatch.of(patch)
+                    .requiredField("title", String.class)
+                    .field("description", String.class)
+                    .field("duration", String.class)
+                    .requiredField("order", Integer.class)
+                    .field("coverImage", String.class)
+                    .field("learningObjectives", List.class)
+                    .field("prerequisites", List.class)
+                    .requiredField("status", Module.ModuleStatus.class);
+
+            String title = mergePatch.get("title", String.class);
+            if (title != null && title.length() > 200) {
+                return ApiResponse.error("Title cannot exceed 200 characters");
             }
-
-            Module module = moduleOpt.get();
-            if (!module.getTeacherId().equals(teacherId)) {
-                return ApiResponse.error("You don't have permission to update this module");
+            String description = mergePatch.get("description", String.class);
+            if (description != null && description.length() > 1000) {
+                return ApiResponse.error("Description cannot exceed 1000 characters");
             }
 
             // Check if new order conflicts with existing modules
-            if (request.getOrder() != null && !request.getOrder().equals(module.getOrder())) {
-                if (moduleRepository.existsByCourseIdAndOrder(module.getCourseId(), request.getOrder())) {
-                    return ApiResponse.error("A module with order " + request.getOrder() + " already exists");
+            Integer order = mergePatch.get("order", Integer.class);
+            if (order != null) {
+                if (order < 1) {
+                    return ApiResponse.error("Order must be at least 1");
+                }
+                Query query = ownedModule(moduleId, teacherId);
+                query.fields().include("courseId", "order");
+                Module current = mongoTemplate.findOne(query, Module.class);
+                if (current == null) {
+                    return moduleWriteMissed(moduleId);
+                }
+                if (!order.equals(current.getOrder()) &&
+                        moduleRepository.existsByCourseIdAndOrder(current.getCourseId(), order)) {
+                    return ApiResponse.error("A module with order " + order + " already exists");
                 }
             }
 
-            // Update fields
-            if (request.getTitle() != null) {
-                module.setTitle(request.getTitle());
-            }
-            if (request.getDescription() != null) {
-                module.setDescription(request.getDescription());
-            }
-            if (request.getDuration() != null) {
-                module.setDuration(request.getDuration());
-            }
-            if (request.getOrder() != null) {
-                module.setOrder(request.getOrder());
-            }
-            if (request.getCoverImage() != null) {
-                module.setCoverImage(request.getCoverImage());
+            Update update = mergePatch.alsoSet("updatedAt", LocalDateTime.now()).toUpdate();
+            Module savedModule = mongoTemplate.findAndModify(ownedModule(moduleId, teacherId), update,
+                    FindAndModifyOptions.options().returnNew(true), Module.class);
+            if (savedModule == null) {
+                return moduleWriteMissed(moduleId);
             }
-            if (request.getLearningObjectives() != null) {
-                module.setLearningObjectives(request.getLearningObjectives());
-            }
-            if (request.getPrerequisites() != null) {
-                module.setPrerequisites(request.getPrerequisites());
-            }
-            if (request.getStatus() != null) {
-                module.setStatus(request.getStatus());
-            }
-
-            module.setUpdatedAt(LocalDateTime.now());
-            Module savedModule = moduleRepository.save(module);
 
+            domainEventBus.publish(new DomainEvent.ModuleUpdated(moduleId, savedModule.getCourseId(), teacherId));
             ModuleResponse response = ModuleResponse.fromModule(savedModule);
             log.info("Module updated successfully: {}", moduleId);
 
             return ApiResponse.success("Module updated successfully", response);
 
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error("Failed to update module", e.getMessage());
         } catch (Exception e) {
             log.error("Error updating module {}: {}", moduleId, e.getMessage(), e);
             return ApiResponse.error("Failed to update module", e.getMessage());
@@ -222,20 +296,13 @@ public class ModuleService {
                 return ApiResponse.error("You don't have permission to delete this module");
             }
 
-            // Check if module has lessons
-            if (module.getTotalLessons() > 0) {
+            // Check if module has lessons; counted directly, as totalLessons is updated in the background
+            if (lessonRepository.countByModuleId(moduleId) > 0) {
                 return ApiResponse.error("Cannot delete module that contains lessons. Please delete all lessons first.");
             }
 
-            // Update course modules count
-            Optional<Course> courseOpt = courseRepository.findById(module.getCourseId());
-            if (courseOpt.isPresent()) {
-                Course course = courseOpt.get();
-                course.setModules(Math.max(0, course.getModules() - 1));
-                courseRepository.save(course);
-            }
-
             moduleRepository.deleteById(moduleId);
+            domainEventBus.publish(new DomainEvent.ModuleDeleted(moduleId, module.getCourseId(), teacherId));
             log.info("Module deleted successfully: {}", moduleId);
 
             return ApiResponse.success("Module deleted successfully");
@@ -297,6 +364,8 @@ public class ModuleService {
             }
 
             List<Module> savedModules = moduleRepository.saveAll(modules);
+            savedModules.forEach(saved ->
+                    domainEventBus.publish(new DomainEvent.ModuleUpdated(saved.getId(), courseId, teacherId)));
             List<ModuleResponse> responses = savedModules.stream()
                     .map(ModuleResponse::fromModule)
                     .sorted((a, b) -> a.getOrder().compareTo(b.getOrder()))
@@ -331,6 +400,25 @@ public class ModuleService {
         }
     }
 
+    /**
+     * Get one keyset page of a teacher's modules, newest first
+     */
+    public ApiResponse<CursorPage<ModuleResponse>> getModulesByTeacher(String teacherId, String cursor, Integer limit) {
+        try {
+            mongoIndexes.ensure(Module.class, TEACHER_CREATED_INDEX);
+            Limit pageLimit = KeysetCursor.limit(limit);
+            CursorPage<ModuleResponse> page = KeysetCursor.page(
+                    moduleRepository.findByTeacherIdOrderByCreatedAtDesc(teacherId, KeysetCursor.position(cursor), pageLimit),
+                    pageLimit, ModuleResponse::fromModule);
+
+            return ApiResponse.success("Modules retrieved successfully", page);
+
+        } catch (Exception e) {
+            log.error("Error fetching module page for teacher {}: {}", teacherId, e.getMessage(), e);
+            return ApiResponse.error("Failed to retrieve modules", e.getMessage());
+        }
+    }
+
     /**
      * Get next available order for a course
      */
@@ -359,20 +447,14 @@ public class ModuleService {
     @Transactional
     public ApiResponse<ModuleResponse> updateModuleStatus(String moduleId, Module.ModuleStatus status, String teacherId) {
         try {
-            Optional<Module> moduleOpt = moduleRepository.findById(moduleId);
-            if (moduleOpt.isEmpty()) {
-                return ApiResponse.error("Module not found");
+            Module savedModule = mongoTemplate.findAndModify(ownedModule(moduleId, teacherId),
+                    new Update().set("status", status).set("updatedAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true), Module.class);
+            if (savedModule == null) {
+                return moduleWriteMissed(moduleId);
             }
 
-            Module module = moduleOpt.get();
-            if (!module.getTeacherId().equals(teacherId)) {
-                return ApiResponse.error("You don't have permission to update this module");
-            }
-
-            module.setStatus(status);
-            module.setUpdatedAt(LocalDateTime.now());
-            Module savedModule = moduleRepository.save(module);
-
+            domainEventBus.publish(new DomainEvent.ModuleUpdated(moduleId, savedModule.getCourseId(), teacherId));
             ModuleResponse response = ModuleResponse.fromModule(savedModule);
             return ApiResponse.success("Module status updated successfully", response);
 
@@ -381,4 +463,22 @@ public class ModuleService {
             return ApiResponse.error("Failed to update module status", e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private static Query ownedModule(String moduleId, String teacherId) {
+        return Query.query(Criteria.where("_id").is(moduleId).and("teacherId").is(teacherId));
+    }
+
+    // A conditional write matched nothing: the module is missing or owned by someone else
+    private <T> ApiResponse<T> moduleWriteMissed(String moduleId) {
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(moduleId)), Module.class)) {
+            return ApiResponse.error("You don't have permission to update this module");
+        }
+        return ApiResponse.error("Module not found");
+    }
+
+    private static void putValue(Map<String, Object> patch, String field, Object value) {
+        if (value != null) {
+            patch.put(field, value);
+        }
+    }
+}
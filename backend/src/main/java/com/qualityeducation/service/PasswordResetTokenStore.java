@@ -0,0 +1,110 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.config.MongoIndexes;
+import com.qualityeducation.model.PasswordResetToken;
+import com.qualityeducation.model.PrincipalIdentity.PrincipalType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and redeems single-use password-reset tokens. Redeeming is one atomic
+ * find-and-delete by the token's hash; Mongo's TTL monitor removes tokens that are
+ * never used.
+ */
+@Service
+@RequiredArgsConstructor
+public class PasswordResetTokenStore {
+
+    private static final Index EXPIRY_INDEX = new Index().on("expiresAt", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS);
+    private static final Index PRINCIPAL_INDEX = new Index().on("principalId", Sort.Direction.ASC);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+
+    /**
+     * Creates a token for the principal, replacing any it already had.
+     *
+     * @return the raw token to send to the user
+     */
+    public String issue(PrincipalType principalType, String principalId, Duration validFor) {
+        mongoIndexes.ensure(PasswordResetToken.class, EXPIRY_INDEX, PRINCIPAL_INDEX);
+
+        mongoTemplate.remove(forPrincipal(principalType, principalId), PasswordResetToken.class);
+
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        mongoTemplate.insert(PasswordResetToken.builder()
+                .id(hash(token))
+                .principalType(principalType)
+                .principalId(principalId)
+                .expiresAt(new Date(System.currentTimeMillis() + validFor.toMillis()))
+                .build());
+        return token;
+    }
+
+    /**
+     * Whether the token exists, belongs to a principal of the given type and has not
+     * expired. One read by {@code _id}, so callers can turn away unknown tokens before
+     * doing any expensive work; only {@link #redeem} makes the token unusable.
+     */
+    public boolean isLive(String token, PrincipalType principalType) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+
+        Query query = Query.query(Criteria.where("_id").is(hash(token)).and("principalType").is(principalType)
+                .and("expiresAt").gt(new Date()));
+        return mongoTemplate.exists(query, PasswordResetToken.class);
+    }
+
+    /**
+     * Removes and returns the token if it exists, belongs to a principal of the given
+     * type and has not expired. A token can be redeemed at most once.
+     */
+    public Optional<PasswordResetToken> redeem(String token, PrincipalType principalType) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        Query query = Query.query(Criteria.where("_id").is(hash(token)).and("principalType").is(principalType));
+        PasswordResetToken redeemed = mongoTemplate.findAndRemove(query, PasswordResetToken.class);
+
+        // The TTL monitor runs about once a minute, so an expired token can still be present briefly
+        if (redeemed == null || redeemed.getExpiresAt().before(new Date())) {
+            return Optional.empty();
+        }
+        return Optional.of(redeemed);
+    }
+
+    private static Query forPrincipal(PrincipalType principalType, String principalId) {
+        return Query.query(Criteria.where("principalId").is(principalId).and("principalType").is(principalType));
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.config.MongoIndexes;
+import com.qualityeducation.model.PrincipalIdentity;
+import com.qualityeducation.model.PrincipalIdentity.PrincipalType;
+import com.qualityeducation.model.Supervisor;
+import com.qualityeducation.model.Teacher;
+import com.qualityeducation.model.User;
+import com.qualityeducation.repository.PrincipalIdentityRepository;
+import com.qualityeducation.repository.SupervisorRepository;
+import com.qualityeducation.repository.TeacherRepository;
+import com.qualityeducation.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves an email to its principal type, id and credentials through the
+ * {@code principal_identities} collection, fronted by a short TTL cache (misses
+ * are cached too). Logins check the password against the row and only then load
+ * the account by id. Services call {@code record(...)} whenever an account's email,
+ * password or status changes so the row and the cache stay current.
+ *
+ * Accounts created before the directory existed are found by falling back to the
+ * typed collections once and writing their row.
+ */
+@Service
+@Slf4j
+public class PrincipalDirectory {
+
+    private static final Index EMAIL_INDEX = new Index().on("email", Sort.Direction.ASC);
+
+    private final PrincipalIdentityRepository identityRepository;
+    private final TeacherRepository teacherRepository;
+    private final SupervisorRepository supervisorRepository;
+    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    private final Map<String, CachedIdentities> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PrincipalDirectory(PrincipalIdentityRepository identityRepository,
+            TeacherRepository teacherRepository,
+            SupervisorRepository supervisorRepository,
+            UserRepository userRepository,
+            MongoTemplate mongoTemplate,
+            MongoIndexes mongoIndexes,
+            @Value("${security.principal-directory.ttl-seconds:60}") long ttlSeconds,
+            @Value("${security.principal-directory.max-entries:10000}") int maxEntries) {
+        this.identityRepository = identityRepository;
+        this.teacherRepository = teacherRepository;
+        this.supervisorRepository = supervisorRepository;
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.mongoIndexes = mongoIndexes;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The account of the given type registered under an email, as used by that type's login.
+     */
+    public Optional<PrincipalIdentity> resolve(String email, PrincipalType type) {
+        List<PrincipalIdentity> identities = identities(email);
+        Optional<PrincipalIdentity> identity = identities.stream()
+                .filter(candidate -> candidate.getType() == type)
+                .findFirst();
+        if (identity.isPresent() || identities.isEmpty()) {
+            return identity;
+        }
+        // Another account shares the email; this one may predate the directory
+        PrincipalIdentity backfilled = switch (type) {
+            case TEACHER -> teacherRepository.findByEmail(email).map(PrincipalDirectory::identityOf).orElse(null);
+            case SUPERVISOR -> supervisorRepository.findByEmail(email).map(PrincipalDirectory::identityOf).orElse(null);
+            case STUDENT -> userRepository.findByEmail(email).map(PrincipalDirectory::identityOf).orElse(null);
+        };
+        if (backfilled != null) {
+            save(backfilled);
+        }
+        return Optional.ofNullable(backfilled);
+    }
+
+    private List<PrincipalIdentity> identities(String email) {
+        if (email == null) {
+            return List.of();
+        }
+
+        long now = System.currentTimeMillis();
+        CachedIdentities cached = cache.get(email);
+        if (cached != null && cached.expiresAtMillis() > now) {
+            hits.increment();
+            return cached.identities();
+        }
+
+        misses.increment();
+        mongoIndexes.ensure(PrincipalIdentity.class, EMAIL_INDEX);
+        List<PrincipalIdentity> identities = identityRepository.findByEmail(email).stream()
+                .sorted(Comparator.comparing(PrincipalIdentity::getType))
+                .toList();
+        if (identities.isEmpty()) {
+            identities = backfill(email);
+        }
+
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        cache.put(email, new CachedIdentities(identities, now + ttlMillis));
+        return identities;
+    }
+
+    public void record(Teacher teacher) {
+        save(identityOf(teacher));
+    }
+
+    public void record(Supervisor supervisor) {
+        save(identityOf(supervisor));
+    }
+
+    public void record(User user) {
+        save(identityOf(user));
+    }
+
+    /**
+     * Writes a re-hashed password to the principal's own collection and to its directory row.
+     */
+    public void updatePassword(PrincipalIdentity identity, String passwordHash) {
+        Class<?> entityClass = switch (identity.getType()) {
+            case TEACHER -> Teacher.class;
+            case SUPERVISOR -> Supervisor.class;
+            case STUDENT -> User.class;
+        };
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(identity.getPrincipalId())),
+                Update.update("password", passwordHash), entityClass);
+
+        identity.setPasswordHash(passwordHash);
+        save(identity);
+    }
+
+    public void invalidate(String email) {
+        cache.remove(email);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private void save(PrincipalIdentity identity) {
+        // Drop any cached entry for this principal, including one under a previous email
+        cache.entrySet().removeIf(entry -> entry.getValue().identities().stream()
+                .anyMatch(cached -> identity.getId().equals(cached.getId())));
+        cache.remove(identity.getEmail());
+
+        try {
+            identity.setUpdatedAt(LocalDateTime.now());
+            identityRepository.save(identity);
+        } catch (Exception e) {
+            log.error("Failed to record principal identity {}: {}", identity.getId(), e.getMessage());
+            // A missing row is rebuilt from the typed collections on next lookup; a stale one is not
+            try {
+                identityRepository.deleteById(identity.getId());
+            } catch (Exception ignored) {
+                log.warn("Principal identity {} may be stale until it is next recorded", identity.getId());
+            }
+        }
+    }
+
+    // Looks in the typed collections, in lookup precedence order, for accounts with no directory row yet
+    private List<PrincipalIdentity> backfill(String email) {
+        List<PrincipalIdentity> identities = new ArrayList<>();
+        teacherRepository.findByEmail(email).map(PrincipalDirectory::identityOf).ifPresent(identities::add);
+        supervisorRepository.findByEmail(email).map(PrincipalDirectory::identityOf).ifPresent(identities::add);
+        userRepository.findByEmail(email).map(PrincipalDirectory::identityOf).ifPresent(identities::add);
+        identities.forEach(this::save);
+        return List.copyOf(identities);
+    }
+
+    private static PrincipalIdentity identityOf(Teacher teacher) {
+        boolean enabled = teacher.getStatus() == Teacher.TeacherStatus.APPROVED
+                || teacher.getStatus() == Teacher.TeacherStatus.ACTIVE;
+        return identityOf(PrincipalType.TEACHER, teacher.getId(), teacher.getEmail(), teacher.getPassword(), enabled);
+    }
+
+    private static PrincipalIdentity identityOf(Supervisor supervisor) {
+        boolean enabled = supervisor.getStatus() == Supervisor.SupervisorStatus.APPROVED && supervisor.isActive();
+        return identityOf(PrincipalType.SUPERVISOR, supervisor.getId(), supervisor.getEmail(),
+                supervisor.getPassword(), enabled);
+    }
+
+    private static PrincipalIdentity identityOf(User user) {
+        return identityOf(PrincipalType.STUDENT, user.getId(), user.getEmail(), user.getPassword(), true);
+    }
+
+    private static PrincipalIdentity identityOf(PrincipalType type, String principalId, String email,
+            String passwordHash, boolean enabled) {
+        return PrincipalIdentity.builder()
+                .id(PrincipalIdentity.idFor(type, principalId))
+                .email(email)
+                .type(type)
+                .principalId(principalId)
+                .passwordHash(passwordHash)
+                .enabled(enabled)
+                .build();
+    }
+
+    private record CachedIdentities(List<PrincipalIdentity> identities, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.dto.LessonSummaryResponse;
+import com.qualityeducation.dto.ModuleWithLessonsResponse;
+import com.qualityeducation.dto.StudentDetailsResponse;
+import com.qualityeducation.model.CourseOutline;
+import com.qualityeducation.model.Enrollment;
+import com.qualityeducation.model.LessonProgressEntry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Joins a course's lessons, in outline order, with an enrollment's progress. Completion
+ * and quiz scores are read from the enrollment's slot-indexed arrays; the optional
+ * per-lesson history (already keyed by lesson id) adds progress, time spent and
+ * completion time, so the join is linear in lessons. Enrollments not yet migrated
+ * from the embedded {@code lessonProgress} list are read from that list instead.
+ */
+public final class ProgressJoin {
+
+    private ProgressJoin() {
+    }
+
+    public static List<StudentDetailsResponse.LessonProgress> lessons(CourseOutline outline, Enrollment enrollment,
+            Map<String, LessonProgressEntry> history) {
+        if (enrollment.getLessonProgress() != null) {
+            return legacyLessons(outline, enrollment.getLessonProgress());
+        }
+        List<StudentDetailsResponse.LessonProgress> lessons = new ArrayList<>();
+        for (ModuleWithLessonsResponse module : outline.getModules()) {
+            for (LessonSummaryResponse lesson : module.getLessons()) {
+                Integer slot = lesson.getSlot();
+                boolean completed = slot != null && SlotBits.isSet(enrollment.getCompletedSlots(), slot);
+                int score = slot != null ? Math.max(0, SlotBits.score(enrollment.getQuizScores(), slot)) : 0;
+                LessonProgressEntry entry = history.get(lesson.getId());
+                lessons.add(StudentDetailsResponse.LessonProgress.builder()
+                        .id(lesson.getId())
+                        .title(lesson.getTitle())
+                        .completed(completed)
+                        .progress(entry != null ? entry.getProgress() : (completed ? 100 : 0))
+                        .completedAt(entry != null ? entry.getCompletedAt() : null)
+                        .quizScore(score)
+                        .timeSpent(entry != null ? entry.getTimeSpent() : 0)
+                        .build());
+            }
+        }
+        return lessons;
+    }
+
+    private static List<StudentDetailsResponse.LessonProgress> legacyLessons(CourseOutline outline,
+            List<Enrollment.LessonProgress> legacy) {
+        // The first entry wins for a duplicated lesson id
+        Map<String, Enrollment.LessonProgress> byLesson = new HashMap<>();
+        for (Enrollment.LessonProgress entry : legacy) {
+            byLesson.putIfAbsent(entry.getLessonId(), entry);
+        }
+        List<StudentDetailsResponse.LessonProgress> lessons = new ArrayList<>();
+        for (ModuleWithLessonsResponse module : outline.getModules()) {
+            for (LessonSummaryResponse lesson : module.getLessons()) {
+                Enrollment.LessonProgress entry = byLesson.get(lesson.getId());
+                lessons.add(StudentDetailsResponse.LessonProgress.builder()
+                        .id(lesson.getId())
+                        .title(lesson.getTitle())
+                        .completed(entry != null && entry.isCompleted())
+                        .progress(entry != null ? entry.getProgress() : 0)
+                        .completedAt(entry != null ? entry.getCompletedAt() : null)
+                        .quizScore(entry != null ? entry.getQuizScore() : 0)
+                        .timeSpent(entry != null ? entry.getTimeSpent() : 0)
+                        .build());
+            }
+        }
+        return lessons;
+    }
+}
@@ -0,0 +1,157 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.dto.ApiResponse;
+import com.qualityeducation.dto.CursorPage;
+import com.qualityeducation.dto.LessonResponse;
+import com.qualityeducation.model.Lesson;
+import com.qualityeducation.repository.LessonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable, versioned snapshot of every published lesson, newest first. Public reads
+ * take the current snapshot without touching Mongo; {@link LessonService} applies each
+ * publish, unpublish, update, reorder and delete by copying the list and swapping the
+ * reference. The first read loads the snapshot; a periodic reload picks up changes
+ * made by other instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PublishedLessonCatalog {
+
+    // Ties on createdAt break on id so every lesson has a stable position for cursors
+    private static final Comparator<LessonResponse> NEWEST_FIRST = Comparator
+            .comparing(LessonResponse::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(LessonResponse::getId, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+
+    // Distinguishes this process's versions from another instance's, or from before a restart
+    private final String instanceTag = UUID.randomUUID().toString().substring(0, 8);
+
+    private final LessonRepository lessonRepository;
+
+    private volatile Snapshot snapshot;
+
+    public record Snapshot(long version, String etag, List<LessonResponse> lessons,
+            ApiResponse<List<LessonResponse>> response) {
+
+        /**
+         * Keyset page of the snapshot: a binary search finds where the cursor left off.
+         */
+        public CursorPage<LessonResponse> page(String cursor, Integer limit) {
+            int max = KeysetCursor.limit(limit).max();
+            int from = 0;
+            if (cursor != null && !cursor.isBlank()) {
+                int found = Collections.binarySearch(lessons, probe(KeysetCursor.decode(cursor)), NEWEST_FIRST);
+                from = found >= 0 ? found + 1 : -(found + 1);
+            }
+            int to = Math.min(lessons.size(), from + max);
+            String next = to < lessons.size() ? KeysetCursor.encode(keys(lessons.get(to - 1))) : null;
+            return new CursorPage<>(lessons.subList(from, to), next, max);
+        }
+
+        private static LessonResponse probe(Map<String, Object> keys) {
+            if (!(keys.get("_id") instanceof String id)
+                    || !(keys.get("createdAt") == null || keys.get("createdAt") instanceof LocalDateTime)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return LessonResponse.builder().id(id).createdAt((LocalDateTime) keys.get("createdAt")).build();
+        }
+
+        private static Map<String, Object> keys(LessonResponse lesson) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("createdAt", lesson.getCreatedAt());
+            keys.put("_id", lesson.getId());
+            return keys;
+        }
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = build(0, load());
+                    log.info("Loaded published lesson catalog with {} lessons", snapshot.lessons().size());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Applies a saved lesson: added or replaced when published, dropped otherwise.
+     */
+    public synchronized void apply(Lesson lesson) {
+        if (snapshot == null) {
+            return; // not loaded yet; the first read will see the change
+        }
+        List<LessonResponse> lessons = new ArrayList<>(snapshot.lessons());
+        boolean changed = lessons.removeIf(existing -> existing.getId().equals(lesson.getId()));
+        if (lesson.getStatus() == Lesson.LessonStatus.PUBLISHED) {
+            lessons.add(LessonResponse.fromLesson(lesson));
+            lessons.sort(NEWEST_FIRST);
+            changed = true;
+        }
+        if (changed) {
+            snapshot = build(snapshot.version() + 1, lessons);
+        }
+    }
+
+    public synchronized void remove(String lessonId) {
+        if (snapshot == null) {
+            return;
+        }
+        List<LessonResponse> lessons = new ArrayList<>(snapshot.lessons());
+        if (lessons.removeIf(existing -> existing.getId().equals(lessonId))) {
+            snapshot = build(snapshot.version() + 1, lessons);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${catalog.lessons.reload-interval-ms:300000}",
+            fixedDelayString = "${catalog.lessons.reload-interval-ms:300000}")
+    public void reload() {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            long loadedAtVersion = snapshot.version();
+            List<LessonResponse> lessons = load();
+            synchronized (this) {
+                // A local change applied during the load is newer than what was read
+                if (snapshot.version() == loadedAtVersion && !lessons.equals(snapshot.lessons())) {
+                    snapshot = build(snapshot.version() + 1, lessons);
+                    log.debug("Reloaded published lesson catalog at version {}", snapshot.version());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reload published lesson catalog: {}", e.getMessage());
+        }
+    }
+
+    private List<LessonResponse> load() {
+        return lessonRepository.findByStatusOrderByCreatedAtDesc(Lesson.LessonStatus.PUBLISHED).stream()
+                .map(LessonResponse::fromLesson)
+                .sorted(NEWEST_FIRST)
+                .toList();
+    }
+
+    private Snapshot build(long version, List<LessonResponse> lessons) {
+        List<LessonResponse> frozen = Collections.unmodifiableList(new ArrayList<>(lessons));
+        String etag = "\"" + instanceTag + "-" + version + "\"";
+        return new Snapshot(version, etag, frozen,
+                ApiResponse.success("Published lessons retrieved successfully", frozen));
+    }
+}
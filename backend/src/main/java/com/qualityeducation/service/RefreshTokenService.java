@@ -0,0 +1,197 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.config.JwtPrincipal;
+import com.qualityeducation.config.MongoIndexes;
+import com.qualityeducation.config.TokenRevocationList;
+import com.qualityeducation.model.PrincipalIdentity.PrincipalType;
+import com.qualityeducation.model.RefreshToken;
+import com.qualityeducation.model.Supervisor;
+import com.qualityeducation.model.Teacher;
+import com.qualityeducation.model.User;
+import com.qualityeducation.repository.SupervisorRepository;
+import com.qualityeducation.repository.TeacherRepository;
+import com.qualityeducation.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues short-lived access tokens paired with rotating refresh tokens. A login starts
+ * a session; each refresh spends the presented refresh token and returns a new pair in
+ * the same session. Presenting a spent token again means it leaked, so the whole
+ * session is revoked. Revocations go to {@link TokenRevocationList}, which the JWT
+ * filter checks in memory.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final Index EXPIRY_INDEX = new Index().on("expiresAt", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS);
+    private static final Index SESSION_INDEX = new Index().on("sessionId", Sort.Direction.ASC);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
+    private final JwtService jwtService;
+    private final TokenRevocationList revocationList;
+    private final TeacherRepository teacherRepository;
+    private final SupervisorRepository supervisorRepository;
+    private final UserRepository userRepository;
+    private final long refreshLifetimeMillis;
+    private final long accessLifetimeMillis;
+
+    public RefreshTokenService(MongoTemplate mongoTemplate,
+            MongoIndexes mongoIndexes,
+            JwtService jwtService,
+            TokenRevocationList revocationList,
+            TeacherRepository teacherRepository,
+            SupervisorRepository supervisorRepository,
+            UserRepository userRepository,
+            @Value("${jwt.refresh-expiration:1209600000}") long refreshLifetimeMillis,
+            @Value("${jwt.expiration}") long accessLifetimeMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoIndexes = mongoIndexes;
+        this.jwtService = jwtService;
+        this.revocationList = revocationList;
+        this.teacherRepository = teacherRepository;
+        this.supervisorRepository = supervisorRepository;
+        this.userRepository = userRepository;
+        this.refreshLifetimeMillis = refreshLifetimeMillis;
+        this.accessLifetimeMillis = accessLifetimeMillis;
+    }
+
+    public record TokenPair(String accessToken, String refreshToken) {
+    }
+
+    public TokenPair startSession(Teacher teacher) {
+        String sessionId = UUID.randomUUID().toString();
+        return new TokenPair(jwtService.generateToken(teacher, sessionId),
+                issue(sessionId, PrincipalType.TEACHER, teacher.getId()));
+    }
+
+    public TokenPair startSession(Supervisor supervisor) {
+        String sessionId = UUID.randomUUID().toString();
+        return new TokenPair(jwtService.generateToken(supervisor, sessionId),
+                issue(sessionId, PrincipalType.SUPERVISOR, supervisor.getId()));
+    }
+
+    public TokenPair startSession(User user) {
+        String sessionId = UUID.randomUUID().toString();
+        return new TokenPair(jwtService.generateToken(user, sessionId),
+                issue(sessionId, PrincipalType.STUDENT, user.getId()));
+    }
+
+    /**
+     * Spends the refresh token and returns a new pair in the same session. Empty when the
+     * token is unknown, expired, already spent, or its account can no longer sign in.
+     */
+    public Optional<TokenPair> rotate(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return Optional.empty();
+        }
+
+        String id = hash(refreshToken);
+        RefreshToken current = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id).and("used").is(false)),
+                Update.update("used", true),
+                RefreshToken.class);
+
+        if (current == null) {
+            RefreshToken spent = mongoTemplate.findById(id, RefreshToken.class);
+            if (spent != null) {
+                log.warn("Refresh token reuse detected for {} {}, revoking session {}",
+                        spent.getPrincipalType(), spent.getPrincipalId(), spent.getSessionId());
+                revokeSession(spent.getSessionId());
+            }
+            return Optional.empty();
+        }
+
+        if (current.getExpiresAt().before(new Date())) {
+            return Optional.empty();
+        }
+
+        String sessionId = current.getSessionId();
+        Optional<String> accessToken = switch (current.getPrincipalType()) {
+            case TEACHER -> teacherRepository.findById(current.getPrincipalId())
+                    .filter(teacher -> teacher.getStatus() == Teacher.TeacherStatus.APPROVED
+                            || teacher.getStatus() == Teacher.TeacherStatus.ACTIVE)
+                    .map(teacher -> jwtService.generateToken(teacher, sessionId));
+            case SUPERVISOR -> supervisorRepository.findById(current.getPrincipalId())
+                    .filter(supervisor -> supervisor.getStatus() == Supervisor.SupervisorStatus.APPROVED
+                            && supervisor.isActive())
+                    .map(supervisor -> jwtService.generateToken(supervisor, sessionId));
+            case STUDENT -> userRepository.findById(current.getPrincipalId())
+                    .map(user -> jwtService.generateToken(user, sessionId));
+        };
+
+        if (accessToken.isEmpty()) {
+            revokeSession(sessionId);
+            return Optional.empty();
+        }
+        return Optional.of(new TokenPair(accessToken.get(),
+                issue(sessionId, current.getPrincipalType(), current.getPrincipalId())));
+    }
+
+    /**
+     * Logs out: revokes the presented access token and, when it belongs to a session,
+     * the session's refresh tokens and any other access tokens it issued.
+     */
+    public void endSession(JwtPrincipal principal) {
+        revocationList.revokeToken(principal.getTokenId(), principal.getExpiresAtMillis());
+        if (principal.getSessionId() != null) {
+            revokeSession(principal.getSessionId());
+        }
+    }
+
+    public void revokeSession(String sessionId) {
+        // Access tokens from this session are at most one access lifetime old
+        revocationList.revokeSession(sessionId, System.currentTimeMillis() + accessLifetimeMillis);
+        mongoTemplate.remove(Query.query(Criteria.where("sessionId").is(sessionId)), RefreshToken.class);
+    }
+
+    private String issue(String sessionId, PrincipalType principalType, String principalId) {
+        mongoIndexes.ensure(RefreshToken.class, EXPIRY_INDEX, SESSION_INDEX);
+
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        long now = System.currentTimeMillis();
+        mongoTemplate.insert(RefreshToken.builder()
+                .id(hash(token))
+                .sessionId(sessionId)
+                .principalType(principalType)
+                .principalId(principalId)
+                .used(false)
+                .issuedAt(new Date(now))
+                .expiresAt(new Date(now + refreshLifetimeMillis))
+                .build());
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
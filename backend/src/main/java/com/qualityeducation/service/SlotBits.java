@@ -0,0 +1,95 @@
+package com.qualityeducation.service;
+
+import java.util.Arrays;
+
+/**
+ * Operations on the compact per-enrollment progress arrays, both indexed by lesson slot
+ * (see {@link LessonSlots}):
+ *
+ * <ul>
+ *   <li>completion: a little-endian bitset, bit {@code n} of byte {@code n / 8} set when
+ *   the lesson in slot {@code n} is completed;</li>
+ *   <li>scores: one byte per slot holding the quiz score plus one, so 0 means not
+ *   attempted and scores 0-100 fit an unsigned byte.</li>
+ * </ul>
+ *
+ * Arrays grow on write and a missing array reads as all zeros, so a course can gain
+ * lessons without touching existing enrollments.
+ */
+public final class SlotBits {
+
+    private SlotBits() {
+    }
+
+    public static boolean isSet(byte[] bits, int slot) {
+        int index = slot >>> 3;
+        return bits != null && index < bits.length && (bits[index] & (1 << (slot & 7))) != 0;
+    }
+
+    public static byte[] set(byte[] bits, int slot) {
+        byte[] result = grow(bits, (slot >>> 3) + 1);
+        result[slot >>> 3] |= (byte) (1 << (slot & 7));
+        return result;
+    }
+
+    public static byte[] of(Iterable<Integer> slots) {
+        byte[] bits = new byte[0];
+        for (Integer slot : slots) {
+            if (slot != null) {
+                bits = set(bits, slot);
+            }
+        }
+        return bits;
+    }
+
+    public static int cardinality(byte[] bits) {
+        if (bits == null) {
+            return 0;
+        }
+        int count = 0;
+        for (byte b : bits) {
+            count += Integer.bitCount(b & 0xFF);
+        }
+        return count;
+    }
+
+    /**
+     * Number of slots set in both arrays, e.g. completed lessons that still exist.
+     */
+    public static int andCardinality(byte[] a, byte[] b) {
+        if (a == null || b == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0, n = Math.min(a.length, b.length); i < n; i++) {
+            count += Integer.bitCount(a[i] & b[i] & 0xFF);
+        }
+        return count;
+    }
+
+    /**
+     * The quiz score recorded for a slot, or -1 when none was.
+     */
+    public static int score(byte[] scores, int slot) {
+        if (scores == null || slot >= scores.length) {
+            return -1;
+        }
+        return (scores[slot] & 0xFF) - 1;
+    }
+
+    public static byte[] withScore(byte[] scores, int slot, int score) {
+        if (score < 0 || score > 100) {
+            throw new IllegalArgumentException("Quiz score must be between 0 and 100");
+        }
+        byte[] result = grow(scores, slot + 1);
+        result[slot] = (byte) (score + 1);
+        return result;
+    }
+
+    private static byte[] grow(byte[] array, int length) {
+        if (array == null) {
+            return new byte[length];
+        }
+        return array.length >= length ? array.clone() : Arrays.copyOf(array, length);
+    }
+}
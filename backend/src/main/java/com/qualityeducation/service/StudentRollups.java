@@ -0,0 +1,288 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.model.Enrollment;
+import com.qualityeducation.model.StudentRollup;
+import com.qualityeducation.repository.EnrollmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Maintains one {@link StudentRollup} per student. Every enrollment contributes a fixed
+ * set of figures (see {@link Contribution}); when an enrollment changes, the difference
+ * between its old and new contribution is applied to the student's rollup as one
+ * {@code $inc}, and its streak is set, so the dashboard never has to aggregate the
+ * enrollments. The update only matches while the rollup holds the enrollment at its old
+ * progress version, and moves it to the new one, so a change already counted, whether
+ * by a repeated event or by a rollup computed after the write, is never applied again.
+ * A student without a rollup yet gets one computed from all their enrollments, inserted
+ * only if no other writer created it first. Changes published on the
+ * {@link DomainEventBus} are merged per enrollment across a batch and applied as one
+ * update each.
+ *
+ * {@link #rebuildAll()} recomputes every rollup from the enrollments, for drift after a
+ * failed update or a change made directly in the database.
+ */
+@Component
+@Slf4j
+public class StudentRollups implements DomainEventSubscriber {
+
+    private final MongoTemplate mongoTemplate;
+    private final EnrollmentRepository enrollmentRepository;
+    private final int rebuildThreads;
+
+    private final LongAdder failedUpdates = new LongAdder();
+
+    public StudentRollups(MongoTemplate mongoTemplate,
+            EnrollmentRepository enrollmentRepository,
+            @Value("${rollups.students.rebuild-threads:4}") int rebuildThreads) {
+        this.mongoTemplate = mongoTemplate;
+        this.enrollmentRepository = enrollmentRepository;
+        this.rebuildThreads = Math.max(1, rebuildThreads);
+    }
+
+    /**
+     * What one enrollment adds to its student's rollup, as of its {@code version}, the
+     * enrollment's {@code progressVersion}.
+     */
+    public record Contribution(long coursesEnrolled, long coursesCompleted, long totalLessons,
+            long completedLessons, long quizzesScored, long quizScoreSum, long timeSpent, int currentStreak,
+            long version) {
+
+        public static final Contribution NONE = new Contribution(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+        public static Contribution of(Enrollment enrollment) {
+            long scored = 0;
+            long scoreSum = 0;
+            if (enrollment.getQuizScores() != null) {
+                for (byte stored : enrollment.getQuizScores()) {
+                    if (stored != 0) {
+                        scored++;
+                        scoreSum += (stored & 0xFF) - 1;
+                    }
+                }
+            }
+            return new Contribution(1, "completed".equals(enrollment.getStatus()) ? 1 : 0,
+                    enrollment.getTotalLessons(), enrollment.getCompletedLessons(), scored, scoreSum,
+                    enrollment.getTotalTimeSpent(), enrollment.getCurrentStreak(), enrollment.getProgressVersion());
+        }
+
+        Contribution plus(Contribution other) {
+            return new Contribution(coursesEnrolled + other.coursesEnrolled, coursesCompleted + other.coursesCompleted,
+                    totalLessons + other.totalLessons, completedLessons + other.completedLessons,
+                    quizzesScored + other.quizzesScored, quizScoreSum + other.quizScoreSum,
+                    timeSpent + other.timeSpent, Math.max(currentStreak, other.currentStreak), 0);
+        }
+    }
+
+    /**
+     * The student's rollup, computed from their enrollments on first access.
+     */
+    public StudentRollup rollup(String studentId) {
+        StudentRollup rollup = mongoTemplate.findById(studentId, StudentRollup.class);
+        if (rollup != null) {
+            return rollup;
+        }
+        seed(studentId);
+        return mongoTemplate.findById(studentId, StudentRollup.class);
+    }
+
+    /**
+     * Inserts the student's rollup computed from their enrollments, unless it exists by
+     * now; a rollup another writer created first is kept along with any changes applied
+     * to it since.
+     */
+    private void seed(String studentId) {
+        StudentRollup seeded = toRollup(studentId, enrollmentRepository.findByStudentId(studentId),
+                LocalDateTime.now());
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(studentId)), new Update()
+                .setOnInsert("coursesEnrolled", seeded.getCoursesEnrolled())
+                .setOnInsert("coursesCompleted", seeded.getCoursesCompleted())
+                .setOnInsert("totalLessons", seeded.getTotalLessons())
+                .setOnInsert("completedLessons", seeded.getCompletedLessons())
+                .setOnInsert("quizzesScored", seeded.getQuizzesScored())
+                .setOnInsert("quizScoreSum", seeded.getQuizScoreSum())
+                .setOnInsert("timeSpent", seeded.getTimeSpent())
+                .setOnInsert("streaks", seeded.getStreaks())
+                .setOnInsert("versions", seeded.getVersions())
+                .setOnInsert("updatedAt", seeded.getUpdatedAt())
+                .setOnInsert("rebuiltAt", seeded.getRebuiltAt()), StudentRollup.class);
+    }
+
+    private record Change(String studentId, Contribution before, Contribution after) {
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Map<String, Change> changes = new LinkedHashMap<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.EnrollmentProgressed progressed) {
+                merge(changes, progressed.enrollmentId(), progressed.studentId(), progressed.before(),
+                        progressed.after());
+            } else if (event instanceof DomainEvent.EnrollmentCreated created) {
+                merge(changes, created.enrollmentId(), created.studentId(), Contribution.NONE,
+                        created.contribution());
+            }
+        }
+        changes.forEach((enrollmentId, change) ->
+                enrollmentChanged(change.studentId(), enrollmentId, change.before(), change.after()));
+    }
+
+    // Events arrive in write order, so the merged change runs from the first before to the last after
+    private static void merge(Map<String, Change> changes, String enrollmentId, String studentId,
+            Contribution before, Contribution after) {
+        changes.merge(enrollmentId, new Change(studentId, before, after),
+                (first, last) -> new Change(first.studentId(), first.before(), last.after()));
+    }
+
+    /**
+     * Applies a change to one enrollment to the student's rollup, unless the rollup has
+     * already counted it. A student without a rollup gets one computed from their
+     * enrollments, which already include the change. Never throws, so a rollup problem
+     * cannot fail the write that triggered it.
+     */
+    public void enrollmentChanged(String studentId, String enrollmentId, Contribution before, Contribution after) {
+        if (studentId == null || enrollmentId == null) {
+            return;
+        }
+        String version = "versions." + enrollmentId;
+        // A new enrollment is counted only if absent, a changed one only at its old version
+        Criteria counted = before.equals(Contribution.NONE)
+                ? Criteria.where(version).exists(false)
+                : Criteria.where(version).is(before.version());
+        Query uncounted = Query.query(new Criteria().andOperator(Criteria.where("_id").is(studentId), counted));
+        Update update = new Update()
+                .inc("coursesEnrolled", after.coursesEnrolled() - before.coursesEnrolled())
+                .inc("coursesCompleted", after.coursesCompleted() - before.coursesCompleted())
+                .inc("totalLessons", after.totalLessons() - before.totalLessons())
+                .inc("completedLessons", after.completedLessons() - before.completedLessons())
+                .inc("quizzesScored", after.quizzesScored() - before.quizzesScored())
+                .inc("quizScoreSum", after.quizScoreSum() - before.quizScoreSum())
+                .inc("timeSpent", after.timeSpent() - before.timeSpent())
+                .set("streaks." + enrollmentId, after.currentStreak())
+                .set(version, after.version())
+                .set("updatedAt", LocalDateTime.now());
+        try {
+            if (mongoTemplate.updateFirst(uncounted, update, StudentRollup.class).getMatchedCount() == 0
+                    && !mongoTemplate.exists(Query.query(Criteria.where("_id").is(studentId)), StudentRollup.class)) {
+                seed(studentId);
+                // A rollup another writer seeded from enrollments read before this change lacks it
+                mongoTemplate.updateFirst(uncounted, update, StudentRollup.class);
+            }
+        } catch (Exception e) {
+            failedUpdates.increment();
+            log.warn("Failed to update rollup for student {}: {}", studentId, e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes every student's rollup. Enrollments are streamed once, grouped by
+     * student, and each finished rollup is written on a pool of
+     * {@code rollups.students.rebuild-threads} writers. Rollups of students who no longer
+     * have enrollments are removed. Returns the number of rollups written.
+     */
+    public int rebuildAll() throws InterruptedException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor writers = new ThreadPoolExecutor(rebuildThreads, rebuildThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(rebuildThreads * 64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rollup-rebuild-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // A full queue makes the reading thread write too, which bounds memory
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        AtomicInteger written = new AtomicInteger();
+        try (Stream<Enrollment> enrollments = enrollmentRepository.streamRollupInputsOrderByStudentId()) {
+            String studentId = null;
+            List<Enrollment> ofStudent = new ArrayList<>();
+            for (Enrollment enrollment : (Iterable<Enrollment>) enrollments::iterator) {
+                if (studentId != null && !studentId.equals(enrollment.getStudentId())) {
+                    submit(writers, studentId, ofStudent, startedAt, written);
+                    ofStudent = new ArrayList<>();
+                }
+                studentId = enrollment.getStudentId();
+                ofStudent.add(enrollment);
+            }
+            if (studentId != null) {
+                submit(writers, studentId, ofStudent, startedAt, written);
+            }
+        } finally {
+            writers.shutdown();
+            writers.awaitTermination(10, TimeUnit.MINUTES);
+        }
+
+        // Neither rebuilt now nor updated since the rebuild started
+        Query stale = Query.query(new Criteria().andOperator(
+                new Criteria().orOperator(Criteria.where("rebuiltAt").lt(startedAt),
+                        Criteria.where("rebuiltAt").exists(false)),
+                new Criteria().orOperator(Criteria.where("updatedAt").lt(startedAt),
+                        Criteria.where("updatedAt").exists(false))));
+        long removed = mongoTemplate.remove(stale, StudentRollup.class).getDeletedCount();
+
+        log.info("Rebuilt {} student rollups and removed {} stale ones", written.get(), removed);
+        return written.get();
+    }
+
+    public long getFailedUpdateCount() {
+        return failedUpdates.sum();
+    }
+
+    private void submit(ThreadPoolExecutor writers, String studentId, List<Enrollment> enrollments,
+            LocalDateTime startedAt, AtomicInteger written) {
+        writers.execute(() -> {
+            try {
+                mongoTemplate.save(toRollup(studentId, enrollments, startedAt));
+                written.incrementAndGet();
+            } catch (Exception e) {
+                failedUpdates.increment();
+                log.warn("Failed to rebuild rollup for student {}: {}", studentId, e.getMessage());
+            }
+        });
+    }
+
+    private static StudentRollup toRollup(String studentId, List<Enrollment> enrollments, LocalDateTime rebuiltAt) {
+        Contribution total = Contribution.NONE;
+        Map<String, Integer> streaks = new HashMap<>();
+        Map<String, Long> versions = new HashMap<>();
+        for (Enrollment enrollment : enrollments) {
+            Contribution contribution = Contribution.of(enrollment);
+            total = total.plus(contribution);
+            streaks.put(enrollment.getId(), contribution.currentStreak());
+            versions.put(enrollment.getId(), contribution.version());
+        }
+        return StudentRollup.builder()
+                .studentId(studentId)
+                .coursesEnrolled(total.coursesEnrolled())
+                .coursesCompleted(total.coursesCompleted())
+                .totalLessons(total.totalLessons())
+                .completedLessons(total.completedLessons())
+                .quizzesScored(total.quizzesScored())
+                .quizScoreSum(total.quizScoreSum())
+                .timeSpent(total.timeSpent())
+                .streaks(streaks)
+                .versions(versions)
+                .updatedAt(LocalDateTime.now())
+                .rebuiltAt(rebuiltAt)
+                .build();
+    }
+}
@@ -1,18 +1,20 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.model.Activity;
+import com.qualityeducation.model.StudentRollup;
 import com.qualityeducation.model.User;
+import com.qualityeducation.repository.ActivityRepository;
 import com.qualityeducation.repository.UserRepository;
 import com.qualityeducation.dto.ApiResponse;
+import com.qualityeducation.dto.CursorPage;
 import com.qualityeducation.dto.StudentProfileResponse;
 import com.qualityeducation.dto.StudentStatsResponse;
 import com.qualityeducation.dto.StudentActivityResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.Optional;
-import java.util.ArrayList;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @Service
@@ -20,6 +22,14 @@ import java.time.format.DateTimeFormatter;
 public class StudentService {
     
     private final UserRepository userRepository;
+    private final PrincipalDirectory principalDirectory;
+    private final StudentRollups studentRollups;
+    private final ActivityRepository activityRepository;
+    private final ActivityFeed activityFeed;
+    
+    static final int XP_PER_LESSON = 50;
+    static final int XP_PER_COURSE = 500;
+    private static final int XP_PER_LEVEL = 1000;
     
     public ApiResponse<StudentProfileResponse> getStudentProfile(String studentId) {
         try {
@@ -63,6 +73,7 @@ public class StudentService {
             }
             
             User savedStudent = userRepository.save(student);
+            principalDirectory.record(savedStudent);
             StudentProfileResponse response = mapToProfileResponse(savedStudent);
             
             return ApiResponse.success("Profile updated successfully", response);
@@ -73,18 +84,27 @@ public class StudentService {
     
     public ApiResponse<StudentStatsResponse> getStudentStats(String studentId) {
         try {
-            // In a real implementation, you would fetch actual stats from various collections
+            // One read of the student's rollup, kept current as progress is recorded
+            StudentRollup rollup = studentRollups.rollup(studentId);
+            
+            int completedLessons = (int) rollup.getCompletedLessons();
+            int coursesCompleted = (int) rollup.getCoursesCompleted();
+            int totalXP = completedLessons * XP_PER_LESSON + coursesCompleted * XP_PER_COURSE;
+            int averageScore = rollup.getQuizzesScored() > 0
+                ? (int) Math.round((double) rollup.getQuizScoreSum() / rollup.getQuizzesScored())
+                : 0;
+            
             StudentStatsResponse stats = StudentStatsResponse.builder()
-                .coursesEnrolled(3)
-                .coursesCompleted(1)
-                .totalXP(2450)
-                .currentLevel(5)
-                .currentStreak(7)
-                .totalLessons(45)
-                .completedLessons(34)
-                .averageScore(87)
-                .timeSpent("24h 30m")
-                .achievementsUnlocked(8)
+                .coursesEnrolled((int) rollup.getCoursesEnrolled())
+                .coursesCompleted(coursesCompleted)
+                .totalXP(totalXP)
+                .currentLevel(1 + totalXP / XP_PER_LEVEL)
+                .currentStreak(rollup.getCurrentStreak())
+                .totalLessons((int) rollup.getTotalLessons())
+                .completedLessons(completedLessons)
+                .averageScore(averageScore)
+                .timeSpent(rollup.getTimeSpent() / 60 + "h " + rollup.getTimeSpent() % 60 + "m")
+                .achievementsUnlocked(achievementsUnlocked(rollup, averageScore))
                 .build();
             
             return ApiResponse.success("Stats retrieved successfully", stats);
@@ -93,38 +113,56 @@ public class StudentService {
         }
     }
     
-    public ApiResponse<List<StudentActivityResponse>> getStudentActivities(String studentId) {
+    // Milestones derived from the rollup, so they can never disagree with it
+    private static int achievementsUnlocked(StudentRollup rollup, int averageScore) {
+        boolean[] achievements = {
+            rollup.getCompletedLessons() >= 1,
+            rollup.getCompletedLessons() >= 10,
+            rollup.getCompletedLessons() >= 50,
+            rollup.getCoursesCompleted() >= 1,
+            rollup.getCoursesCompleted() >= 5,
+            rollup.getQuizzesScored() >= 5 && averageScore >= 90,
+            rollup.getTimeSpent() >= 10 * 60,
+            rollup.getCurrentStreak() >= 7
+        };
+        int unlocked = 0;
+        for (boolean achieved : achievements) {
+            if (achieved) {
+                unlocked++;
+            }
+        }
+        return unlocked;
+    }
+    
+    public ApiResponse<CursorPage<StudentActivityResponse>> getStudentActivities(String studentId, String cursor,
+            Integer limit) {
         try {
-            // In a real implementation, you would fetch actual activities from the database
-            List<StudentActivityResponse> activities = new ArrayList<>();
-            
-            activities.add(StudentActivityResponse.builder()
-                .id("1")
-                .type("lesson_completed")
-                .title("Completed lesson: Daily Conversations")
-                .description("Advanced Conversation Course")
-                .timestamp(LocalDateTime.now().minusHours(2).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                .xpGained(50)
-                .status("completed")
-                .build());
-                
-            activities.add(StudentActivityResponse.builder()
-                .id("2")
-                .type("quiz_completed")
-                .title("Quiz: Grammar Fundamentals")
-                .description("Scored 95% on quiz")
-                .timestamp(LocalDateTime.now().minusHours(5).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                .xpGained(25)
-                .score(95)
-                .status("completed")
-                .build());
+            activityFeed.ensureIndexes();
+            Limit pageLimit = KeysetCursor.limit(limit);
+            CursorPage<StudentActivityResponse> page = KeysetCursor.page(
+                activityRepository.findByActorIdOrderByTimestampDesc(studentId, KeysetCursor.position(cursor), pageLimit),
+                pageLimit, this::mapToActivityResponse);
             
-            return ApiResponse.success("Activities retrieved successfully", activities);
+            return ApiResponse.success("Activities retrieved successfully", page);
         } catch (Exception e) {
             return ApiResponse.error("Failed to retrieve activities", e.getMessage());
         }
     }
     
+    private StudentActivityResponse mapToActivityResponse(Activity activity) {
+        return StudentActivityResponse.builder()
+            .id(activity.getId())
+            .type(activity.getType())
+            .title(activity.getTitle())
+            .description(activity.getDescription())
+            .timestamp(activity.getTimestamp() != null
+                ? activity.getTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null)
+            .xpGained(activity.getXpGained())
+            .score(activity.getScore())
+            .status(activity.getStatus())
+            .build();
+    }
+    
     private StudentProfileResponse mapToProfileResponse(User student) {
         return StudentProfileResponse.builder()
             .id(student.getId())
@@ -0,0 +1,221 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.dto.SupervisorStatsResponse;
+import com.qualityeducation.model.Course;
+import com.qualityeducation.model.Enrollment;
+import com.qualityeducation.model.StatsCounters;
+import com.qualityeducation.model.Teacher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the {@link StatsCounters} documents so the supervisor dashboard is one
+ * point read instead of scans over teachers, courses and enrollments. Services report
+ * each change as it happens, directly or through the {@link DomainEventBus}, and it is
+ * applied as an upserted {@code $inc}; a counter update never fails the write that
+ * triggered it.
+ *
+ * Counters can still drift (a failed update, a write made directly in the database, a
+ * race between a read and its save), so a periodic reconciliation recounts everything
+ * from the source collections and overwrites the documents.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SupervisorCounters implements DomainEventSubscriber {
+
+    private static final List<Teacher.TeacherStatus> ACTIVE_STATUSES =
+            List.of(Teacher.TeacherStatus.APPROVED, Teacher.TeacherStatus.ACTIVE);
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Platform figures plus the supervisor's own review counts, read together in one
+     * query. Counters are reconciled on first use if they never have been; an increment
+     * can create the platform document before that, holding only its own counter.
+     */
+    public SupervisorStatsResponse stats(String supervisorId) {
+        Map<String, StatsCounters> counters = read(supervisorId);
+        StatsCounters reconciled = counters.get(StatsCounters.PLATFORM_ID);
+        if (reconciled == null || reconciled.getReconciledAt() == null) {
+            reconcile();
+            counters = read(supervisorId);
+        }
+        StatsCounters platform = counters.getOrDefault(StatsCounters.PLATFORM_ID, new StatsCounters());
+        StatsCounters supervisor = counters.getOrDefault(StatsCounters.supervisorId(supervisorId), new StatsCounters());
+
+        double approvalRate = supervisor.getCompletedReviews() > 0
+                ? Math.round(supervisor.getApprovedReviews() * 1000.0 / supervisor.getCompletedReviews()) / 10.0
+                : 0.0;
+        return SupervisorStatsResponse.builder()
+                .teachersSupervised(toInt(platform.getActiveTeachers()))
+                .coursesOverseeing(toInt(platform.getCourses()))
+                .studentsImpacted(toInt(platform.getStudents()))
+                .completedReviews(toInt(supervisor.getCompletedReviews()))
+                .pendingReviews(toInt(platform.getPendingTeachers()))
+                .approvalRate(approvalRate)
+                .build();
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        int firstEnrollments = 0;
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.TeacherReviewed reviewed) {
+                teacherReviewed(reviewed.previousStatus(), reviewed.previousReviewer(), reviewed.decision(),
+                        reviewed.supervisorId());
+            } else if (event instanceof DomainEvent.EnrollmentCreated created && created.firstForStudent()) {
+                firstEnrollments++;
+            }
+        }
+        if (firstEnrollments > 0) {
+            inc(StatsCounters.PLATFORM_ID, new Update().inc("students", firstEnrollments));
+        }
+    }
+
+    public void teacherRegistered() {
+        inc(StatsCounters.PLATFORM_ID, new Update().inc("pendingTeachers", 1));
+    }
+
+    /**
+     * Records a supervisor's decision on a teacher application, given the teacher's
+     * status and reviewer before it. A teacher counts towards the reviews of whoever
+     * decided last, so a re-review moves it from the previous reviewer to the new one.
+     */
+    public void teacherReviewed(Teacher.TeacherStatus previousStatus, String previousReviewer,
+            Teacher.TeacherStatus decision, String supervisorId) {
+        int activeDelta = (isActive(decision) ? 1 : 0) - (isActive(previousStatus) ? 1 : 0);
+        int pendingDelta = previousStatus == Teacher.TeacherStatus.PENDING ? -1 : 0;
+        if (activeDelta != 0 || pendingDelta != 0) {
+            inc(StatsCounters.PLATFORM_ID, new Update()
+                    .inc("activeTeachers", activeDelta)
+                    .inc("pendingTeachers", pendingDelta));
+        }
+        if (previousReviewer != null) {
+            inc(StatsCounters.supervisorId(previousReviewer), new Update()
+                    .inc("completedReviews", -1)
+                    .inc("approvedReviews", isActive(previousStatus) ? -1 : 0));
+        }
+        if (supervisorId != null) {
+            inc(StatsCounters.supervisorId(supervisorId), new Update()
+                    .inc("completedReviews", 1)
+                    .inc("approvedReviews", isActive(decision) ? 1 : 0));
+        }
+    }
+
+    public void courseCreated() {
+        inc(StatsCounters.PLATFORM_ID, new Update().inc("courses", 1));
+    }
+
+    public void courseDeleted() {
+        inc(StatsCounters.PLATFORM_ID, new Update().inc("courses", -1));
+    }
+
+    @Scheduled(initialDelayString = "${stats.supervisor.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${stats.supervisor.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            long activeTeachers = mongoTemplate.count(
+                    Query.query(Criteria.where("status").in(ACTIVE_STATUSES)), Teacher.class);
+            long pendingTeachers = mongoTemplate.count(
+                    Query.query(Criteria.where("status").is(Teacher.TeacherStatus.PENDING)), Teacher.class);
+            long courses = mongoTemplate.count(new Query(), Course.class);
+            Document students = mongoTemplate.aggregate(Aggregation.newAggregation(
+                            Aggregation.group("studentId"),
+                            Aggregation.count().as("students")), Enrollment.class, Document.class)
+                    .getUniqueMappedResult();
+
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(StatsCounters.PLATFORM_ID)), new Update()
+                    .set("activeTeachers", activeTeachers)
+                    .set("pendingTeachers", pendingTeachers)
+                    .set("courses", courses)
+                    .set("students", students != null ? ((Number) students.get("students")).longValue() : 0L)
+                    .set("updatedAt", now)
+                    .set("reconciledAt", now), StatsCounters.class);
+
+            int supervisors = reconcileReviews(now);
+            log.info("Reconciled supervisor counters: {} active teachers, {} courses, {} supervisors with reviews",
+                    activeTeachers, courses, supervisors);
+        } catch (Exception e) {
+            log.warn("Failed to reconcile supervisor counters: {}", e.getMessage());
+        }
+    }
+
+    private int reconcileReviews(LocalDateTime now) {
+        List<Document> reviews = mongoTemplate.aggregate(Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("reviewedBy").ne(null)),
+                Aggregation.group("reviewedBy")
+                        .count().as("completedReviews")
+                        .sum(ConditionalOperators.when(BooleanOperators.Or.or(
+                                        ComparisonOperators.valueOf("status").equalToValue(Teacher.TeacherStatus.APPROVED.name()),
+                                        ComparisonOperators.valueOf("status").equalToValue(Teacher.TeacherStatus.ACTIVE.name())))
+                                .then(1)
+                                .otherwise(0)).as("approvedReviews")), Teacher.class, Document.class)
+                .getMappedResults();
+
+        // Supervisors whose reviews all moved elsewhere go back to zero
+        List<String> ids = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StatsCounters.class);
+        for (Document review : reviews) {
+            String id = StatsCounters.supervisorId(review.getString("_id"));
+            ids.add(id);
+            bulk.upsert(Query.query(Criteria.where("_id").is(id)), new Update()
+                    .set("completedReviews", ((Number) review.get("completedReviews")).longValue())
+                    .set("approvedReviews", ((Number) review.get("approvedReviews")).longValue())
+                    .set("updatedAt", now)
+                    .set("reconciledAt", now));
+        }
+        bulk.updateMulti(Query.query(Criteria.where("_id").regex("^supervisor:").nin(ids)), new Update()
+                .set("completedReviews", 0L)
+                .set("approvedReviews", 0L)
+                .set("updatedAt", now)
+                .set("reconciledAt", now));
+        bulk.execute();
+        return reviews.size();
+    }
+
+    private Map<String, StatsCounters> read(String supervisorId) {
+        Query query = Query.query(Criteria.where("_id")
+                .in(StatsCounters.PLATFORM_ID, StatsCounters.supervisorId(supervisorId)));
+        return mongoTemplate.find(query, StatsCounters.class).stream()
+                .collect(Collectors.toMap(StatsCounters::getId, Function.identity()));
+    }
+
+    private void inc(String id, Update update) {
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(id)), update.set("updatedAt", LocalDateTime.now()),
+                    StatsCounters.class);
+        } catch (Exception e) {
+            // The next reconciliation corrects the missed increment
+            log.warn("Failed to update stats counters {}: {}", id, e.getMessage());
+        }
+    }
+
+    private static boolean isActive(Teacher.TeacherStatus status) {
+        return status != null && ACTIVE_STATUSES.contains(status);
+    }
+
+    private static int toInt(long value) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, value));
+    }
+}
@@ -1,10 +1,14 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.config.BoundedPasswordEncoder;
+import com.qualityeducation.config.PasswordHashingRejectedException;
 import com.qualityeducation.dto.*;
+import com.qualityeducation.model.PrincipalIdentity;
 import com.qualityeducation.model.Supervisor;
+import com.qualityeducation.repository.ActivityRepository;
 import com.qualityeducation.repository.SupervisorRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -16,8 +20,16 @@ import java.util.Optional;
 public class SupervisorService {
     
     private final SupervisorRepository supervisorRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final BoundedPasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final PrincipalDirectory principalDirectory;
+    private final RefreshTokenService refreshTokenService;
+    private final SupervisorCounters supervisorCounters;
+    private final StudentRollups studentRollups;
+    private final EnrollmentProgressService enrollmentProgressService;
+    private final ActivityRepository activityRepository;
+    private final ActivityFeed activityFeed;
+    private final CourseStructureCounts courseStructureCounts;
 
     public ApiResponse<SupervisorResponse> getSupervisorProfile(String supervisorId) {
         try {
@@ -87,15 +99,8 @@ public class SupervisorService {
                 return ApiResponse.error("Supervisor not found");
             }
             
-            // For now, return mock data. You can implement actual calculations later
-            SupervisorStatsResponse stats = SupervisorStatsResponse.builder()
-                    .teachersSupervised(15)
-                    .coursesOverseeing(32)
-                    .studentsImpacted(1250)
-                    .completedReviews(89)
-                    .pendingReviews(5)
-                    .approvalRate(94.5)
-                    .build();
+            // Served from the maintained counters in one read
+            SupervisorStatsResponse stats = supervisorCounters.stats(supervisorId);
             
             return ApiResponse.success("Stats retrieved successfully", stats);
         } catch (Exception e) {
@@ -103,43 +108,27 @@ public class SupervisorService {
         }
     }
 
-    public ApiResponse<List<SupervisorActivityResponse>> getSupervisorActivities(String supervisorId) {
+    public ApiResponse<CursorPage<SupervisorActivityResponse>> getSupervisorActivities(String supervisorId,
+            String cursor, Integer limit) {
         try {
-            Optional<Supervisor> supervisorOpt = supervisorRepository.findById(supervisorId);
-            
-            if (supervisorOpt.isEmpty()) {
+            if (!supervisorRepository.existsById(supervisorId)) {
                 return ApiResponse.error("Supervisor not found");
             }
             
-            // For now, return mock data. You can implement actual activity tracking later
-            List<SupervisorActivityResponse> activities = List.of(
-                SupervisorActivityResponse.builder()
-                    .id("1")
-                    .type("review")
-                    .title("Course Review Completed")
-                    .description("Reviewed 'Advanced Spanish Grammar' course by Maria Garcia")
-                    .timestamp(LocalDateTime.now().minusHours(2))
-                    .status("approved")
-                    .build(),
-                SupervisorActivityResponse.builder()
-                    .id("2")
-                    .type("meeting")
-                    .title("Teacher Training Session")
-                    .description("Conducted monthly training on interactive teaching methods")
-                    .timestamp(LocalDateTime.now().minusDays(1))
-                    .status("completed")
-                    .build(),
-                SupervisorActivityResponse.builder()
-                    .id("3")
-                    .type("evaluation")
-                    .title("Quality Assessment")
-                    .description("Evaluated new French course content structure")
-                    .timestamp(LocalDateTime.now().minusDays(3))
-                    .status("in-progress")
-                    .build()
-            );
+            activityFeed.ensureIndexes();
+            Limit pageLimit = KeysetCursor.limit(limit);
+            CursorPage<SupervisorActivityResponse> page = KeysetCursor.page(
+                activityRepository.findByActorIdOrderByTimestampDesc(supervisorId, KeysetCursor.position(cursor), pageLimit),
+                pageLimit, activity -> SupervisorActivityResponse.builder()
+                    .id(activity.getId())
+                    .type(activity.getType())
+                    .title(activity.getTitle())
+                    .description(activity.getDescription())
+                    .timestamp(activity.getTimestamp())
+                    .status(activity.getStatus())
+                    .build());
             
-            return ApiResponse.success("Activities retrieved successfully", activities);
+            return ApiResponse.success("Activities retrieved successfully", page);
         } catch (Exception e) {
             return ApiResponse.error("Failed to retrieve activities", e.getMessage());
         }
@@ -175,6 +164,7 @@ public class SupervisorService {
             supervisor.setUpdatedAt(LocalDateTime.now());
             
             supervisor = supervisorRepository.save(supervisor);
+            principalDirectory.record(supervisor);
             
             SupervisorResponse response = mapToResponse(supervisor);
             return ApiResponse.success("Registration successful. Please wait for approval.", response);
@@ -185,18 +175,28 @@ public class SupervisorService {
 
     public ApiResponse<SupervisorLoginResponse> loginSupervisor(SupervisorLoginRequest request) {
         try {
-            Optional<Supervisor> supervisorOpt = supervisorRepository.findByEmail(request.getEmail());
+            // Usually served from the directory cache; the password is checked before the supervisor is loaded
+            Optional<PrincipalIdentity> identityOpt = principalDirectory
+                    .resolve(request.getEmail(), PrincipalIdentity.PrincipalType.SUPERVISOR);
             
-            if (supervisorOpt.isEmpty()) {
+            if (identityOpt.isEmpty()) {
                 return ApiResponse.error("Invalid email or password");
             }
             
-            Supervisor supervisor = supervisorOpt.get();
+            PrincipalIdentity identity = identityOpt.get();
+            
+            if (!passwordEncoder.matches(request.getPassword(), identity.getPasswordHash())) {
+                return ApiResponse.error("Invalid email or password");
+            }
             
-            if (!passwordEncoder.matches(request.getPassword(), supervisor.getPassword())) {
+            Optional<Supervisor> supervisorOpt = supervisorRepository.findById(identity.getPrincipalId());
+            if (supervisorOpt.isEmpty()) {
+                principalDirectory.invalidate(request.getEmail());
                 return ApiResponse.error("Invalid email or password");
             }
             
+            Supervisor supervisor = supervisorOpt.get();
+            
             if (supervisor.getStatus() != Supervisor.SupervisorStatus.APPROVED) {
                 return ApiResponse.error("Account not approved yet. Please wait for admin approval.");
             }
@@ -205,19 +205,31 @@ public class SupervisorService {
                 return ApiResponse.error("Account is inactive. Please contact administrator.");
             }
             
+            // Re-hash when the stored cost no longer matches the configured one
+            String upgraded = passwordEncoder.rehashIfNeeded(request.getPassword(), identity.getPasswordHash());
+            if (upgraded != null) {
+                supervisor.setPassword(upgraded);
+            }
+            
             // Update last login time
             supervisor.setLastLoginAt(LocalDateTime.now());
             supervisorRepository.save(supervisor);
+            if (upgraded != null) {
+                principalDirectory.record(supervisor);
+            }
             
-            // Generate JWT token - Now passing the Supervisor object
-            String token = jwtService.generateToken(supervisor);
+            // Access token plus a refresh token for the new session
+            RefreshTokenService.TokenPair tokens = refreshTokenService.startSession(supervisor);
             
             SupervisorLoginResponse response = SupervisorLoginResponse.builder()
-                    .token(token)
+                    .token(tokens.accessToken())
+                    .refreshToken(tokens.refreshToken())
                     .supervisor(mapToResponse(supervisor))
                     .build();
             
             return ApiResponse.success("Login successful", response);
+        } catch (PasswordHashingRejectedException e) {
+            return ApiResponse.error("Too many login attempts right now. Please try again shortly.");
         } catch (Exception e) {
             return ApiResponse.error("Login failed", e.getMessage());
         }
@@ -243,6 +255,42 @@ public class SupervisorService {
         }
     }
 
+    public ApiResponse<String> rotateJwtSigningKey() {
+        try {
+            String keyId = jwtService.rotateSigningKey();
+            return ApiResponse.success("JWT signing key rotated", keyId);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to rotate JWT signing key", e.getMessage());
+        }
+    }
+
+    public ApiResponse<String> rebuildStudentRollups() {
+        try {
+            int rebuilt = studentRollups.rebuildAll();
+            return ApiResponse.success("Student rollups rebuilt", String.valueOf(rebuilt));
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to rebuild student rollups", e.getMessage());
+        }
+    }
+
+    public ApiResponse<String> recountCourseStructure() {
+        try {
+            int recounted = courseStructureCounts.recountAll();
+            return ApiResponse.success("Course structure counts recounted", String.valueOf(recounted));
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to recount course structure counts", e.getMessage());
+        }
+    }
+
+    public ApiResponse<String> migrateLegacyLessonProgress() {
+        try {
+            int migrated = enrollmentProgressService.migrateAllLegacyProgress();
+            return ApiResponse.success("Legacy lesson progress migrated", String.valueOf(migrated));
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to migrate legacy lesson progress", e.getMessage());
+        }
+    }
+
     private SupervisorResponse mapToResponse(Supervisor supervisor) {
         return SupervisorResponse.builder()
                 .id(supervisor.getId())
@@ -0,0 +1,175 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.dto.LessonStatsResponse;
+import com.qualityeducation.model.Lesson;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-teacher lesson statistics computed inside Mongo. One {@code $facet} pipeline over
+ * the teacher's lessons, projected down to the handful of fields the figures need,
+ * returns the totals, the rating average, the most viewed lesson and the newest lesson
+ * in a single document, so transcripts and quiz bodies never leave the database.
+ *
+ * Results are cached per teacher. {@link LessonService} invalidates a teacher's entry
+ * on every write to their lessons; views are flushed in the background, so the entry
+ * also expires after a short TTL to pick them up.
+ */
+@Component
+@Slf4j
+public class TeacherLessonStats {
+
+    static final String NONE = "None";
+
+    private final MongoTemplate mongoTemplate;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    private final Map<String, CachedStats> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TeacherLessonStats(MongoTemplate mongoTemplate,
+            @Value("${stats.lessons.ttl-seconds:60}") long ttlSeconds,
+            @Value("${stats.lessons.max-entries:10000}") int maxEntries) {
+        this.mongoTemplate = mongoTemplate;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    public LessonStatsResponse stats(String teacherId) {
+        long now = System.currentTimeMillis();
+        CachedStats cached = cache.get(teacherId);
+        if (cached != null && cached.expiresAtMillis() > now) {
+            hits.increment();
+            return cached.stats();
+        }
+
+        misses.increment();
+        long invalidationsBefore = invalidations.get();
+        Document facets = mongoTemplate.aggregate(pipeline(teacherId), Lesson.class, Document.class)
+                .getUniqueMappedResult();
+        LessonStatsResponse stats = fromFacets(facets);
+
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        // A write during the aggregation may not be in the result, so only cache it if none happened
+        cache.put(teacherId, new CachedStats(stats, now + ttlMillis));
+        if (invalidations.get() != invalidationsBefore) {
+            cache.remove(teacherId);
+        }
+        return stats;
+    }
+
+    public void invalidate(String teacherId) {
+        if (teacherId != null) {
+            invalidations.incrementAndGet();
+            cache.remove(teacherId);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    static Aggregation pipeline(String teacherId) {
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("teacherId").is(teacherId)),
+                Aggregation.project("_id", "title", "status", "createdAt")
+                        .and(ConditionalOperators.ifNull("views").then(0)).as("views")
+                        .and(ConditionalOperators.ifNull("averageRating").then(0)).as("averageRating")
+                        .and(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("quizzes").then(List.of())))
+                        .as("quizCount"),
+                Aggregation.facet(
+                                Aggregation.group()
+                                        .count().as("totalLessons")
+                                        .sum(countWhereStatus(Lesson.LessonStatus.PUBLISHED)).as("publishedLessons")
+                                        .sum(countWhereStatus(Lesson.LessonStatus.DRAFT)).as("draftLessons")
+                                        .sum("views").as("totalViews")
+                                        .sum("quizCount").as("totalQuizzes"))
+                        .as("totals")
+                        .and(
+                                Aggregation.match(Criteria.where("averageRating").gt(0)),
+                                Aggregation.group().avg("averageRating").as("averageRating"))
+                        .as("rating")
+                        // Ties go to the newest lesson, as the in-memory max over the newest-first list did
+                        .and(
+                                Aggregation.match(Criteria.where("views").gt(0)),
+                                Aggregation.sort(Sort.by(Sort.Order.desc("views"), Sort.Order.desc("createdAt"),
+                                        Sort.Order.asc("_id"))),
+                                Aggregation.limit(1),
+                                Aggregation.project("title"))
+                        .as("mostPopular")
+                        .and(
+                                Aggregation.sort(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("_id"))),
+                                Aggregation.limit(1),
+                                Aggregation.project("title"))
+                        .as("recent"));
+    }
+
+    static LessonStatsResponse fromFacets(Document facets) {
+        Document totals = first(facets, "totals");
+        Document rating = first(facets, "rating");
+        Document mostPopular = first(facets, "mostPopular");
+        Document recent = first(facets, "recent");
+
+        double averageRating = number(rating, "averageRating").doubleValue();
+        return LessonStatsResponse.builder()
+                .totalLessons(number(totals, "totalLessons").longValue())
+                .publishedLessons(number(totals, "publishedLessons").longValue())
+                .draftLessons(number(totals, "draftLessons").longValue())
+                .totalViews(number(totals, "totalViews").longValue())
+                .averageRating(Math.round(averageRating * 100.0) / 100.0)
+                .totalQuizzes(number(totals, "totalQuizzes").longValue())
+                .mostPopularLesson(mostPopular != null && mostPopular.getString("title") != null
+                        ? mostPopular.getString("title") : NONE)
+                .recentlyCreated(recent != null ? recent.getString("title") : NONE)
+                .build();
+    }
+
+    private static ConditionalOperators.Cond countWhereStatus(Lesson.LessonStatus status) {
+        return ConditionalOperators.when(ComparisonOperators.valueOf("status").equalToValue(status.name()))
+                .then(1)
+                .otherwise(0);
+    }
+
+    private static Document first(Document facets, String facet) {
+        if (facets == null) {
+            return null;
+        }
+        List<Document> results = facets.getList(facet, Document.class);
+        return results == null || results.isEmpty() ? null : results.get(0);
+    }
+
+    private static Number number(Document document, String field) {
+        Object value = document != null ? document.get(field) : null;
+        return value instanceof Number number ? number : 0;
+    }
+
+    private record CachedStats(LessonStatsResponse stats, long expiresAtMillis) {
+    }
+}
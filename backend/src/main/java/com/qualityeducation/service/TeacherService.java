@@ -1,16 +1,17 @@
 package com.qualityeducation.service;
 
+import com.qualityeducation.config.BoundedPasswordEncoder;
+import com.qualityeducation.config.MongoIndexes;
+import com.qualityeducation.config.PasswordHashingRejectedException;
 import com.qualityeducation.dto.*;
 import com.qualityeducation.model.*;
-import com.qualityeducation.model.Module;
 import com.qualityeducation.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -22,16 +23,26 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TeacherService {
 
+    private static final Index CREATED_INDEX = new Index().on("createdAt", Sort.Direction.DESC)
+            .on("_id", Sort.Direction.ASC).named("created_keyset");
+    private static final Index TEACHER_STUDENT_INDEX = new Index().on("teacherId", Sort.Direction.ASC)
+            .on("studentId", Sort.Direction.ASC).named("teacher_student");
+
     private final TeacherRepository teacherRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final PrincipalDirectory principalDirectory;
+    private final PasswordResetTokenStore passwordResetTokenStore;
+    private final RefreshTokenService refreshTokenService;
     private final EmailService emailService;
     private final EnrollmentRepository enrollmentRepository;
     private final UserRepository userRepository;
-    private final CourseRepository courseRepository;
-    private final ModuleRepository moduleRepository;
-    private final LessonRepository lessonRepository;
+    private final BatchLoaders batchLoaders;
+    private final CourseOutlineProjector courseOutlineProjector;
+    private final EnrollmentProgressService enrollmentProgressService;
+    private final SupervisorCounters supervisorCounters;
+    private final DomainEventBus domainEventBus;
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexes mongoIndexes;
 
     public ApiResponse<TeacherResponse> registerTeacher(TeacherRegistrationRequest request) {
         try {
@@ -65,6 +76,8 @@ public class TeacherService {
 
             // Save teacher
             Teacher savedTeacher = teacherRepository.save(teacher);
+            principalDirectory.record(savedTeacher);
+            supervisorCounters.teacherRegistered();
             log.info("Teacher registered successfully with ID: {}", savedTeacher.getId());
 
             // Send confirmation email
@@ -96,9 +109,27 @@ public class TeacherService {
         try {
             log.info("Attempting teacher login for email: {}", request.getEmail());
 
-            // Find teacher by email
-            Optional<Teacher> teacherOptional = teacherRepository.findByEmail(request.getEmail());
+            // Usually served from the directory cache; the password is checked before the teacher is loaded
+            Optional<PrincipalIdentity> identityOptional = principalDirectory
+                    .resolve(request.getEmail(), PrincipalIdentity.PrincipalType.TEACHER);
+            if (identityOptional.isEmpty()) {
+                return ApiResponse.error("Invalid email or password", null);
+            }
+
+            PrincipalIdentity identity = identityOptional.get();
+            try {
+                if (!passwordEncoder.matches(request.getPassword(), identity.getPasswordHash())) {
+                    log.warn("Authentication failed for teacher email: {}", request.getEmail());
+                    return ApiResponse.error("Invalid email or password", null);
+                }
+            } catch (PasswordHashingRejectedException e) {
+                log.warn("Password hashing busy, rejected teacher login for email: {}", request.getEmail());
+                return ApiResponse.error("Too many login attempts right now. Please try again shortly.", null);
+            }
+
+            Optional<Teacher> teacherOptional = teacherRepository.findById(identity.getPrincipalId());
             if (teacherOptional.isEmpty()) {
+                principalDirectory.invalidate(request.getEmail());
                 return ApiResponse.error("Invalid email or password", null);
             }
 
@@ -116,34 +147,35 @@ public class TeacherService {
                 return ApiResponse.error(message, null);
             }
 
-            // Authenticate user
-            try {
-                Authentication authentication = authenticationManager.authenticate(
-                        new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
-
-                // Update last login time
-                teacher.setLastLoginAt(LocalDateTime.now());
-                teacher.setStatus(Teacher.TeacherStatus.ACTIVE);
-                teacherRepository.save(teacher);
-
-                // Generate JWT token
-                String token = jwtService.generateToken(teacher);
-
-                // Create response
-                TeacherResponse teacherResponse = convertToResponse(teacher);
-                TeacherLoginResponse loginResponse = TeacherLoginResponse.builder()
-                        .token(token)
-                        .teacher(teacherResponse)
-                        .build();
-
-                log.info("Teacher login successful for email: {}", request.getEmail());
-                return ApiResponse.success("Login successful", loginResponse);
+            // Re-hash when the stored cost no longer matches the configured one
+            String upgraded = passwordEncoder.rehashIfNeeded(request.getPassword(), identity.getPasswordHash());
+            if (upgraded != null) {
+                teacher.setPassword(upgraded);
+            }
+            boolean identityChanged = upgraded != null || teacher.getStatus() != Teacher.TeacherStatus.ACTIVE;
 
-            } catch (AuthenticationException e) {
-                log.warn("Authentication failed for teacher email: {}", request.getEmail());
-                return ApiResponse.error("Invalid email or password", null);
+            // Update last login time
+            teacher.setLastLoginAt(LocalDateTime.now());
+            teacher.setStatus(Teacher.TeacherStatus.ACTIVE);
+            teacherRepository.save(teacher);
+            if (identityChanged) {
+                principalDirectory.record(teacher);
             }
 
+            // Access token plus a refresh token for the new session
+            RefreshTokenService.TokenPair tokens = refreshTokenService.startSession(teacher);
+
+            // Create response
+            TeacherResponse teacherResponse = convertToResponse(teacher);
+            TeacherLoginResponse loginResponse = TeacherLoginResponse.builder()
+                    .token(tokens.accessToken())
+                    .refreshToken(tokens.refreshToken())
+                    .teacher(teacherResponse)
+                    .build();
+
+            log.info("Teacher login successful for email: {}", request.getEmail());
+            return ApiResponse.success("Login successful", loginResponse);
+
         } catch (Exception e) {
             log.error("Teacher login failed for email: {}", request.getEmail(), e);
             return ApiResponse.error("Login failed: " + e.getMessage(), null);
@@ -181,6 +213,24 @@ public class TeacherService {
         }
     }
 
+    public ApiResponse<CursorPage<TeacherResponse>> getAllTeachers(String cursor, Integer limit) {
+        try {
+            mongoIndexes.ensure(Teacher.class, CREATED_INDEX);
+            Limit pageLimit = KeysetCursor.limit(limit);
+            CursorPage<TeacherResponse> page = KeysetCursor.page(
+                    teacherRepository.findAllByOrderByCreatedAtDesc(KeysetCursor.position(cursor), pageLimit),
+                    pageLimit, this::convertToResponse);
+
+            return ApiResponse.success("Teachers retrieved successfully", page);
+
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error("Failed to retrieve teachers", e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to get teacher page", e);
+            return ApiResponse.error("Failed to retrieve teachers", null);
+        }
+    }
+
     public ApiResponse<List<TeacherResponse>> getTeachersByStatus(Teacher.TeacherStatus status) {
         try {
             List<Teacher> teachers = teacherRepository.findByStatus(status);
@@ -196,7 +246,7 @@ public class TeacherService {
         }
     }
 
-    public ApiResponse<TeacherResponse> approveTeacher(String teacherId) {
+    public ApiResponse<TeacherResponse> approveTeacher(String teacherId, String supervisorId) {
         try {
             Optional<Teacher> teacherOptional = teacherRepository.findById(teacherId);
             if (teacherOptional.isEmpty()) {
@@ -204,10 +254,17 @@ public class TeacherService {
             }
 
             Teacher teacher = teacherOptional.get();
+            Teacher.TeacherStatus previousStatus = teacher.getStatus();
+            String previousReviewer = teacher.getReviewedBy();
             teacher.setStatus(Teacher.TeacherStatus.APPROVED);
+            teacher.setReviewedBy(supervisorId);
+            teacher.setReviewedAt(LocalDateTime.now());
             teacher.setUpdatedAt(LocalDateTime.now());
 
             Teacher savedTeacher = teacherRepository.save(teacher);
+            principalDirectory.record(savedTeacher);
+            domainEventBus.publish(new DomainEvent.TeacherApproved(savedTeacher.getId(), fullName(savedTeacher),
+                    supervisorId, previousStatus, previousReviewer));
 
             // Send approval email
             try {
@@ -225,7 +282,7 @@ public class TeacherService {
         }
     }
 
-    public ApiResponse<TeacherResponse> rejectTeacher(String teacherId, String reason) {
+    public ApiResponse<TeacherResponse> rejectTeacher(String teacherId, String reason, String supervisorId) {
         try {
             Optional<Teacher> teacherOptional = teacherRepository.findById(teacherId);
             if (teacherOptional.isEmpty()) {
@@ -233,10 +290,17 @@ public class TeacherService {
             }
 
             Teacher teacher = teacherOptional.get();
+            Teacher.TeacherStatus previousStatus = teacher.getStatus();
+            String previousReviewer = teacher.getReviewedBy();
             teacher.setStatus(Teacher.TeacherStatus.REJECTED);
+            teacher.setReviewedBy(supervisorId);
+            teacher.setReviewedAt(LocalDateTime.now());
             teacher.setUpdatedAt(LocalDateTime.now());
 
             Teacher savedTeacher = teacherRepository.save(teacher);
+            principalDirectory.record(savedTeacher);
+            domainEventBus.publish(new DomainEvent.TeacherRejected(savedTeacher.getId(), fullName(savedTeacher),
+                    supervisorId, previousStatus, previousReviewer));
 
             // Send rejection email
             try {
@@ -254,6 +318,10 @@ public class TeacherService {
         }
     }
 
+    private static String fullName(Teacher teacher) {
+        return teacher.getFirstName() + " " + teacher.getLastName();
+    }
+
     public ApiResponse<String> forgotPassword(String email) {
         try {
             Optional<Teacher> teacherOptional = teacherRepository.findByEmail(email);
@@ -266,16 +334,9 @@ public class TeacherService {
 
             Teacher teacher = teacherOptional.get();
 
-            // Generate reset token
-            String resetToken = UUID.randomUUID().toString();
-            teacher.setResetPasswordToken(resetToken);
-            teacher.setResetPasswordExpiry(LocalDateTime.now().plusHours(1)); // 1 hour expiry
-
-            teacherRepository.save(teacher);
-
-            // Send reset email
+            // Send reset email; the token is issued when it goes out
             try {
-                emailService.sendTeacherPasswordResetEmail(teacher, resetToken);
+                emailService.sendTeacherPasswordResetEmail(teacher);
             } catch (Exception e) {
                 log.error("Failed to send password reset email: {}", e.getMessage());
                 return ApiResponse.error("Failed to send password reset email", null);
@@ -289,6 +350,47 @@ public class TeacherService {
         }
     }
 
+    /**
+     * Sets a new password using a token from {@link #forgotPassword}
+     */
+    public ApiResponse<String> resetPassword(String token, String newPassword) {
+        try {
+            // Only a live token is worth a hash; unknown tokens never reach the hashing pool
+            if (!passwordResetTokenStore.isLive(token, PrincipalIdentity.PrincipalType.TEACHER)) {
+                return ApiResponse.error("Invalid or expired token", null);
+            }
+
+            // Hash before redeeming, so a busy hashing pool leaves the token usable for a retry
+            String encodedPassword;
+            try {
+                encodedPassword = passwordEncoder.encode(newPassword);
+            } catch (PasswordHashingRejectedException e) {
+                return ApiResponse.error("Too many requests right now. Please try again shortly.", null);
+            }
+
+            // Redeeming deletes the token, so it cannot be used twice
+            Optional<Teacher> teacherOptional = passwordResetTokenStore
+                    .redeem(token, PrincipalIdentity.PrincipalType.TEACHER)
+                    .flatMap(resetToken -> teacherRepository.findById(resetToken.getPrincipalId()));
+            if (teacherOptional.isEmpty()) {
+                return ApiResponse.error("Invalid or expired token", null);
+            }
+
+            Teacher teacher = teacherOptional.get();
+            teacher.setPassword(encodedPassword);
+            teacher.setUpdatedAt(LocalDateTime.now());
+
+            teacherRepository.save(teacher);
+            principalDirectory.record(teacher);
+
+            return ApiResponse.success("Password has been reset successfully", null);
+
+        } catch (Exception e) {
+            log.error("Failed to reset teacher password", e);
+            return ApiResponse.error("Failed to reset password", null);
+        }
+    }
+
     /**
      * Get all students enrolled in teacher's courses
      */
@@ -303,6 +405,11 @@ public class TeacherService {
             Map<String, List<Enrollment>> enrollmentsByStudent = enrollments.stream()
                     .collect(Collectors.groupingBy(Enrollment::getStudentId));
 
+            // Every student and course is fetched in one batch on first use
+            BatchLoaders.UnitOfWork loaders = batchLoaders.begin();
+            loaders.users().queueAll(enrollmentsByStudent.keySet());
+            loaders.courses().queueAll(enrollments.stream().map(Enrollment::getCourseId).toList());
+
             List<StudentEnrollmentResponse> students = new ArrayList<>();
 
             for (Map.Entry<String, List<Enrollment>> entry : enrollmentsByStudent.entrySet()) {
@@ -310,7 +417,7 @@ public class TeacherService {
                 List<Enrollment> studentEnrollments = entry.getValue();
 
                 // Get student details
-                Optional<User> studentOpt = userRepository.findById(studentId);
+                Optional<User> studentOpt = loaders.users().load(studentId);
                 if (studentOpt.isEmpty()) {
                     log.warn("Student not found: {}", studentId);
                     continue;
@@ -322,7 +429,7 @@ public class TeacherService {
                 List<StudentEnrollmentResponse.CourseEnrollment> courseEnrollments = new ArrayList<>();
                 
                 for (Enrollment enrollment : studentEnrollments) {
-                    Optional<Course> courseOpt = courseRepository.findById(enrollment.getCourseId());
+                    Optional<Course> courseOpt = loaders.courses().load(enrollment.getCourseId());
                     if (courseOpt.isEmpty()) continue;
                     
                     Course course = courseOpt.get();
@@ -359,7 +466,8 @@ public class TeacherService {
             // Sort students by name
             students.sort(Comparator.comparing(StudentEnrollmentResponse::getName));
 
-            log.info("Found {} students for teacher {}", students.size(), teacherId);
+            log.info("Found {} students for teacher {} ({} lookup queries)", students.size(), teacherId,
+                    loaders.getQueryCount());
             return ApiResponse.success("Students retrieved successfully", students);
 
         } catch (Exception e) {
@@ -383,9 +491,8 @@ public class TeacherService {
             User student = studentOpt.get();
 
             // Get all enrollments for this student in teacher's courses
-            List<Enrollment> enrollments = enrollmentRepository.findByTeacherId(teacherId).stream()
-                    .filter(e -> e.getStudentId().equals(studentId))
-                    .collect(Collectors.toList());
+            mongoIndexes.ensure(Enrollment.class, TEACHER_STUDENT_INDEX);
+            List<Enrollment> enrollments = enrollmentRepository.findByTeacherIdAndStudentId(teacherId, studentId);
 
             if (enrollments.isEmpty()) {
                 return ApiResponse.error("Student is not enrolled in any of your courses");
@@ -430,42 +537,21 @@ public class TeacherService {
                     .currentStreak(currentStreak)
                     .build();
 
-            // Build course progress list
+            // Build course progress list; each course's ordered lessons come from its outline
             List<StudentDetailsResponse.CourseProgress> courseProgressList = new ArrayList<>();
-            
+            Map<String, CourseOutline> outlines = courseOutlineProjector.outlines(
+                    enrollments.stream().map(Enrollment::getCourseId).toList());
+            // Per-lesson history for every enrollment in one query
+            Map<String, Map<String, LessonProgressEntry>> history = enrollmentProgressService.history(
+                    enrollments.stream().map(Enrollment::getId).toList());
+
             for (Enrollment enrollment : enrollments) {
-                Optional<Course> courseOpt = courseRepository.findById(enrollment.getCourseId());
-                if (courseOpt.isEmpty()) continue;
-                
-                Course course = courseOpt.get();
-                
-                // Get lessons for this course
-                List<Module> modules = moduleRepository.findByCourseIdOrderByOrderAsc(course.getId());
-                List<Lesson> allLessons = new ArrayList<>();
-                for (Module module : modules) {
-                    allLessons.addAll(lessonRepository.findByModuleIdOrderByOrderAsc(module.getId()));
-                }
-                
-                // Build lesson progress list
-                List<StudentDetailsResponse.LessonProgress> lessonProgressList = allLessons.stream()
-                        .map(lesson -> {
-                            Enrollment.LessonProgress lp = enrollment.getLessonProgress().stream()
-                                    .filter(progress -> progress.getLessonId().equals(lesson.getId()))
-                                    .findFirst()
-                                    .orElse(null);
-                            
-                            return StudentDetailsResponse.LessonProgress.builder()
-                                    .id(lesson.getId())
-                                    .title(lesson.getTitle())
-                                    .completed(lp != null && lp.isCompleted())
-                                    .progress(lp != null ? lp.getProgress() : 0)
-                                    .completedAt(lp != null ? lp.getCompletedAt() : null)
-                                    .quizScore(lp != null ? lp.getQuizScore() : 0)
-                                    .timeSpent(lp != null ? lp.getTimeSpent() : 0)
-                                    .build();
-                        })
-                        .collect(Collectors.toList());
-                
+                CourseOutline outline = outlines.get(enrollment.getCourseId());
+                if (outline == null) continue;
+
+                List<StudentDetailsResponse.LessonProgress> lessonProgressList = ProgressJoin.lessons(outline, enrollment,
+                        history.getOrDefault(enrollment.getId(), Map.of()));
+
                 // Build quiz stats
                 Enrollment.QuizStats enrollmentQuizStats = enrollment.getQuizStats();
                 StudentDetailsResponse.QuizStats quizStats = StudentDetailsResponse.QuizStats.builder()
@@ -477,9 +563,9 @@ public class TeacherService {
                         .build();
                 
                 courseProgressList.add(StudentDetailsResponse.CourseProgress.builder()
-                        .id(course.getId())
-                        .title(course.getTitle())
-                        .category(course.getCategory())
+                        .id(outline.getCourseId())
+                        .title(outline.getTitle())
+                        .category(outline.getCategory())
                         .progress(enrollment.getProgress())
                         .grade(enrollment.getGrade())
                         .status(enrollment.getStatus())
@@ -539,4 +625,4 @@ public class TeacherService {
                 .totalCourses(teacher.getTotalCourses())
                 .build();
     }
-}
\ No newline at end of file
+}
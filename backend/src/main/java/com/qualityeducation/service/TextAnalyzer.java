@@ -0,0 +1,159 @@
+package com.qualityeducation.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits lesson text and search queries into index terms. Each catalog language has its
+ * own script, so every token is normalized and stemmed by the analyzer for the script it
+ * is written in; lesson text and queries therefore always produce the same terms.
+ *
+ * <ul>
+ *   <li>English (Latin script): accents folded, lower-cased, stop words dropped, light
+ *   suffix stemming.</li>
+ *   <li>Tamil: NFC, plural and common case suffixes stripped.</li>
+ *   <li>Sinhala: NFC with joiners removed, so conjunct spellings compare equal.</li>
+ *   <li>Anything else: NFC and lower-cased.</li>
+ * </ul>
+ */
+public final class TextAnalyzer {
+
+    public enum Language {
+        ENGLISH,
+        TAMIL,
+        SINHALA,
+        OTHER;
+
+        /**
+         * Maps {@code Lesson.language} ("English", "ta", ...) to a language.
+         */
+        public static Language of(String name) {
+            if (name == null) {
+                return OTHER;
+            }
+            return switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "english", "en" -> ENGLISH;
+                case "tamil", "ta" -> TAMIL;
+                case "sinhala", "sinhalese", "si" -> SINHALA;
+                default -> OTHER;
+            };
+        }
+
+        static Language forScript(Character.UnicodeScript script) {
+            return switch (script) {
+                case LATIN -> ENGLISH;
+                case TAMIL -> TAMIL;
+                case SINHALA -> SINHALA;
+                default -> OTHER;
+            };
+        }
+    }
+
+    // Letters plus combining marks: Tamil and Sinhala vowel signs are marks, not letters
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{M}\\p{N}\\u200C\\u200D]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern JOINERS = Pattern.compile("[\\u200C\\u200D]");
+
+    private static final Set<String> ENGLISH_STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "if", "in", "into",
+            "is", "it", "its", "of", "on", "or", "so", "than", "that", "the", "their", "then", "there",
+            "these", "this", "to", "was", "were", "will", "with");
+
+    // Longest first so a compound suffix wins over its tail
+    private static final List<String> TAMIL_SUFFIXES = List.of(
+            "களுக்கு", "களில்", "களை", "கள்", "க்கு");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            String term = normalize(matcher.group());
+            if (term != null) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Normalizes one token; null when it carries no search value.
+     */
+    static String normalize(String token) {
+        return switch (Language.forScript(scriptOf(token))) {
+            case ENGLISH -> {
+                String folded = COMBINING_MARKS.matcher(Normalizer.normalize(token, Normalizer.Form.NFD))
+                        .replaceAll("")
+                        .toLowerCase(Locale.ROOT)
+                        .replace("ß", "ss");
+                yield ENGLISH_STOP_WORDS.contains(folded) ? null : stemEnglish(folded);
+            }
+            case TAMIL -> stemTamil(Normalizer.normalize(token, Normalizer.Form.NFC));
+            case SINHALA -> JOINERS.matcher(Normalizer.normalize(token, Normalizer.Form.NFC)).replaceAll("");
+            case OTHER -> Normalizer.normalize(token, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        };
+    }
+
+    private static Character.UnicodeScript scriptOf(String token) {
+        for (int i = 0; i < token.length(); ) {
+            int codePoint = token.codePointAt(i);
+            if (Character.isLetter(codePoint)) {
+                return Character.UnicodeScript.of(codePoint);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return Character.UnicodeScript.COMMON;
+    }
+
+    // A light, conservative stemmer: plural and common verb/adverb endings only
+    static String stemEnglish(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+        String stem = word;
+        if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        if (stem.endsWith("ing") && stem.length() > 5) {
+            stem = undouble(stem.substring(0, stem.length() - 3));
+        } else if (stem.endsWith("ed") && stem.length() > 4) {
+            stem = undouble(stem.substring(0, stem.length() - 2));
+        } else if (stem.endsWith("ly") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+        return stem;
+    }
+
+    private static String undouble(String stem) {
+        int n = stem.length();
+        if (n > 2 && stem.charAt(n - 1) == stem.charAt(n - 2) && "aeiouls".indexOf(stem.charAt(n - 1)) < 0) {
+            return stem.substring(0, n - 1);
+        }
+        return stem;
+    }
+
+    static String stemTamil(String word) {
+        for (String suffix : TAMIL_SUFFIXES) {
+            if (word.endsWith(suffix)
+                    && word.codePointCount(0, word.length() - suffix.length()) >= 2) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+}
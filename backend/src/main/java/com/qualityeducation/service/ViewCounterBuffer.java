@@ -0,0 +1,151 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.model.Course;
+import com.qualityeducation.model.Lesson;
+import com.qualityeducation.model.Module;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind view counters. A view only bumps an in-memory {@link LongAdder}; a
+ * periodic flush turns everything counted since the last one into a single unordered
+ * bulk of {@code $inc} updates per collection. Views reach Mongo at most one flush
+ * interval late, and the buffer is flushed once more on shutdown.
+ *
+ * A counter that stays idle for a whole interval is dropped from the map. The flush
+ * marks it retired before its final check for views, so an increment either shows up in
+ * that check, which keeps the counter, or sees the mark and is taken back and counted
+ * again on whichever counter the map holds next.
+ */
+@Component
+@Slf4j
+public class ViewCounterBuffer {
+
+    public enum Target {
+        LESSON(Lesson.class),
+        MODULE(Module.class),
+        COURSE(Course.class);
+
+        private final Class<?> entityType;
+
+        Target(Class<?> entityType) {
+            this.entityType = entityType;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<Target, ConcurrentHashMap<String, Counter>> counters = new EnumMap<>(Target.class);
+
+    private final LongAdder flushedViews = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    public ViewCounterBuffer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        for (Target target : Target.values()) {
+            counters.put(target, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void record(Target target, String id) {
+        add(target, id, 1);
+    }
+
+    /**
+     * Views counted for the document but not yet written to it.
+     */
+    public long pending(Target target, String id) {
+        Counter counter = counters.get(target).get(id);
+        return counter != null ? counter.adder.sum() : 0;
+    }
+
+    public long getFlushedViewCount() {
+        return flushedViews.sum();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushes.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:10000}")
+    public void flush() {
+        for (Target target : Target.values()) {
+            Map<String, Long> batch = drain(target);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, target.entityType);
+                batch.forEach((id, views) ->
+                        bulk.updateOne(Query.query(Criteria.where("_id").is(id)), new Update().inc("views", views)));
+                bulk.execute();
+                flushedViews.add(batch.values().stream().mapToLong(Long::longValue).sum());
+            } catch (Exception e) {
+                // Put the views back so the next flush retries them
+                failedFlushes.increment();
+                batch.forEach((id, views) -> add(target, id, views));
+                log.warn("Failed to flush {} {} view counters: {}", batch.size(), target, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void add(Target target, String id, long views) {
+        ConcurrentHashMap<String, Counter> map = counters.get(target);
+        while (true) {
+            Counter counter = map.computeIfAbsent(id, key -> new Counter());
+            counter.adder.add(views);
+            if (!counter.retired) {
+                return;
+            }
+            // Retired while we added; the drain may drop it, so take the views back and retry
+            counter.adder.add(-views);
+        }
+    }
+
+    private Map<String, Long> drain(Target target) {
+        ConcurrentHashMap<String, Counter> map = counters.get(target);
+        Map<String, Long> batch = new HashMap<>();
+        for (Map.Entry<String, Counter> entry : map.entrySet()) {
+            // Subtract what was read rather than reset, so adds racing with the read are kept
+            LongAdder adder = entry.getValue().adder;
+            long views = adder.sum();
+            if (views != 0) {
+                adder.add(-views);
+                batch.put(entry.getKey(), views);
+            } else {
+                map.computeIfPresent(entry.getKey(), (id, counter) -> {
+                    // Retire first: an add that missed the mark is visible in the sum below
+                    counter.retired = true;
+                    if (counter.adder.sum() != 0) {
+                        counter.retired = false;
+                        return counter;
+                    }
+                    return null;
+                });
+            }
+        }
+        return batch;
+    }
+
+    private static final class Counter {
+        final LongAdder adder = new LongAdder();
+        volatile boolean retired;
+    }
+}
@@ -0,0 +1,206 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.model.Course;
+import org.bson.BsonRegularExpression;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the pushed-down published-course search selects exactly the courses the
+ * old in-memory filter selected. The query document is evaluated here the way Mongo
+ * evaluates it (equality under a strength-2 collation, case-insensitive regex) against a
+ * generated catalog, for every combination of term, category and level.
+ */
+class CourseSearchEquivalenceTest {
+
+    private static final String[] TITLES = {
+            "Intro to Java", "ADVANCED java Streams", "Python for Data", "C++ Pointers", "Node.js (Basics)",
+            "Tamil Grammar", "Sinhala Reading", "Algebra I", "algebra ii", "Physics: Motion"};
+    private static final String[] DESCRIPTIONS = {
+            "Learn the basics", "Deep dive into STREAMS", "pandas and numpy", "Memory and [arrays]",
+            "Event loop? Yes.", "Nouns, verbs and suffixes", "Letters and vowel signs", "x + y = z",
+            "Quadratics $and more", "Forces * mass"};
+    private static final String[] CATEGORIES = {"Programming", "programming", "Languages", "Math", "Science"};
+    private static final String[] LEVELS = {"Beginner", "beginner", "Intermediate", "ADVANCED"};
+    private static final String[] STATUSES = {"published", "draft", "archived"};
+
+    private static final String[] TERMS = {
+            null, "", "java", "JAVA", "stream", "c++", "node.js", "(basics)", "[arrays]", "?", "x + y",
+            "$and", "* mass", "gram", "programming", "MATH", "i", "zzz", "ii", "vowel signs"};
+    private static final String[] CATEGORY_FILTERS = {null, "", "all", "programming", "PROGRAMMING", "Math", "History"};
+    private static final String[] LEVEL_FILTERS = {null, "", "all", "beginner", "Advanced", "Expert"};
+
+    private static final Map<String, Function<Course, Object>> FIELDS = Map.of(
+            "status", Course::getStatus,
+            "title", Course::getTitle,
+            "description", Course::getDescription,
+            "category", Course::getCategory,
+            "level", Course::getLevel);
+
+    private List<Course> catalog;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        catalog = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Course course = new Course();
+            course.setId(String.format("course-%03d", i));
+            course.setTitle(TITLES[random.nextInt(TITLES.length)]);
+            course.setDescription(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]);
+            course.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            course.setLevel(LEVELS[random.nextInt(LEVELS.length)]);
+            course.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            // Some shared timestamps so the id tie-breaker matters
+            course.setCreatedAt(start.plusHours(random.nextInt(200)));
+            catalog.add(course);
+        }
+    }
+
+    @Test
+    void pushedDownQuerySelectsSameCoursesAsInMemoryFilter() {
+        int combinations = 0;
+        int nonEmpty = 0;
+        for (String term : TERMS) {
+            for (String category : CATEGORY_FILTERS) {
+                for (String level : LEVEL_FILTERS) {
+                    List<String> expected = legacySearch(term, category, level).stream()
+                            .sorted(newestFirst())
+                            .map(Course::getId)
+                            .collect(Collectors.toList());
+                    List<String> actual = evaluate(CourseService.publishedCourseSearch(term, category, level));
+
+                    assertEquals(expected, actual,
+                            "term=" + term + " category=" + category + " level=" + level);
+                    combinations++;
+                    if (!expected.isEmpty()) {
+                        nonEmpty++;
+                    }
+                }
+            }
+        }
+        assertEquals(TERMS.length * CATEGORY_FILTERS.length * LEVEL_FILTERS.length, combinations);
+        assertTrue(nonEmpty > combinations / 4, "fixture should exercise matching combinations");
+    }
+
+    @Test
+    void queryIsCollatedAndSortedLikeTheSearchIndex() {
+        Query query = CourseService.publishedCourseSearch("java", "Programming", "Beginner");
+
+        assertEquals(CourseService.CASE_INSENSITIVE, query.getCollation().orElseThrow());
+        assertEquals(new Document("createdAt", -1).append("_id", 1), query.getSortObject());
+
+        Index index = CourseService.publishedSearchIndex();
+        assertEquals(CourseService.CASE_INSENSITIVE.toDocument(), index.getIndexOptions().get("collation"));
+
+        // Equality fields lead the index, followed by the sort keys in the same order
+        Document indexKeys = index.getIndexKeys();
+        assertEquals(List.of("status", "category", "level", "createdAt", "_id"), new ArrayList<>(indexKeys.keySet()));
+        assertEquals(-1, indexKeys.get("createdAt"));
+        assertEquals(1, indexKeys.get("_id"));
+        assertTrue(query.getQueryObject().keySet().containsAll(List.of("status", "category", "level")));
+    }
+
+    /**
+     * The filter {@code searchPublishedCourses} applied before the pushdown.
+     */
+    private List<Course> legacySearch(String searchTerm, String category, String level) {
+        return catalog.stream()
+                .filter(course -> course.getStatus().equals("published"))
+                .filter(course -> {
+                    boolean matches = true;
+
+                    if (searchTerm != null && !searchTerm.isEmpty()) {
+                        String term = searchTerm.toLowerCase();
+                        matches = course.getTitle().toLowerCase().contains(term) ||
+                                course.getDescription().toLowerCase().contains(term) ||
+                                course.getCategory().toLowerCase().contains(term);
+                    }
+
+                    if (category != null && !category.isEmpty() && !category.equals("all")) {
+                        matches = matches && course.getCategory().equalsIgnoreCase(category);
+                    }
+
+                    if (level != null && !level.isEmpty() && !level.equals("all")) {
+                        matches = matches && course.getLevel().equalsIgnoreCase(level);
+                    }
+
+                    return matches;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private List<String> evaluate(Query query) {
+        Predicate<Course> predicate = matcher(query.getQueryObject());
+        return catalog.stream()
+                .filter(predicate)
+                .sorted(newestFirst())
+                .map(Course::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static Comparator<Course> newestFirst() {
+        return Comparator.comparing(Course::getCreatedAt).reversed().thenComparing(Course::getId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Course> matcher(Document filter) {
+        Predicate<Course> all = course -> true;
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            String key = entry.getKey();
+            Object condition = entry.getValue();
+            Predicate<Course> clause;
+            if (key.equals("$or") || key.equals("$and")) {
+                List<Predicate<Course>> parts = ((List<Document>) condition).stream()
+                        .map(CourseSearchEquivalenceTest::matcher)
+                        .toList();
+                clause = key.equals("$or")
+                        ? course -> parts.stream().anyMatch(part -> part.test(course))
+                        : course -> parts.stream().allMatch(part -> part.test(course));
+            } else {
+                Function<Course, Object> field = FIELDS.get(key);
+                if (field == null) {
+                    throw new AssertionError("Unexpected field in query: " + key);
+                }
+                Predicate<Object> value = valueMatcher(condition);
+                clause = course -> value.test(field.apply(course));
+            }
+            all = all.and(clause);
+        }
+        return all;
+    }
+
+    private static Predicate<Object> valueMatcher(Object condition) {
+        if (condition instanceof Pattern pattern) {
+            return value -> value instanceof String s && pattern.matcher(s).find();
+        }
+        if (condition instanceof BsonRegularExpression regex) {
+            int flags = regex.getOptions().contains("i") ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+            Pattern pattern = Pattern.compile(regex.getPattern(), flags);
+            return value -> value instanceof String s && pattern.matcher(s).find();
+        }
+        if (condition instanceof String expected) {
+            // Strength-2 collation: case-insensitive equality
+            return value -> value instanceof String s && s.equalsIgnoreCase(expected);
+        }
+        throw new AssertionError("Unexpected condition in query: " + condition);
+    }
+}
@@ -0,0 +1,126 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.model.EmailOutboxMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Delivers outbox batches over real SMTP to an in-process {@link SmtpStandIn}: a batch
+ * goes over one connection, a rejected recipient fails only its own message, and an
+ * unreachable server fails the whole batch so every message is retried.
+ */
+class EmailOutboxDeliveryTest {
+
+    private static final String FROM = "noreply@qualityeducation.test";
+    private static final String REJECTED = "nobody@qualityeducation.test";
+
+    private SmtpStandIn smtp;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        smtp = new SmtpStandIn(Set.of(REJECTED));
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        smtp.close();
+    }
+
+    @Test
+    void deliversBatchOverOneConnection() {
+        List<EmailOutboxMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(message("m" + i, "student" + i + "@qualityeducation.test", "Subject " + i));
+        }
+
+        Map<String, String> errors = EmailOutbox.deliver(sender(smtp.port()), FROM, batch);
+
+        assertTrue(errors.isEmpty(), () -> "Unexpected failures: " + errors);
+        assertEquals(1, smtp.connections());
+        List<SmtpStandIn.Received> received = smtp.received();
+        assertEquals(5, received.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FROM, received.get(i).from());
+            assertEquals(List.of("student" + i + "@qualityeducation.test"), received.get(i).recipients());
+            assertEquals("Subject " + i, received.get(i).subject());
+        }
+    }
+
+    @Test
+    void rejectedRecipientFailsOnlyItsMessage() {
+        List<EmailOutboxMessage> batch = List.of(
+                message("first", "a@qualityeducation.test", "First"),
+                message("rejected", REJECTED, "Rejected"),
+                message("last", "b@qualityeducation.test", "Last"));
+
+        Map<String, String> errors = EmailOutbox.deliver(sender(smtp.port()), FROM, batch);
+
+        assertEquals(Set.of("rejected"), errors.keySet());
+        assertEquals(List.of("First", "Last"), smtp.received().stream().map(SmtpStandIn.Received::subject).toList());
+        assertEquals(1, smtp.connections());
+    }
+
+    @Test
+    void unreachableServerFailsEveryMessage() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = socket.getLocalPort();
+        }
+        List<EmailOutboxMessage> batch = List.of(
+                message("one", "a@qualityeducation.test", "One"),
+                message("two", "b@qualityeducation.test", "Two"));
+
+        Map<String, String> errors = EmailOutbox.deliver(sender(closedPort), FROM, batch);
+
+        assertEquals(Set.of("one", "two"), errors.keySet());
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        Duration base = Duration.ofSeconds(30);
+        Duration max = Duration.ofHours(1);
+
+        assertEquals(Duration.ofSeconds(30), EmailOutbox.backoff(1, base, max));
+        assertEquals(Duration.ofSeconds(60), EmailOutbox.backoff(2, base, max));
+        assertEquals(Duration.ofSeconds(240), EmailOutbox.backoff(4, base, max));
+        assertEquals(max, EmailOutbox.backoff(8, base, max));
+        assertEquals(max, EmailOutbox.backoff(1000, base, max));
+    }
+
+    private static JavaMailSenderImpl sender(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(port);
+        Properties properties = new Properties();
+        properties.put("mail.smtp.connectiontimeout", "2000");
+        properties.put("mail.smtp.timeout", "2000");
+        sender.setJavaMailProperties(properties);
+        return sender;
+    }
+
+    private static EmailOutboxMessage message(String id, String to, String subject) {
+        return EmailOutboxMessage.builder()
+                .id(id)
+                .to(List.of(to))
+                .subject(subject)
+                .body("Body of " + subject)
+                .status(EmailOutboxMessage.Status.SENDING)
+                .attempts(1)
+                .build();
+    }
+}
@@ -0,0 +1,206 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.model.JwtSigningKey;
+import com.qualityeducation.model.Teacher;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the key ring builds its keys and parser once, picks up stored keys on reload and
+ * verifies tokens signed with previous keys. Bytes allocated per token issued and verified
+ * must stay flat across rounds and below building a parser per call; exact figures depend
+ * on the JVM and JIT state, so they are only logged.
+ */
+@Slf4j
+class JwtServiceAllocationBenchmarkTest {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs256";
+    private static final String NEXT_SECRET = "next-benchmark-secret-key-long-enough-for-hs256";
+    private static final long EXPIRATION = 3_600_000L;
+    private static final int WARMUP = 20_000;
+    private static final int ROUNDS = 5;
+    private static final int OPS_PER_ROUND = 5_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private JwtKeyRing keyRing;
+    private JwtService jwtService;
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = keyRing(SECRET, "primary", "");
+        jwtService = service(keyRing);
+        teacher = Teacher.builder()
+                .id("teacher-1")
+                .email("teacher@example.com")
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .build();
+    }
+
+    @Test
+    void keysAndParserAreBuiltOnce() {
+        JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
+        var parser = keyRing.parser();
+
+        String token = jwtService.generateToken(teacher);
+        assertEquals("teacher-1", jwtService.parsePrincipal(token).getTeacherId());
+
+        assertSame(signingKey, keyRing.activeKey());
+        assertSame(parser, keyRing.parser());
+    }
+
+    @Test
+    void allocationPerIssueAndVerifyStaysFlat() {
+        long[] issue = measureRounds(() -> jwtService.generateToken(teacher));
+        report("issue", issue);
+        assertFlat("issue", issue);
+
+        String token = jwtService.generateToken(teacher);
+        long[] verify = measureRounds(() -> jwtService.parsePrincipal(token));
+        report("verify", verify);
+        assertFlat("verify", verify);
+
+        // The pre-key-ring path: derive the key and build a parser on every call
+        long legacy = measure(() -> Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody());
+        log.info("verify with a parser per call: {} bytes/op", legacy);
+        assertTrue(Arrays.stream(verify).min().getAsLong() < legacy,
+                "verifying through the key ring should allocate less than a parser per call");
+    }
+
+    @Test
+    void storedKeysActivateAndRetireOnReload() {
+        Date now = new Date();
+        JwtSigningKey pending = JwtSigningKey.builder()
+                .id("rotated")
+                .secret(NEXT_SECRET)
+                .activatesAt(new Date(now.getTime() + 60_000))
+                .build();
+
+        // Loaded before activation: verifies, but the configured key still signs
+        keyRing.apply(List.of(pending), now);
+        assertEquals("primary", keyRing.activeKey().id());
+        assertTrue(keyRing.canVerify("rotated"));
+        String before = jwtService.generateToken(teacher);
+
+        // Once active it signs, and the configured key keeps verifying
+        Date later = new Date(now.getTime() + 120_000);
+        keyRing.apply(List.of(pending), later);
+        JwtKeyRing.SigningKey active = keyRing.activeKey();
+        assertEquals("rotated", active.id());
+        String after = jwtService.generateToken(teacher);
+        assertEquals("teacher-1", jwtService.parsePrincipal(before).getTeacherId());
+        assertEquals("teacher-1", jwtService.parsePrincipal(after).getTeacherId());
+
+        // Reloading the same keys reuses them rather than deriving them again
+        keyRing.apply(List.of(pending), later);
+        assertSame(active, keyRing.activeKey());
+
+        // A stored key stops verifying once it retires, and signing falls back
+        pending.setRetiresAt(new Date(later.getTime() + 1));
+        keyRing.apply(List.of(pending), new Date(later.getTime() + 1));
+        assertEquals("primary", keyRing.activeKey().id());
+        assertThrows(RuntimeException.class, () -> jwtService.parsePrincipal(after));
+    }
+
+    @Test
+    void previousKeysKeepVerifyingAfterRotation() {
+        String before = jwtService.generateToken(teacher);
+
+        // Rotation: the old key moves to jwt.previous-keys and a new one becomes active
+        JwtKeyRing rotated = keyRing(NEXT_SECRET, "next", "primary:" + SECRET);
+        JwtService rotatedService = service(rotated);
+        String after = rotatedService.generateToken(teacher);
+
+        assertEquals("next", rotated.activeKey().id());
+        assertEquals("teacher-1", rotatedService.parsePrincipal(before).getTeacherId());
+        assertEquals("teacher-1", rotatedService.parsePrincipal(after).getTeacherId());
+        assertTrue(rotated.canVerify("primary"));
+
+        // A token with no kid is treated as signed by the active key id
+        String legacy = Jwts.builder()
+                .setSubject("legacy@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        assertEquals("legacy@example.com", jwtService.parsePrincipal(legacy).getEmail());
+
+        // Once the old key is dropped from configuration its tokens stop verifying
+        JwtService retiredService = service(keyRing(NEXT_SECRET, "next", ""));
+        assertThrows(RuntimeException.class, () -> retiredService.parsePrincipal(before));
+        assertThrows(IllegalArgumentException.class, () -> keyRing(SECRET, "primary", "no-separator"));
+    }
+
+    private static JwtKeyRing keyRing(String secret, String keyId, String previousKeys) {
+        // No shared store: apply() stands in for a reload from jwt_keys
+        return new JwtKeyRing(null, null, secret, keyId, previousKeys, 60_000L, EXPIRATION);
+    }
+
+    private static JwtService service(JwtKeyRing keyRing) {
+        JwtService service = new JwtService(keyRing);
+        ReflectionTestUtils.setField(service, "jwtExpiration", EXPIRATION);
+        return service;
+    }
+
+    private long[] measureRounds(Supplier<?> operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.get();
+        }
+        long[] perOp = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            perOp[round] = measure(operation);
+        }
+        return perOp;
+    }
+
+    private long measure(Supplier<?> operation) {
+        long threadId = Thread.currentThread().threadId();
+        Object sink = null;
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < OPS_PER_ROUND; i++) {
+            sink = operation.get();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - start;
+        assertNotNull(sink);
+        return allocated / OPS_PER_ROUND;
+    }
+
+    // Rounds after warm-up should allocate about the same; a per-call cache or key derivation
+    // that grows would show up as a climbing round. The slack absorbs JIT and TLAB noise.
+    private static void assertFlat(String name, long[] perOp) {
+        long min = Arrays.stream(perOp).min().getAsLong();
+        long max = Arrays.stream(perOp).max().getAsLong();
+        assertTrue(max <= 2 * min + 256, name + " allocation is not flat: " + Arrays.toString(perOp));
+    }
+
+    private static void report(String name, long[] perOp) {
+        StringBuilder line = new StringBuilder();
+        for (long value : perOp) {
+            line.append(' ').append(value);
+        }
+        log.info("{} bytes/op per round:{}", name, line);
+    }
+}
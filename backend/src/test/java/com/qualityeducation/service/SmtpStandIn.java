@@ -0,0 +1,154 @@
+package com.qualityeducation.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal SMTP server on a loopback port that accepts mail and keeps it in memory, for
+ * exercising real SMTP delivery in tests. It speaks just enough of the protocol for
+ * JavaMail (EHLO, MAIL, RCPT, DATA, RSET, NOOP, QUIT), rejects recipients in
+ * {@code rejectedRecipients} with a 550, and counts connections so tests can check
+ * connection reuse.
+ */
+final class SmtpStandIn implements AutoCloseable {
+
+    record Received(String from, List<String> recipients, String data) {
+
+        String subject() {
+            for (String line : data.split("\r\n")) {
+                if (line.isEmpty()) {
+                    break;
+                }
+                if (line.regionMatches(true, 0, "Subject:", 0, 8)) {
+                    return line.substring(8).trim();
+                }
+            }
+            return null;
+        }
+    }
+
+    private final ServerSocket serverSocket;
+    private final Set<String> rejectedRecipients;
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Thread acceptor;
+
+    SmtpStandIn(Set<String> rejectedRecipients) throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.rejectedRecipients = rejectedRecipients;
+        this.acceptor = new Thread(this::accept, "smtp-stand-in");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    List<Received> received() {
+        return List.copyOf(received);
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread session = new Thread(() -> serve(socket), "smtp-stand-in-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            reply(out, "220 stand-in ESMTP");
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line;
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 stand-in");
+                    case "MAIL" -> {
+                        from = address(line);
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        String recipient = address(line);
+                        if (rejectedRecipients.contains(recipient)) {
+                            reply(out, "550 No such user");
+                        } else {
+                            recipients.add(recipient);
+                            reply(out, "250 OK");
+                        }
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        String dataLine;
+                        while ((dataLine = in.readLine()) != null && !dataLine.equals(".")) {
+                            data.append(dataLine.startsWith("..") ? dataLine.substring(1) : dataLine).append("\r\n");
+                        }
+                        received.add(new Received(from, List.copyOf(recipients), data.toString()));
+                        recipients.clear();
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET" -> {
+                        from = null;
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private static String address(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>', start + 1);
+        return start >= 0 && end > start ? line.substring(start + 1, end) : "";
+    }
+
+    private static void reply(Writer out, String reply) throws IOException {
+        out.write(reply + "\r\n");
+        out.flush();
+    }
+}
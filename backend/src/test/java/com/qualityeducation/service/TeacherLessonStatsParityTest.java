@@ -0,0 +1,305 @@
+package com.qualityeducation.service;
+
+import com.qualityeducation.dto.LessonStatsResponse;
+import com.qualityeducation.model.Lesson;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the {@code $facet} statistics pipeline produces the same
+ * {@link LessonStatsResponse} as the stream reductions it replaced. The rendered
+ * pipeline is evaluated here stage by stage the way Mongo evaluates it, over generated
+ * lessons with missing views, ratings and quizzes and with tied view counts and
+ * creation times.
+ */
+class TeacherLessonStatsParityTest {
+
+    private static final String[] TITLES = {"Variables", "Loops", "Functions", "Recursion", "Closures", "Streams"};
+
+    private List<Lesson> lessons;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 0);
+        lessons = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            Lesson lesson = new Lesson();
+            lesson.setId(String.format("lesson-%04d", random.nextInt(10000)) + "-" + i);
+            lesson.setTeacherId("teacher-" + random.nextInt(12));
+            lesson.setTitle(random.nextInt(20) == 0 ? null : TITLES[random.nextInt(TITLES.length)] + " " + i);
+            Lesson.LessonStatus[] statuses = Lesson.LessonStatus.values();
+            lesson.setStatus(random.nextInt(15) == 0 ? null : statuses[random.nextInt(statuses.length)]);
+            lesson.setCreatedAt(start.plusHours(random.nextInt(300)));
+            lesson.setViews(random.nextInt(6) == 0 ? null : random.nextInt(4) * random.nextInt(40));
+            lesson.setAverageRating(random.nextInt(5) == 0 ? null : random.nextInt(4) == 0 ? 0.0
+                    : Math.round((1 + random.nextDouble() * 4) * 10) / 10.0);
+            lesson.setQuizzes(random.nextInt(4) == 0 ? null : quizzes(random.nextInt(5)));
+            lesson.setTranscript("transcript " + i);
+            lessons.add(lesson);
+        }
+    }
+
+    @Test
+    void pipelineMatchesStreamReductionsForEveryTeacher() {
+        List<String> teachers = new ArrayList<>(lessons.stream().map(Lesson::getTeacherId).distinct().toList());
+        teachers.add("teacher-without-lessons");
+
+        for (String teacherId : teachers) {
+            List<Lesson> owned = lessons.stream()
+                    .filter(lesson -> lesson.getTeacherId().equals(teacherId))
+                    .sorted(Comparator.comparing(Lesson::getCreatedAt).reversed().thenComparing(Lesson::getId))
+                    .collect(Collectors.toList());
+
+            LessonStatsResponse expected = legacyStats(owned);
+            LessonStatsResponse actual = TeacherLessonStats.fromFacets(evaluate(TeacherLessonStats.pipeline(teacherId)));
+
+            assertEquals(expected, actual, "teacher=" + teacherId);
+        }
+    }
+
+    @Test
+    void pipelineProjectsAwayLessonBodies() {
+        Document project = TeacherLessonStats.pipeline("teacher-1").toPipeline(Aggregation.DEFAULT_CONTEXT).get(1)
+                .get("$project", Document.class);
+
+        assertTrue(project.keySet().containsAll(List.of("title", "status", "createdAt", "views", "quizCount")));
+        assertTrue(!project.containsKey("transcript") && !project.containsKey("quizzes"));
+    }
+
+    /**
+     * The statistics {@code getLessonStats} computed before the aggregation.
+     */
+    private static LessonStatsResponse legacyStats(List<Lesson> allLessons) {
+        long totalLessons = allLessons.size();
+        long publishedLessons = allLessons.stream()
+                .filter(lesson -> lesson.getStatus() == Lesson.LessonStatus.PUBLISHED)
+                .count();
+        long draftLessons = allLessons.stream()
+                .filter(lesson -> lesson.getStatus() == Lesson.LessonStatus.DRAFT)
+                .count();
+
+        long totalViews = allLessons.stream()
+                .mapToLong(lesson -> lesson.getViews() != null ? lesson.getViews() : 0)
+                .sum();
+
+        double averageRating = allLessons.stream()
+                .filter(lesson -> lesson.getAverageRating() != null && lesson.getAverageRating() > 0)
+                .mapToDouble(Lesson::getAverageRating)
+                .average()
+                .orElse(0.0);
+
+        long totalQuizzes = allLessons.stream()
+                .mapToLong(lesson -> lesson.getQuizzes() != null ? lesson.getQuizzes().size() : 0)
+                .sum();
+
+        String mostPopularLesson = allLessons.stream()
+                .filter(lesson -> lesson.getViews() != null && lesson.getViews() > 0)
+                .max((l1, l2) -> Integer.compare(l1.getViews(), l2.getViews()))
+                .map(Lesson::getTitle)
+                .orElse("None");
+
+        String recentlyCreated = allLessons.isEmpty() ? "None" : allLessons.get(0).getTitle();
+
+        return LessonStatsResponse.builder()
+                .totalLessons(totalLessons)
+                .publishedLessons(publishedLessons)
+                .draftLessons(draftLessons)
+                .totalViews(totalViews)
+                .averageRating(Math.round(averageRating * 100.0) / 100.0)
+                .totalQuizzes(totalQuizzes)
+                .mostPopularLesson(mostPopularLesson)
+                .recentlyCreated(recentlyCreated)
+                .build();
+    }
+
+    private Document evaluate(Aggregation aggregation) {
+        List<Document> rows = lessons.stream().map(TeacherLessonStatsParityTest::stored).collect(Collectors.toList());
+        for (Document stage : aggregation.toPipeline(Aggregation.DEFAULT_CONTEXT)) {
+            rows = apply(stage, rows);
+        }
+        assertEquals(1, rows.size(), "a $facet stage yields exactly one document");
+        return rows.get(0);
+    }
+
+    // The lesson as Mongo stores it: enums by name, absent fields left out
+    private static Document stored(Lesson lesson) {
+        Document document = new Document("_id", lesson.getId()).append("teacherId", lesson.getTeacherId());
+        putIfPresent(document, "title", lesson.getTitle());
+        putIfPresent(document, "status", lesson.getStatus() != null ? lesson.getStatus().name() : null);
+        putIfPresent(document, "createdAt", lesson.getCreatedAt());
+        putIfPresent(document, "views", lesson.getViews());
+        putIfPresent(document, "averageRating", lesson.getAverageRating());
+        putIfPresent(document, "quizzes", lesson.getQuizzes() != null
+                ? lesson.getQuizzes().stream().map(quiz -> new Document("id", quiz.getId())).toList()
+                : null);
+        putIfPresent(document, "transcript", lesson.getTranscript());
+        return document;
+    }
+
+    private static void putIfPresent(Document document, String field, Object value) {
+        if (value != null) {
+            document.append(field, value);
+        }
+    }
+
+    private static List<Document> apply(Document stage, List<Document> rows) {
+        String operator = stage.keySet().iterator().next();
+        if (operator.equals("$limit")) {
+            return rows.stream().limit(((Number) stage.get(operator)).longValue()).collect(Collectors.toList());
+        }
+        Document spec = stage.get(operator, Document.class);
+        return switch (operator) {
+            case "$match" -> rows.stream().filter(row -> matches(spec, row)).collect(Collectors.toList());
+            case "$project" -> rows.stream().map(row -> project(spec, row)).collect(Collectors.toList());
+            case "$group" -> group(spec, rows);
+            case "$sort" -> rows.stream().sorted(sort(spec)).collect(Collectors.toList());
+            case "$facet" -> {
+                Document result = new Document();
+                for (Map.Entry<String, Object> facet : spec.entrySet()) {
+                    List<Document> facetRows = rows;
+                    for (Object facetStage : (List<?>) facet.getValue()) {
+                        facetRows = apply((Document) facetStage, facetRows);
+                    }
+                    result.append(facet.getKey(), facetRows);
+                }
+                yield List.of(result);
+            }
+            default -> throw new AssertionError("Unexpected stage: " + stage.toJson());
+        };
+    }
+
+    private static boolean matches(Document filter, Document row) {
+        for (Map.Entry<String, Object> clause : filter.entrySet()) {
+            Object value = row.get(clause.getKey());
+            if (clause.getValue() instanceof Document condition) {
+                Object bound = condition.get("$gt");
+                if (condition.size() != 1 || bound == null) {
+                    throw new AssertionError("Unexpected condition: " + condition.toJson());
+                }
+                if (!(value instanceof Number number) || number.doubleValue() <= ((Number) bound).doubleValue()) {
+                    return false;
+                }
+            } else if (!Objects.equals(value, clause.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Document project(Document spec, Document row) {
+        Document projected = new Document("_id", row.get("_id"));
+        for (Map.Entry<String, Object> field : spec.entrySet()) {
+            if (Objects.equals(field.getValue(), 1)) {
+                putIfPresent(projected, field.getKey(), row.get(field.getKey()));
+            } else {
+                projected.append(field.getKey(), expression(field.getValue(), row));
+            }
+        }
+        return projected;
+    }
+
+    private static List<Document> group(Document spec, List<Document> rows) {
+        if (spec.get("_id") != null) {
+            throw new AssertionError("Only whole-input groups are expected: " + spec.toJson());
+        }
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Document result = new Document("_id", null);
+        for (Map.Entry<String, Object> field : spec.entrySet()) {
+            if (field.getKey().equals("_id")) {
+                continue;
+            }
+            Document accumulator = (Document) field.getValue();
+            String operator = accumulator.keySet().iterator().next();
+            Object argument = accumulator.get(operator);
+            switch (operator) {
+                case "$sum" -> {
+                    long sum = 0;
+                    for (Document row : rows) {
+                        Object value = expression(argument, row);
+                        sum += value instanceof Number number ? number.longValue() : 0;
+                    }
+                    result.append(field.getKey(), sum);
+                }
+                case "$avg" -> {
+                    // Mongo sums doubles with extra precision; compensated summation models that
+                    OptionalDouble average = rows.stream()
+                            .map(row -> expression(argument, row))
+                            .filter(Number.class::isInstance)
+                            .mapToDouble(value -> ((Number) value).doubleValue())
+                            .average();
+                    result.append(field.getKey(), average.isPresent() ? average.getAsDouble() : null);
+                }
+                default -> throw new AssertionError("Unexpected accumulator: " + accumulator.toJson());
+            }
+        }
+        return List.of(result);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Document> sort(Document spec) {
+        Comparator<Document> comparator = (a, b) -> 0;
+        for (Map.Entry<String, Object> key : spec.entrySet()) {
+            // Missing values sort before any value, as in Mongo
+            Comparator<Document> byKey = Comparator.comparing(row -> (Comparable) row.get(key.getKey()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(((Number) key.getValue()).intValue() < 0 ? byKey.reversed() : byKey);
+        }
+        return comparator;
+    }
+
+    private static Object expression(Object expression, Document row) {
+        if (expression instanceof String reference && reference.startsWith("$")) {
+            return row.get(reference.substring(1));
+        }
+        if (!(expression instanceof Document document)) {
+            return expression;
+        }
+        String operator = document.keySet().iterator().next();
+        Object argument = document.get(operator);
+        return switch (operator) {
+            case "$ifNull" -> {
+                List<?> arguments = (List<?>) argument;
+                Object value = expression(arguments.get(0), row);
+                yield value != null ? value : expression(arguments.get(1), row);
+            }
+            case "$size" -> ((List<?>) expression(argument, row)).size();
+            case "$eq" -> {
+                List<?> arguments = (List<?>) argument;
+                yield Objects.equals(expression(arguments.get(0), row), expression(arguments.get(1), row));
+            }
+            case "$cond" -> {
+                Document cond = (Document) argument;
+                yield Boolean.TRUE.equals(expression(cond.get("if"), row))
+                        ? expression(cond.get("then"), row)
+                        : expression(cond.get("else"), row);
+            }
+            default -> throw new AssertionError("Unexpected expression: " + document.toJson());
+        };
+    }
+
+    private static List<Lesson.Quiz> quizzes(int count) {
+        List<Lesson.Quiz> quizzes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            quizzes.add(Lesson.Quiz.builder().id("quiz-" + i).question("Question " + i).build());
+        }
+        return quizzes;
+    }
+}
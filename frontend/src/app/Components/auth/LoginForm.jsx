@@ -6,6 +6,7 @@ import Image from 'next/image';
 import Link from 'next/link';
 import Button from '../ui/Button';
 import { useRouter } from 'next/navigation';
+import { storeRefreshToken } from '@/app/utils/authFetch';
 
 const LoginForm = ({ onForgotPassword }) => {
   const [formData, setFormData] = useState({
@@ -96,6 +97,7 @@ const LoginForm = ({ onForgotPassword }) => {
 
       // Store auth data in localStorage - token and data are at root level
       localStorage.setItem('authToken', result.token);
+      storeRefreshToken(result.refreshToken);
       localStorage.setItem('userId', result.userId);
       localStorage.setItem('username', result.username);
       localStorage.setItem('userEmail', formData.email); // Use form email since it's not in response
@@ -3,6 +3,7 @@
 import React, { useState, useEffect } from "react";
 import { motion, AnimatePresence } from "motion/react";
 import Link from "next/link";
+import { authFetch } from "@/app/utils/authFetch";
 
 const StudentHeader = () => {
   const [showNotifications, setShowNotifications] = useState(false);
@@ -74,7 +75,7 @@ const StudentHeader = () => {
       setStudentData({ id: userId, username });
 
       // Try to fetch detailed profile data from API
-      const response = await fetch(
+      const response = await authFetch(
         `http://localhost:8080/api/student/profile/${userId}`,
         {
           method: "GET",
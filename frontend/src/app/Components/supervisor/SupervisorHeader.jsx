@@ -4,6 +4,7 @@ import React, { useState, useEffect } from 'react';
 import { motion, AnimatePresence } from 'motion/react';
 import Link from 'next/link';
 import Image from 'next/image';
+import { authFetch } from '@/app/utils/authFetch';
 
 const SupervisorHeader = () => {
   const [showNotifications, setShowNotifications] = useState(false);
@@ -59,7 +60,7 @@ const SupervisorHeader = () => {
       setSupervisorData(storedSupervisorData);
 
       // Fetch detailed profile data from API
-      const response = await fetch(`http://localhost:8080/api/supervisor/profile/${storedSupervisorData.id}`, {
+      const response = await authFetch(`http://localhost:8080/api/supervisor/profile/${storedSupervisorData.id}`, {
         method: 'GET',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -4,6 +4,7 @@ import React, { useState, useEffect } from 'react';
 import { motion } from 'motion/react';
 import Link from 'next/link';
 import Image from 'next/image';
+import { authFetch } from '@/app/utils/authFetch';
 
 const SupervisorDashboard = () => {
   const [stats, setStats] = useState({
@@ -43,7 +44,7 @@ const SupervisorDashboard = () => {
       }
 
       // Fetch dashboard statistics
-      const statsResponse = await fetch('http://localhost:8080/api/supervisor/dashboard/stats', {
+      const statsResponse = await authFetch('http://localhost:8080/api/supervisor/dashboard/stats', {
         method: 'GET',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -65,7 +66,7 @@ const SupervisorDashboard = () => {
       }
 
       // Fetch recent activities
-      const activitiesResponse = await fetch('http://localhost:8080/api/supervisor/dashboard/activities', {
+      const activitiesResponse = await authFetch('http://localhost:8080/api/supervisor/dashboard/activities', {
         method: 'GET',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -81,7 +82,7 @@ const SupervisorDashboard = () => {
       }
 
       // Fetch pending reviews
-      const reviewsResponse = await fetch('http://localhost:8080/api/supervisor/dashboard/pending-reviews', {
+      const reviewsResponse = await authFetch('http://localhost:8080/api/supervisor/dashboard/pending-reviews', {
         method: 'GET',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -149,7 +150,7 @@ const SupervisorDashboard = () => {
     try {
       const token = localStorage.getItem('supervisorToken');
       
-      const response = await fetch(`http://localhost:8080/api/supervisor/lessons/${lessonId}/approve`, {
+      const response = await authFetch(`http://localhost:8080/api/supervisor/lessons/${lessonId}/approve`, {
         method: 'POST',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -179,7 +180,7 @@ const SupervisorDashboard = () => {
 
       const token = localStorage.getItem('supervisorToken');
       
-      const response = await fetch(`http://localhost:8080/api/supervisor/lessons/${lessonId}/reject`, {
+      const response = await authFetch(`http://localhost:8080/api/supervisor/lessons/${lessonId}/reject`, {
         method: 'POST',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -5,6 +5,7 @@ import { motion } from 'motion/react';
 import Image from 'next/image';
 import Link from 'next/link';
 import Button from '../../Components/ui/Button';
+import { storeRefreshToken } from '@/app/utils/authFetch';
 
 const SupervisorLogin = () => {
   const [formData, setFormData] = useState({
@@ -73,6 +74,7 @@ const SupervisorLogin = () => {
       if (result.success) {
         // Store token in localStorage or secure storage
         localStorage.setItem('token', result.data.token);
+        storeRefreshToken(result.data.refreshToken);
         localStorage.setItem('userType', 'supervisor');
         localStorage.setItem('supervisorData', JSON.stringify(result.data.supervisor));
         
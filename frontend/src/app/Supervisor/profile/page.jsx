@@ -4,6 +4,7 @@ import React, { useState, useEffect } from 'react';
 import { motion, AnimatePresence } from 'motion/react';
 import Image from 'next/image';
 import Link from 'next/link';
+import { authFetch } from '@/app/utils/authFetch';
 
 const SupervisorProfile = () => {
   const [activeTab, setActiveTab] = useState('overview');
@@ -70,7 +71,7 @@ const SupervisorProfile = () => {
       }
 
       // Use the correct profile endpoint, not dashboard endpoint
-      const response = await fetch(`http://localhost:8080/api/supervisor/profile/${supervisorData.id}`, {
+      const response = await authFetch(`http://localhost:8080/api/supervisor/profile/${supervisorData.id}`, {
         method: 'GET',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -132,7 +133,7 @@ const SupervisorProfile = () => {
       if (!token || !supervisorData.id) return;
 
       // Use correct stats endpoint
-      const response = await fetch(`http://localhost:8080/api/supervisor/profile/${supervisorData.id}/stats`, {
+      const response = await authFetch(`http://localhost:8080/api/supervisor/profile/${supervisorData.id}/stats`, {
         method: 'GET',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -159,7 +160,7 @@ const SupervisorProfile = () => {
       if (!token || !supervisorData.id) return;
 
       // Use profile-specific activities endpoint
-      const response = await fetch(`http://localhost:8080/api/supervisor/profile/${supervisorData.id}/activities`, {
+      const response = await authFetch(`http://localhost:8080/api/supervisor/profile/${supervisorData.id}/activities`, {
         method: 'GET',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -207,7 +208,7 @@ const SupervisorProfile = () => {
         specialization: profileData.specialization
       };
 
-      const response = await fetch(`http://localhost:8080/api/supervisor/profile/${supervisorData.id}`, {
+      const response = await authFetch(`http://localhost:8080/api/supervisor/profile/${supervisorData.id}`, {
         method: 'PUT',
         headers: {
           'Authorization': `Bearer ${token}`,
@@ -1,3 +1,5 @@
+import { storeRefreshToken } from '../utils/authFetch';
+
 const API_URL = 'http://localhost:8080/api/auth';
 
 export const authService = {
@@ -18,6 +20,7 @@ export const authService = {
     
     // Store auth data
     localStorage.setItem('authToken', data.token);
+    storeRefreshToken(data.refreshToken);
     localStorage.setItem('userId', data.userId);
     localStorage.setItem('username', data.username);
     
@@ -41,6 +44,7 @@ export const authService = {
     
     // Store auth data
     localStorage.setItem('authToken', data.token);
+    storeRefreshToken(data.refreshToken);
     localStorage.setItem('userId', data.userId);
     localStorage.setItem('username', data.username);
     
@@ -85,6 +89,7 @@ export const authService = {
   
   logout: () => {
     localStorage.removeItem('authToken');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('userId');
     localStorage.removeItem('username');
     // Remove any other auth-related items
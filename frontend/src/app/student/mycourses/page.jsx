@@ -3,6 +3,7 @@
 import React, { useState, useEffect } from 'react';
 import { motion, AnimatePresence } from 'motion/react';
 import Link from 'next/link';
+import { authFetch } from '@/app/utils/authFetch';
 
 const MyCoursesPage = () => {
   const [enrolledCourses, setEnrolledCourses] = useState([]);
@@ -107,7 +108,7 @@ const MyCoursesPage = () => {
         return;
       }
 
-      const response = await fetch(
+      const response = await authFetch(
         `http://localhost:8080/api/student/courses/${userId}`,
         {
           method: "GET",
@@ -4,6 +4,7 @@ import React, { useState, useEffect } from "react";
 import { motion } from "motion/react";
 import Link from "next/link";
 import Image from "next/image";
+import { authFetch } from "@/app/utils/authFetch";
 
 const StudentDashboard = () => {
   const [stats, setStats] = useState({
@@ -50,7 +51,7 @@ const StudentDashboard = () => {
       }
 
       // Fetch dashboard statistics
-      const statsResponse = await fetch(
+      const statsResponse = await authFetch(
         `http://localhost:8080/api/student/dashboard/stats/${userId}`,
         {
           method: "GET",
@@ -77,7 +78,7 @@ const StudentDashboard = () => {
       }
 
       // Fetch recent activities
-      const activitiesResponse = await fetch(
+      const activitiesResponse = await authFetch(
         `http://localhost:8080/api/student/dashboard/activities/${userId}`,
         {
           method: "GET",
@@ -96,7 +97,7 @@ const StudentDashboard = () => {
       }
 
       // Fetch upcoming lessons
-      const lessonsResponse = await fetch(
+      const lessonsResponse = await authFetch(
         `http://localhost:8080/api/student/dashboard/upcoming-lessons/${userId}`,
         {
           method: "GET",
@@ -115,7 +116,7 @@ const StudentDashboard = () => {
       }
 
       // Fetch recent achievements
-      const achievementsResponse = await fetch(
+      const achievementsResponse = await authFetch(
         `http://localhost:8080/api/student/dashboard/achievements/${userId}`,
         {
           method: "GET",
@@ -134,7 +135,7 @@ const StudentDashboard = () => {
       }
 
       // Fetch student profile data
-      const profileResponse = await fetch(
+      const profileResponse = await authFetch(
         `http://localhost:8080/api/student/profile/${userId}`,
         {
           method: "GET",
@@ -259,7 +260,7 @@ const StudentDashboard = () => {
       const userId = localStorage.getItem("userId");
 
       // Log lesson start activity
-      await fetch(
+      await authFetch(
         `http://localhost:8080/api/student/lessons/${lessonId}/start`,
         {
           method: "POST",
@@ -4,6 +4,7 @@ import React, { useState, useEffect } from "react";
 import { motion, AnimatePresence } from "motion/react";
 import Image from "next/image";
 import Link from "next/link";
+import { authFetch } from "@/app/utils/authFetch";
 
 const StudentProfile = () => {
   const [activeTab, setActiveTab] = useState("overview");
@@ -118,7 +119,7 @@ const StudentProfile = () => {
         return;
       }
 
-      const response = await fetch(
+      const response = await authFetch(
         `http://localhost:8080/api/student/profile/${userData.id}`,
         {
           method: "GET",
@@ -179,7 +180,7 @@ const StudentProfile = () => {
 
       if (!userData?.id || !token) return;
 
-      const response = await fetch(
+      const response = await authFetch(
         `http://localhost:8080/api/student/profile/${userData.id}/stats`,
         {
           method: "GET",
@@ -211,7 +212,7 @@ const StudentProfile = () => {
 
       if (!userData?.id || !token) return;
 
-      const response = await fetch(
+      const response = await authFetch(
         `http://localhost:8080/api/student/profile/${userData.id}/activities`,
         {
           method: "GET",
@@ -263,7 +264,7 @@ const StudentProfile = () => {
         languageKnown: profileData.languageKnown,
       };
 
-      const response = await fetch(
+      const response = await authFetch(
         `http://localhost:8080/api/student/profile/${userData.id}`,
         {
           method: "PUT",
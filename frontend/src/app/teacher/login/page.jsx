@@ -6,6 +6,7 @@ import Image from 'next/image';
 import Link from 'next/link';
 import { useRouter } from 'next/navigation';
 import Button from '../../Components/ui/Button';
+import { storeRefreshToken } from '@/app/utils/authFetch';
 
 const TeacherLogin = () => {
   const router = useRouter();
@@ -75,6 +76,7 @@ const TeacherLogin = () => {
       if (result.success) {
         // Store token and teacher data
         localStorage.setItem('token', result.data.token);
+        storeRefreshToken(result.data.refreshToken);
         localStorage.setItem('userType', 'teacher');
         localStorage.setItem('teacherData', JSON.stringify(result.data.teacher));
         
@@ -1,3 +1,5 @@
+import { authFetch } from './authFetch';
+
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api';
 
 class ApiService {
@@ -29,6 +31,7 @@ class ApiService {
         // Clear tokens on authentication failure
         if (typeof window !== 'undefined') {
           localStorage.removeItem('token');
+          localStorage.removeItem('refreshToken');
           localStorage.removeItem('userType');
           localStorage.removeItem('teacherData');
           localStorage.removeItem('supervisorData');
@@ -102,7 +105,7 @@ class ApiService {
   // Course APIs
   static async createCourse(courseData) {
     try {
-      const response = await fetch(`${API_BASE_URL}/courses/create`, {
+      const response = await authFetch(`${API_BASE_URL}/courses/create`, {
         method: 'POST',
         headers: this.getAuthHeaders(),
         body: JSON.stringify(courseData),
@@ -115,7 +118,7 @@ class ApiService {
   }
 
   static async getCoursesByTeacher(teacherId) {
-    const response = await fetch(`${API_BASE_URL}/courses/teacher/${teacherId}`, {
+    const response = await authFetch(`${API_BASE_URL}/courses/teacher/${teacherId}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -123,7 +126,7 @@ class ApiService {
   }
 
   static async getCourseById(courseId) {
-    const response = await fetch(`${API_BASE_URL}/courses/${courseId}`, {
+    const response = await authFetch(`${API_BASE_URL}/courses/${courseId}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -157,7 +160,7 @@ class ApiService {
   }
 
   static async updateCourse(courseId, courseData) {
-    const response = await fetch(`${API_BASE_URL}/courses/${courseId}`, {
+    const response = await authFetch(`${API_BASE_URL}/courses/${courseId}`, {
       method: 'PUT',
       headers: this.getAuthHeaders(),
       body: JSON.stringify(courseData),
@@ -166,7 +169,7 @@ class ApiService {
   }
 
   static async deleteCourse(courseId) {
-    const response = await fetch(`${API_BASE_URL}/courses/${courseId}`, {
+    const response = await authFetch(`${API_BASE_URL}/courses/${courseId}`, {
       method: 'DELETE',
       headers: this.getAuthHeaders(),
     });
@@ -180,7 +183,7 @@ class ApiService {
    */
   static async createModule(courseId, moduleData) {
     try {
-      const response = await fetch(`${API_BASE_URL}/modules/course/${courseId}`, {
+      const response = await authFetch(`${API_BASE_URL}/modules/course/${courseId}`, {
         method: 'POST',
         headers: this.getAuthHeaders(),
         body: JSON.stringify(moduleData),
@@ -196,7 +199,7 @@ class ApiService {
    * Get all modules for a course
    */
   static async getModulesByCourse(courseId) {
-    const response = await fetch(`${API_BASE_URL}/modules/course/${courseId}`, {
+    const response = await authFetch(`${API_BASE_URL}/modules/course/${courseId}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -207,7 +210,7 @@ class ApiService {
    * Get a specific module by ID
    */
   static async getModuleById(moduleId) {
-    const response = await fetch(`${API_BASE_URL}/modules/${moduleId}`, {
+    const response = await authFetch(`${API_BASE_URL}/modules/${moduleId}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -218,7 +221,7 @@ class ApiService {
    * Update a module
    */
   static async updateModule(moduleId, moduleData) {
-    const response = await fetch(`${API_BASE_URL}/modules/${moduleId}`, {
+    const response = await authFetch(`${API_BASE_URL}/modules/${moduleId}`, {
       method: 'PUT',
       headers: this.getAuthHeaders(),
       body: JSON.stringify(moduleData),
@@ -230,7 +233,7 @@ class ApiService {
    * Delete a module
    */
   static async deleteModule(moduleId) {
-    const response = await fetch(`${API_BASE_URL}/modules/${moduleId}`, {
+    const response = await authFetch(`${API_BASE_URL}/modules/${moduleId}`, {
       method: 'DELETE',
       headers: this.getAuthHeaders(),
     });
@@ -241,7 +244,7 @@ class ApiService {
    * Reorder modules in a course
    */
   static async reorderModules(courseId, reorderData) {
-    const response = await fetch(`${API_BASE_URL}/modules/course/${courseId}/reorder`, {
+    const response = await authFetch(`${API_BASE_URL}/modules/course/${courseId}/reorder`, {
       method: 'PUT',
       headers: this.getAuthHeaders(),
       body: JSON.stringify(reorderData),
@@ -253,7 +256,7 @@ class ApiService {
    * Get all modules by teacher
    */
   static async getModulesByTeacher() {
-    const response = await fetch(`${API_BASE_URL}/modules/teacher`, {
+    const response = await authFetch(`${API_BASE_URL}/modules/teacher`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -264,7 +267,7 @@ class ApiService {
    * Update module status
    */
   static async updateModuleStatus(moduleId, status) {
-    const response = await fetch(`${API_BASE_URL}/modules/${moduleId}/status?status=${status}`, {
+    const response = await authFetch(`${API_BASE_URL}/modules/${moduleId}/status?status=${status}`, {
       method: 'PATCH',
       headers: this.getAuthHeaders(),
     });
@@ -275,7 +278,7 @@ class ApiService {
    * Get next available order for a course
    */
   static async getNextOrderForCourse(courseId) {
-    const response = await fetch(`${API_BASE_URL}/modules/course/${courseId}/next-order`, {
+    const response = await authFetch(`${API_BASE_URL}/modules/course/${courseId}/next-order`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -289,7 +292,7 @@ class ApiService {
    */
   static async createLesson(moduleId, lessonData) {
     try {
-      const response = await fetch(`${API_BASE_URL}/lessons/modules/${moduleId}`, {
+      const response = await authFetch(`${API_BASE_URL}/lessons/modules/${moduleId}`, {
         method: 'POST',
         headers: this.getAuthHeaders(),
         body: JSON.stringify(lessonData),
@@ -305,7 +308,7 @@ class ApiService {
    * Get all lessons for a module
    */
   static async getLessonsByModule(moduleId) {
-    const response = await fetch(`${API_BASE_URL}/lessons/modules/${moduleId}`, {
+    const response = await authFetch(`${API_BASE_URL}/lessons/modules/${moduleId}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -316,7 +319,7 @@ class ApiService {
    * Get a specific lesson by ID
    */
   static async getLessonById(lessonId) {
-    const response = await fetch(`${API_BASE_URL}/lessons/${lessonId}`, {
+    const response = await authFetch(`${API_BASE_URL}/lessons/${lessonId}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -327,7 +330,7 @@ class ApiService {
    * Update a lesson
    */
   static async updateLesson(lessonId, lessonData) {
-    const response = await fetch(`${API_BASE_URL}/lessons/${lessonId}`, {
+    const response = await authFetch(`${API_BASE_URL}/lessons/${lessonId}`, {
       method: 'PUT',
       headers: this.getAuthHeaders(),
       body: JSON.stringify(lessonData),
@@ -339,7 +342,7 @@ class ApiService {
    * Delete a lesson
    */
   static async deleteLesson(lessonId) {
-    const response = await fetch(`${API_BASE_URL}/lessons/${lessonId}`, {
+    const response = await authFetch(`${API_BASE_URL}/lessons/${lessonId}`, {
       method: 'DELETE',
       headers: this.getAuthHeaders(),
     });
@@ -350,7 +353,7 @@ class ApiService {
    * Search lessons in a course
    */
   static async searchLessons(courseId, searchTerm) {
-    const response = await fetch(`${API_BASE_URL}/lessons/search?courseId=${courseId}&searchTerm=${encodeURIComponent(searchTerm)}`, {
+    const response = await authFetch(`${API_BASE_URL}/lessons/search?courseId=${courseId}&searchTerm=${encodeURIComponent(searchTerm)}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -361,7 +364,7 @@ class ApiService {
    * Get lesson statistics for teacher
    */
   static async getLessonStats() {
-    const response = await fetch(`${API_BASE_URL}/lessons/stats`, {
+    const response = await authFetch(`${API_BASE_URL}/lessons/stats`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -372,7 +375,7 @@ class ApiService {
    * Reorder lessons in a module
    */
   static async reorderLessons(moduleId, lessonIds) {
-    const response = await fetch(`${API_BASE_URL}/lessons/modules/${moduleId}/reorder`, {
+    const response = await authFetch(`${API_BASE_URL}/lessons/modules/${moduleId}/reorder`, {
       method: 'PUT',
       headers: this.getAuthHeaders(),
       body: JSON.stringify({ lessonIds }),
@@ -384,7 +387,7 @@ class ApiService {
    * Publish a lesson
    */
   static async publishLesson(lessonId) {
-    const response = await fetch(`${API_BASE_URL}/lessons/${lessonId}/publish`, {
+    const response = await authFetch(`${API_BASE_URL}/lessons/${lessonId}/publish`, {
       method: 'PUT',
       headers: this.getAuthHeaders(),
     });
@@ -395,7 +398,7 @@ class ApiService {
    * Unpublish a lesson
    */
   static async unpublishLesson(lessonId) {
-    const response = await fetch(`${API_BASE_URL}/lessons/${lessonId}/unpublish`, {
+    const response = await authFetch(`${API_BASE_URL}/lessons/${lessonId}/unpublish`, {
       method: 'PUT',
       headers: this.getAuthHeaders(),
     });
@@ -404,7 +407,7 @@ class ApiService {
 
   // Teacher Profile APIs
   static async getTeacherProfile(teacherId) {
-    const response = await fetch(`${API_BASE_URL}/teacher/profile/${teacherId}`, {
+    const response = await authFetch(`${API_BASE_URL}/teacher/profile/${teacherId}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -412,7 +415,7 @@ class ApiService {
   }
 
   static async updateTeacherProfile(teacherId, updateData) {
-    const response = await fetch(`${API_BASE_URL}/teacher/profile/${teacherId}`, {
+    const response = await authFetch(`${API_BASE_URL}/teacher/profile/${teacherId}`, {
       method: 'PUT',
       headers: this.getAuthHeaders(),
       body: JSON.stringify(updateData),
@@ -437,7 +440,7 @@ class ApiService {
 
   // Supervisor Profile APIs
   static async getSupervisorProfile(supervisorId) {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/supervisor/profile/${supervisorId}`,
       {
         method: "GET",
@@ -448,7 +451,7 @@ class ApiService {
   }
 
   static async updateSupervisorProfile(supervisorId, updateData) {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/supervisor/profile/${supervisorId}`,
       {
         method: "PUT",
@@ -461,7 +464,7 @@ class ApiService {
 
   // Dashboard APIs
   static async getDashboardStats() {
-    const response = await fetch(`${API_BASE_URL}/supervisor/dashboard/stats`, {
+    const response = await authFetch(`${API_BASE_URL}/supervisor/dashboard/stats`, {
       method: "GET",
       headers: this.getAuthHeaders(),
     });
@@ -469,7 +472,7 @@ class ApiService {
   }
 
   static async getDashboardActivities() {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/supervisor/dashboard/activities`,
       {
         method: "GET",
@@ -480,7 +483,7 @@ class ApiService {
   }
 
   static async getPendingReviews() {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/supervisor/dashboard/pending-reviews`,
       {
         method: "GET",
@@ -492,7 +495,7 @@ class ApiService {
 
   // Lesson Management APIs
   static async approveLesson(lessonId) {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/supervisor/lessons/${lessonId}/approve`,
       {
         method: "POST",
@@ -503,7 +506,7 @@ class ApiService {
   }
 
   static async rejectLesson(lessonId, reason) {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/supervisor/lessons/${lessonId}/reject`,
       {
         method: "POST",
@@ -516,7 +519,7 @@ class ApiService {
 
   // Teachers APIs
   static async getTeachers() {
-    const response = await fetch(`${API_BASE_URL}/supervisor/teachers`, {
+    const response = await authFetch(`${API_BASE_URL}/supervisor/teachers`, {
       method: "GET",
       headers: this.getAuthHeaders(),
     });
@@ -525,7 +528,7 @@ class ApiService {
 
   // Students APIs
   static async getStudents() {
-    const response = await fetch(`${API_BASE_URL}/supervisor/students`, {
+    const response = await authFetch(`${API_BASE_URL}/supervisor/students`, {
       method: "GET",
       headers: this.getAuthHeaders(),
     });
@@ -534,7 +537,7 @@ class ApiService {
 
   // Analytics APIs
   static async getAnalyticsData(timeRange = "7d") {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/supervisor/analytics?timeRange=${timeRange}`,
       {
         method: "GET",
@@ -546,7 +549,7 @@ class ApiService {
 
   // Student Profile APIs
   static async getStudentProfile(studentId) {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/student/profile/${studentId}`,
       {
         method: "GET",
@@ -557,7 +560,7 @@ class ApiService {
   }
 
   static async updateStudentProfile(studentId, updateData) {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/student/profile/${studentId}`,
       {
         method: "PUT",
@@ -569,7 +572,7 @@ class ApiService {
   }
 
   static async getStudentStats(studentId) {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/student/profile/${studentId}/stats`,
       {
         method: "GET",
@@ -580,7 +583,7 @@ class ApiService {
   }
 
   static async getStudentActivities(studentId) {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/student/profile/${studentId}/activities`,
       {
         method: "GET",
@@ -596,7 +599,7 @@ class ApiService {
    * Get all students enrolled in teacher's courses
    */
   static async getTeacherStudents() {
-    const response = await fetch(`${API_BASE_URL}/teacher/students`, {
+    const response = await authFetch(`${API_BASE_URL}/teacher/students`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -607,7 +610,7 @@ class ApiService {
    * Get student details with course progress
    */
   static async getStudentDetails(studentId) {
-    const response = await fetch(`${API_BASE_URL}/teacher/students/${studentId}`, {
+    const response = await authFetch(`${API_BASE_URL}/teacher/students/${studentId}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -618,7 +621,7 @@ class ApiService {
    * Get student progress in a specific course
    */
   static async getStudentCourseProgress(studentId, courseId) {
-    const response = await fetch(`${API_BASE_URL}/teacher/students/${studentId}/courses/${courseId}`, {
+    const response = await authFetch(`${API_BASE_URL}/teacher/students/${studentId}/courses/${courseId}`, {
       method: 'GET',
       headers: this.getAuthHeaders(),
     });
@@ -629,6 +632,7 @@ class ApiService {
   static logout() {
     if (typeof window !== 'undefined') {
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('teacherToken');
       localStorage.removeItem('userType');
       localStorage.removeItem('teacherData');
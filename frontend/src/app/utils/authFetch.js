@@ -0,0 +1,67 @@
+const API_BASE_URL = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api';
+
+// Students keep their access token under 'authToken', teachers and supervisors under 'token'
+const ACCESS_TOKEN_KEYS = ['token', 'authToken'];
+
+let refreshing = null;
+
+function accessTokenKey() {
+  return ACCESS_TOKEN_KEYS.find((key) => localStorage.getItem(key)) || 'token';
+}
+
+export function storeRefreshToken(refreshToken) {
+  if (typeof window !== 'undefined' && refreshToken) {
+    localStorage.setItem('refreshToken', refreshToken);
+  }
+}
+
+// Trades the stored refresh token for a new access and refresh token pair
+async function refreshTokens() {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) {
+    return null;
+  }
+
+  const response = await fetch(`${API_BASE_URL}/auth/refresh`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ refreshToken }),
+  });
+  if (!response.ok) {
+    localStorage.removeItem('refreshToken');
+    return null;
+  }
+
+  const result = await response.json();
+  localStorage.setItem(accessTokenKey(), result.data.token);
+  localStorage.setItem('refreshToken', result.data.refreshToken);
+  return result.data.token;
+}
+
+// fetch for authenticated requests. Access tokens are short-lived, so a 401 renews them
+// with the refresh token once and the request is sent again with the new access token.
+export async function authFetch(url, options = {}) {
+  const response = await fetch(url, options);
+  if (response.status !== 401 || typeof window === 'undefined') {
+    return response;
+  }
+
+  // Refresh tokens are single-use, so concurrent requests share one refresh
+  if (!refreshing) {
+    refreshing = refreshTokens()
+      .catch(() => null)
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  const token = await refreshing;
+  if (!token) {
+    return response;
+  }
+
+  const headers = new Headers(options.headers);
+  headers.set('Authorization', `Bearer ${token}`);
+  return fetch(url, { ...options, headers });
+}
+
+export default authFetch;